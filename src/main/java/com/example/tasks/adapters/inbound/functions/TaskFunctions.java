@@ -11,6 +11,7 @@ import com.example.tasks.adapters.inbound.functions.infrastructure.CloudResponse
 import com.example.tasks.application.service.TaskService;
 import com.example.tasks.domain.Task;
 import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskQuery;
 import com.example.tasks.domain.UserId;
 import com.example.tasks.domain.exception.TaskBusinessRuleException;
 import com.example.tasks.domain.exception.TaskDomainException;
@@ -113,13 +114,23 @@ public class TaskFunctions {
             try {
                 validateRequest(request);
 
-                var pagedTasks = service.listTasks(
-                    UserId.of(request.userId()),
-                    request.page(),
-                    request.size()
-                );
-
-                return createSuccessResponse(TaskDtoMapper.toPagedResponse(pagedTasks));
+                // Cursors and filters go through the keyset query; page/size keeps offset paging
+                var query = TaskDtoMapper.toQuery(request);
+                var pagedTasks = request.cursor() != null || !query.equals(TaskQuery.ALL)
+                    ? service.listTasksAfter(
+                        UserId.of(request.userId()),
+                        query,
+                        request.cursor() != null ? TaskDtoMapper.toCursor(request.cursor(), query) : null,
+                        request.size()
+                    )
+                    : service.listTasks(
+                        UserId.of(request.userId()),
+                        request.page(),
+                        request.size(),
+                        request.readVersion()
+                    );
+
+                return createSuccessResponse(TaskDtoMapper.toPagedResponse(pagedTasks, query));
 
             } catch (Exception e) {
                 return handleException(e);
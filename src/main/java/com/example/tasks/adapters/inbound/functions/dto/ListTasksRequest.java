@@ -1,10 +1,21 @@
 package com.example.tasks.adapters.inbound.functions.dto;
 
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.TaskSortOrder;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import java.time.LocalDate;
 
 public record ListTasksRequest(
     @NotBlank String userId,
     @Min(0) int page,
-    @Min(1) int size
+    @Min(1) int size,
+    Long readVersion,
+    String cursor,
+    Status status,
+    Priority priority,
+    LocalDate createdFrom,
+    LocalDate createdTo,
+    TaskSortOrder sort
 ) {}
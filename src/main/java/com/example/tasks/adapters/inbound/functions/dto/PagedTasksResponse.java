@@ -3,5 +3,7 @@ package com.example.tasks.adapters.inbound.functions.dto;
 import java.util.List;
 
 public record PagedTasksResponse(
-    List<TaskResponse> tasks
+    List<TaskResponse> tasks,
+    Long readVersion,
+    String nextCursor
 ) {}
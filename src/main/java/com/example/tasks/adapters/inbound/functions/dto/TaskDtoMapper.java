@@ -1,11 +1,23 @@
 package com.example.tasks.adapters.inbound.functions.dto;
 
 import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class TaskDtoMapper {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String CURSOR_SEPARATOR = "|";
 
     private TaskDtoMapper() {}
 
@@ -22,6 +34,56 @@ public final class TaskDtoMapper {
     }
 
     public static PagedTasksResponse toPagedResponse(List<Task> tasks) {
-        return new PagedTasksResponse(tasks.stream().map(TaskDtoMapper::toResponse).toList());
+        return new PagedTasksResponse(tasks.stream().map(TaskDtoMapper::toResponse).toList(), null, null);
+    }
+
+    public static PagedTasksResponse toPagedResponse(TaskPage page, TaskQuery query) {
+        return new PagedTasksResponse(
+            page.tasks().stream().map(TaskDtoMapper::toResponse).toList(),
+            page.readVersion(),
+            page.nextCursor() != null ? toToken(page.nextCursor(), query) : null
+        );
+    }
+
+    public static TaskQuery toQuery(ListTasksRequest request) {
+        try {
+            return new TaskQuery(request.status(), request.priority(), request.createdFrom(), request.createdTo(), request.sort());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Validation failed: createdTo: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cursors travel as opaque URL-safe tokens so that clients never build
+     * them. A token carries the filters and order of the listing that issued
+     * it: a position is only meaningful within that listing, and a store may
+     * refuse one outside the queried range.
+     */
+    public static String toToken(TaskCursor cursor, TaskQuery query) {
+        String position = cursor.createdAt().format(FORMATTER) + CURSOR_SEPARATOR + cursor.taskId().value()
+            + CURSOR_SEPARATOR + listing(query);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor toCursor(String token, TaskQuery query) {
+        String[] parts;
+        TaskCursor cursor;
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = position.split(Pattern.quote(CURSOR_SEPARATOR), -1);
+            cursor = new TaskCursor(LocalDateTime.parse(parts[0], FORMATTER), TaskId.of(parts[1]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Validation failed: cursor: must be a token returned as nextCursor", e);
+        }
+        if (parts.length != 3 || !parts[2].equals(listing(query))) {
+            throw new IllegalArgumentException("Validation failed: cursor: was returned for different filters or sort");
+        }
+        return cursor;
+    }
+
+    private static String listing(TaskQuery query) {
+        return Stream.of(query.status(), query.priority(), query.createdFrom(), query.createdTo(), query.sortOrder())
+            .map(value -> value != null ? value.toString() : "")
+            .collect(Collectors.joining(","));
     }
 }
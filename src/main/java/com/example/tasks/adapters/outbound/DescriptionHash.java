@@ -0,0 +1,47 @@
+package com.example.tasks.adapters.outbound;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fixed-size stand-in for a task description in the stores' uniqueness
+ * indexes: the first 128 bits of the SHA-256 of the normalized description.
+ * Descriptions run up to 500 characters; the stores index this instead and
+ * compare the descriptions themselves only when the hashes match.
+ */
+public record DescriptionHash(long high, long low) {
+
+    public static DescriptionHash of(String description) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(normalize(description).getBytes(StandardCharsets.UTF_8)));
+            return new DescriptionHash(hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The form the domain stores a description in. Rule queries may be asked
+     * about the description as the user sent it, before the task trimmed it.
+     */
+    public static String normalize(String description) {
+        return description.trim();
+    }
+
+    /** The full comparison behind a hash match. */
+    public static boolean sameDescription(String stored, String description) {
+        return normalize(stored).equals(normalize(description));
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(Long.BYTES * 2).putLong(high).putLong(low).array();
+    }
+
+    public String toHex() {
+        return HexFormat.of().formatHex(toBytes());
+    }
+}
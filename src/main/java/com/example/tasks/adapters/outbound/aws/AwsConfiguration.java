@@ -6,10 +6,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 @Configuration
@@ -27,6 +30,15 @@ public class AwsConfiguration {
                 .build();
     }
 
+    // Backs the async port: requests wait on the client's event loop, not on request threads
+    @Bean
+    public DynamoDbAsyncClient dynamoDbAsyncClient() {
+        return DynamoDbAsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .build();
+    }
+
     @Bean
     public DynamoDbEnhancedClient dynamoDbEnhancedClient(DynamoDbClient dynamoDbClient) {
         return DynamoDbEnhancedClient.builder()
@@ -34,6 +46,13 @@ public class AwsConfiguration {
                 .build();
     }
 
+    @Bean
+    public DynamoDbEnhancedAsyncClient dynamoDbEnhancedAsyncClient(DynamoDbAsyncClient dynamoDbAsyncClient) {
+        return DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(dynamoDbAsyncClient)
+                .build();
+    }
+
     @Bean
     public TableSchema<TaskEntity> taskEntityTableSchema() {
         return TableSchema.fromBean(TaskEntity.class);
@@ -44,6 +63,12 @@ public class AwsConfiguration {
         return enhancedClient.table(tableName, tableSchema);
     }
 
+    @Bean
+    public DynamoDbAsyncTable<TaskEntity> asyncTaskTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient,
+                                                         TableSchema<TaskEntity> tableSchema) {
+        return enhancedAsyncClient.table(tableName, tableSchema);
+    }
+
     @Bean
     public DynamoDbTemplate dynamoDbTemplate(DynamoDbEnhancedClient enhancedClient, DynamoDbTable<TaskEntity> taskTable) {
         return new DynamoDbTemplate(enhancedClient);
@@ -0,0 +1,110 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import com.example.tasks.adapters.outbound.DescriptionHash;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One item per user, creation day and description, counting the user's tasks
+ * of that day that have the description. A create {@link #claim claims} it in
+ * the transaction that writes the task, on condition that no task holds it:
+ * a second task with the same description on the same day cancels the
+ * transaction without anything being read first. Like the other adapters,
+ * updates may give tasks the same description, so renames and deletes only
+ * move the count, without a condition. The key carries the description's
+ * 128-bit {@link DescriptionHash} rather than its text; like the counters,
+ * the item has no index attributes.
+ *
+ * <p>Only creates ask, and only about the day they happen on, so only today's
+ * tasks move the count. Sentinels of tasks that predate the count, or that
+ * never had one, are {@link #backfill backfilled} when the user's counters are
+ * seeded, before any of the user's writes can move them.
+ *
+ * <p>Every write stamps the sentinel with an {@link #EXPIRES_AT} time after
+ * its day, the table's TTL attribute, so that DynamoDB deletes it once no
+ * create can ask about it, whatever its count.
+ */
+final class DescriptionSentinel {
+
+    static final String TASK_COUNT = "taskCount";
+    static final String EXPIRES_AT = "expiresAt";
+
+    private static final String ID_PREFIX = "description#";
+
+    private DescriptionSentinel() {
+    }
+
+    static Map<String, AttributeValue> key(String userId, LocalDate date, String description) {
+        return Map.of("id", AttributeValue.fromS(ID_PREFIX + userId + "#" + date + "#" + DescriptionHash.of(description).toHex()));
+    }
+
+    static Map<String, AttributeValue> keyOf(TaskEntity task) {
+        return key(task.getUserId(), TaskEntity.createdOn(task), task.getDescription());
+    }
+
+    /**
+     * When a sentinel of {@code date}'s tasks can go, in epoch seconds: the
+     * start of the day after next in UTC, which is past the end of the day in
+     * every zone the clock may use.
+     */
+    static long expiresAt(LocalDate date) {
+        return date.plusDays(2).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+    }
+
+    /** Whether a task holds the description; false for a missing item too. */
+    static boolean isTaken(Map<String, AttributeValue> sentinel) {
+        AttributeValue count = sentinel != null ? sentinel.get(TASK_COUNT) : null;
+        return count != null && Long.parseLong(count.n()) > 0;
+    }
+
+    static TransactWriteItem claim(String tableName, TaskEntity task) {
+        return TransactWriteItem.builder()
+            .update(add(tableName, task, 1)
+                .conditionExpression("attribute_not_exists(#count) OR #count < :change")
+                .build())
+            .build();
+    }
+
+    static TransactWriteItem acquire(String tableName, TaskEntity task) {
+        return TransactWriteItem.builder().update(add(tableName, task, 1).build()).build();
+    }
+
+    static TransactWriteItem release(String tableName, TaskEntity task) {
+        return TransactWriteItem.builder().update(add(tableName, task, -1).build()).build();
+    }
+
+    /**
+     * Writes the count of a day's tasks with the description, found by
+     * reading them, over a missing sentinel or one that named a single task.
+     * Fails if the sentinel already counts.
+     */
+    static PutItemRequest backfill(String tableName, Map<String, AttributeValue> key, LocalDate date, long tasks) {
+        Map<String, AttributeValue> item = new HashMap<>(key);
+        item.put(TASK_COUNT, AttributeValue.fromN(Long.toString(tasks)));
+        item.put(EXPIRES_AT, AttributeValue.fromN(Long.toString(expiresAt(date))));
+        return PutItemRequest.builder()
+            .tableName(tableName)
+            .item(item)
+            .conditionExpression("attribute_not_exists(#count)")
+            .expressionAttributeNames(Map.of("#count", TASK_COUNT))
+            .build();
+    }
+
+    private static Update.Builder add(String tableName, TaskEntity task, int change) {
+        return Update.builder()
+            .tableName(tableName)
+            .key(keyOf(task))
+            .updateExpression("SET #expires = :expires ADD #count :change")
+            .expressionAttributeNames(Map.of("#count", TASK_COUNT, "#expires", EXPIRES_AT))
+            .expressionAttributeValues(Map.of(
+                ":change", AttributeValue.fromN(Integer.toString(change)),
+                ":expires", AttributeValue.fromN(Long.toString(expiresAt(TaskEntity.createdOn(task))))));
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import com.example.tasks.application.port.outbound.AsyncTaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import com.example.tasks.domain.exception.TaskDomainException;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The DynamoDB store behind the async port. It sends the same requests as
+ * {@link DynamoDBTaskRepository} through the async clients, so a retry after
+ * a conflicting write is one more stage in the chain rather than a loop on a
+ * waiting thread.
+ */
+@Repository
+@Profile("aws")
+public class DynamoDBAsyncTaskAdapter implements AsyncTaskRepositoryPort {
+
+    private final DynamoDbAsyncTable<TaskEntity> taskTable;
+    private final DynamoDbAsyncClient dynamoDbClient;
+    private final Clock clock;
+
+    public DynamoDBAsyncTaskAdapter(DynamoDbAsyncTable<TaskEntity> taskTable, DynamoDbAsyncClient dynamoDbClient,
+                                    Clock clock) {
+        this.taskTable = taskTable;
+        this.dynamoDbClient = dynamoDbClient;
+        this.clock = clock;
+    }
+
+    @Override
+    public CompletableFuture<Task> save(Task task) {
+        TaskEntity entity = TaskEntity.fromDomain(task);
+        // Assume a create first, as the blocking repository does
+        return failingWith("Failed to save task to DynamoDB", save(entity, null, 0).thenApply(saved -> task));
+    }
+
+    @Override
+    public CompletableFuture<Task> save(TaskPatch patch) {
+        Task original = patch.original();
+        return failingWith("Failed to save task to DynamoDB",
+            transact(TaskWrite.update(taskTable.tableName(), TaskEntity.fromDomain(original), patch, LocalDate.now(clock))))
+            .thenCompose(written -> written
+                ? CompletableFuture.completedFuture(patch.task())
+                // The task changed since the patch was made: replay its changes on the stored version
+                : updateOwnedTask(original.getId(), original.getUserId(), patch.toUpdate(), patch.task().getUpdatedAt()));
+    }
+
+    @Override
+    public CompletableFuture<Task> updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        return failingWith("Failed to update task in DynamoDB", updateOwnedTask(id, userId, update, updatedTime, 0));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Task>> findById(TaskId id) {
+        return failingWith("Failed to find task in DynamoDB",
+            taskTable.getItem(Key.builder().partitionValue(id.value()).build())
+                .thenApply(entity -> Optional.ofNullable(entity).map(TaskEntity::toDomain)));
+    }
+
+    @Override
+    public CompletableFuture<TaskPage> findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        // A filter may thin out a page; the publisher requests pages until
+        // enough items arrived and cancels the rest of the query
+        List<Task> tasks = new ArrayList<>(size);
+        return failingWith("Failed to query tasks from DynamoDB",
+            taskTable.index(TaskQueries.USER_ID_INDEX).query(TaskQueries.pageAfter(userId, query, after, size))
+                .flatMapIterable(page -> page.items())
+                .limit(size)
+                .subscribe(entity -> tasks.add(entity.toDomain()))
+                .thenApply(done -> TaskPage.of(tasks, size)));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteById(TaskId id) {
+        return failingWith("Failed to delete task from DynamoDB", delete(id, null, 0));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteOwnedTask(TaskId id, UserId userId) {
+        return failingWith("Failed to delete task from DynamoDB", delete(id, userId, 0));
+    }
+
+    @Override
+    public boolean enforcesCreationQuotas() {
+        return true;
+    }
+
+    @Override
+    public boolean enforcesUniqueDescriptions() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        return failingWith("Failed to check task existence",
+            dynamoDbClient.getItem(TaskQueries.descriptionSentinel(taskTable.tableName(), userId, date, description))
+                .thenApply(response -> DescriptionSentinel.isTaken(response.item())));
+    }
+
+    @Override
+    public CompletableFuture<Long> countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        return failingWith("Failed to count high priority tasks",
+            count(TaskQueries.USER_ID_INDEX, TaskQueries.countHighPriorityOnDate(userId, date)));
+    }
+
+    @Override
+    public CompletableFuture<Long> countOpenTasksForUser(UserId userId) {
+        return failingWith("Failed to count open tasks",
+            count(TaskQueries.OPEN_TASKS_INDEX, TaskQueries.countAll(userId)));
+    }
+
+    @Override
+    public CompletableFuture<CreationContext> creationContext(UserId userId, LocalDate date, String description) {
+        return failingWith("Failed to read creation context",
+            dynamoDbClient.transactGetItems(TaskQueries.creationContext(taskTable.tableName(), userId, date, description))
+                .thenApply(response -> TaskQueries.creationContextOf(response, date)));
+    }
+
+    private CompletableFuture<Void> save(TaskEntity entity, TaskEntity stored, int attempt) {
+        if (attempt == TaskWrite.MAX_ATTEMPTS) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Task " + entity.getId() + " kept changing while being saved"));
+        }
+        return transact(TaskWrite.put(taskTable, entity, stored, LocalDate.now(clock))).thenCompose(written -> written
+            ? CompletableFuture.completedFuture(null)
+            : read(entity.getId()).thenCompose(current -> save(entity, current, attempt + 1)));
+    }
+
+    // One consistent read for the state the counters and sentinel derive
+    // from, then a write that only lands if that state still holds
+    private CompletableFuture<Task> updateOwnedTask(TaskId id, UserId userId, TaskUpdate update,
+                                                    LocalDateTime updatedTime, int attempt) {
+        if (attempt == TaskWrite.MAX_ATTEMPTS) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Task " + id.value() + " kept changing while being updated"));
+        }
+        return read(id.value()).thenCompose(stored -> {
+            if (stored == null) {
+                throw new TaskNotFoundException(id);
+            }
+            Task task = stored.toDomain();
+            task.ensureOwnership(userId);
+            TaskPatch patch = task.patch(update, updatedTime);
+            if (patch.isEmpty()) {
+                return CompletableFuture.completedFuture(patch.task());
+            }
+            return transact(TaskWrite.update(taskTable.tableName(), stored, patch, LocalDate.now(clock))).thenCompose(written -> written
+                ? CompletableFuture.completedFuture(patch.task())
+                : updateOwnedTask(id, userId, update, updatedTime, attempt + 1));
+        });
+    }
+
+    // With an owner, the task must exist and belong to it; without, a missing task counts as deleted
+    private CompletableFuture<Void> delete(TaskId id, UserId owner, int attempt) {
+        if (attempt == TaskWrite.MAX_ATTEMPTS) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Task " + id.value() + " kept changing while being deleted"));
+        }
+        return read(id.value()).thenCompose(stored -> {
+            if (stored == null && owner != null) {
+                throw new TaskNotFoundException(id);
+            }
+            if (stored == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (owner != null) {
+                stored.toDomain().ensureOwnership(owner);
+            }
+            return transact(TaskWrite.delete(taskTable.tableName(), stored, LocalDate.now(clock))).thenCompose(written -> written
+                ? CompletableFuture.<Void>completedFuture(null)
+                : delete(id, owner, attempt + 1));
+        });
+    }
+
+    private CompletableFuture<TaskEntity> read(String id) {
+        return taskTable.getItem(GetItemEnhancedRequest.builder()
+            .key(Key.builder().partitionValue(id).build())
+            .consistentRead(true)
+            .build());
+    }
+
+    /**
+     * Completes with false when the task item was not in the expected state,
+     * or a counters item had to be prepared first, as
+     * {@link DynamoDBTaskRepository} does; see {@link TaskWrite#countersToPrepare}.
+     */
+    private CompletableFuture<Boolean> transact(TaskWrite write) {
+        return dynamoDbClient.transactWriteItems(write.request())
+            .thenApply(response -> true)
+            .exceptionallyCompose(failure -> {
+                if (!(unwrap(failure) instanceof TransactionCanceledException cancelled)) {
+                    return CompletableFuture.failedFuture(failure);
+                }
+                return CompletableFuture.allOf(write.countersToPrepare(cancelled).entrySet().stream()
+                        .map(counters -> prepareCounters(counters.getKey(), counters.getValue(), write.today()))
+                        .toArray(CompletableFuture[]::new))
+                    .thenApply(prepared -> false);
+            });
+    }
+
+    // Seeds the user's counters item from the indexes, or rolls it over to today
+    private CompletableFuture<Void> prepareCounters(String userId, Map<String, AttributeValue> counters, LocalDate today) {
+        UserId user = UserId.of(userId);
+        String day = UserTaskCounters.dayOf(counters);
+        CompletableFuture<?> prepared = day == null
+            ? backfillSentinels(user, today).thenCombine(
+                    count(TaskQueries.USER_ID_INDEX, TaskQueries.countOpen(user)),
+                    (highPriorityToday, openTasks) -> UserTaskCounters.seed(taskTable.tableName(), userId, openTasks,
+                        highPriorityToday, today))
+                .thenCompose(dynamoDbClient::putItem)
+            : count(TaskQueries.USER_ID_INDEX, TaskQueries.countHighPriorityOnDate(user, today))
+                .thenCompose(highPriorityToday -> dynamoDbClient.updateItem(
+                    UserTaskCounters.rollOver(taskTable.tableName(), userId, day, highPriorityToday, today)));
+        // Another writer prepared it first; the retry reads what it wrote
+        return ignoringConditionFailure(prepared);
+    }
+
+    // Counts the sentinels of the user's tasks created today, and completes with the day's high-priority tasks
+    private CompletableFuture<Long> backfillSentinels(UserId user, LocalDate today) {
+        Map<Map<String, AttributeValue>, Long> sentinels = new HashMap<>();
+        AtomicLong highPriority = new AtomicLong();
+        return taskTable.index(TaskQueries.USER_ID_INDEX).query(TaskQueries.tasksCreatedOn(user, today))
+            .subscribe(page -> page.items().forEach(task -> {
+                sentinels.merge(DescriptionSentinel.keyOf(task), 1L, Long::sum);
+                highPriority.addAndGet(Priority.HIGH.name().equals(task.getPriority()) ? 1 : 0);
+            }))
+            .thenCompose(read -> CompletableFuture.allOf(sentinels.entrySet().stream()
+                .map(sentinel -> ignoringConditionFailure(dynamoDbClient.putItem(DescriptionSentinel.backfill(
+                    taskTable.tableName(), sentinel.getKey(), today, sentinel.getValue()))))
+                .toArray(CompletableFuture[]::new)))
+            .thenApply(backfilled -> highPriority.get());
+    }
+
+    private static CompletableFuture<Void> ignoringConditionFailure(CompletableFuture<?> request) {
+        return request.<Void>thenApply(response -> null).exceptionallyCompose(failure ->
+            unwrap(failure) instanceof ConditionalCheckFailedException
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.failedFuture(failure));
+    }
+
+    // Counts come back without the items; only the user's slice of the index is read
+    private CompletableFuture<Long> count(String indexName, QueryEnhancedRequest request) {
+        AtomicLong count = new AtomicLong();
+        return taskTable.index(indexName).query(request)
+            .subscribe(page -> count.addAndGet(page.count()))
+            .thenApply(done -> count.get());
+    }
+
+    // Domain exceptions pass through; store failures are wrapped as the blocking repository wraps them
+    private static <T> CompletableFuture<T> failingWith(String message, CompletableFuture<T> future) {
+        return future.exceptionallyCompose(failure -> {
+            Throwable cause = unwrap(failure);
+            return CompletableFuture.failedFuture(
+                cause instanceof TaskDomainException || cause instanceof TaskBusinessRuleException
+                    ? cause
+                    : new RuntimeException(message, cause));
+        });
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
@@ -1,20 +1,41 @@
 package com.example.tasks.adapters.outbound.aws;
 
 import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
 import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
 import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
 import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import com.example.tasks.domain.exception.TaskDomainException;
+import com.example.tasks.domain.exception.TaskNotFoundException;
 import io.awspring.cloud.dynamodb.DynamoDbTemplate;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Repository
 @Profile("aws")
@@ -22,23 +43,81 @@ public class DynamoDBTaskRepository implements TaskRepositoryPort {
 
     private final DynamoDbTemplate dynamoDbTemplate;
     private final DynamoDbTable<TaskEntity> taskTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final Clock clock;
 
-    public DynamoDBTaskRepository(DynamoDbTemplate dynamoDbTemplate, DynamoDbTable<TaskEntity> taskTable) {
+    public DynamoDBTaskRepository(DynamoDbTemplate dynamoDbTemplate, DynamoDbTable<TaskEntity> taskTable,
+                                  DynamoDbClient dynamoDbClient, Clock clock) {
         this.dynamoDbTemplate = dynamoDbTemplate;
         this.taskTable = taskTable;
+        this.dynamoDbClient = dynamoDbClient;
+        this.clock = clock;
     }
 
     @Override
     public Task save(Task task) {
         try {
             TaskEntity entity = TaskEntity.fromDomain(task);
-            taskTable.putItem(entity);
-            return task;
+            // Assume a create first: that is one round trip, and the condition on
+            // the task item tells us when it was an update after all
+            TaskEntity stored = null;
+            for (int attempt = 0; attempt < TaskWrite.MAX_ATTEMPTS; attempt++) {
+                if (attempt > 0) {
+                    stored = read(entity.getId());
+                }
+                if (put(entity, stored)) {
+                    return task;
+                }
+            }
+            throw new IllegalStateException("Task " + entity.getId() + " kept changing while being saved");
+        } catch (TaskBusinessRuleException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to save task to DynamoDB", e);
         }
     }
 
+    @Override
+    public Task save(TaskPatch patch) {
+        try {
+            if (update(TaskEntity.fromDomain(patch.original()), patch)) {
+                return patch.task();
+            }
+        } catch (TaskBusinessRuleException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to save task to DynamoDB", e);
+        }
+        // The task changed since the patch was made: replay its changes on the stored version
+        Task task = patch.original();
+        return updateOwnedTask(task.getId(), task.getUserId(), patch.toUpdate(), patch.task().getUpdatedAt());
+    }
+
+    @Override
+    public Task updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        try {
+            // One consistent read for the state the counters and sentinel derive
+            // from, then a write that only lands if that state still holds
+            for (int attempt = 0; attempt < TaskWrite.MAX_ATTEMPTS; attempt++) {
+                TaskEntity stored = read(id.value());
+                if (stored == null) {
+                    throw new TaskNotFoundException(id);
+                }
+                Task task = stored.toDomain();
+                task.ensureOwnership(userId);
+                TaskPatch patch = task.patch(update, updatedTime);
+                if (patch.isEmpty() || update(stored, patch)) {
+                    return patch.task();
+                }
+            }
+            throw new IllegalStateException("Task " + id.value() + " kept changing while being updated");
+        } catch (TaskBusinessRuleException | TaskDomainException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to update task in DynamoDB", e);
+        }
+    }
+
     @Override
     public Optional<Task> findById(TaskId id) {
         try {
@@ -55,36 +134,67 @@ public class DynamoDBTaskRepository implements TaskRepositoryPort {
     @Override
     public List<Task> findByUserId(UserId userId, int page, int size) {
         try {
-            return taskTable.scan()
-                .items()
-                .stream()
-                .filter(entity -> userId.value().equals(entity.getUserId()))
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .skip((long) page * size)
-                .limit(size)
-                .map(TaskEntity::toDomain)
-                .collect(Collectors.toList());
+            // Offsets are not a key condition: read the pages before this one too,
+            // but never more of the index than the requested window
+            int window = (page + 1) * size;
+            QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId.value()).build()))
+                .scanIndexForward(false)
+                .limit(window)
+                .build();
+            List<Task> tasks = new ArrayList<>(size);
+            int seen = 0;
+            for (Page<TaskEntity> result : taskTable.index(TaskQueries.USER_ID_INDEX).query(request)) {
+                for (TaskEntity entity : result.items()) {
+                    if (seen++ >= window - size && tasks.size() < size) {
+                        tasks.add(entity.toDomain());
+                    }
+                }
+                if (seen >= window) {
+                    break;
+                }
+            }
+            return tasks;
         } catch (Exception e) {
             throw new RuntimeException("Failed to query tasks from DynamoDB", e);
         }
     }
 
+    @Override
+    public TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        try {
+            // A filter may thin out a page, so read on until it is full
+            List<Task> tasks = new ArrayList<>(size);
+            for (Page<TaskEntity> page : taskTable.index(TaskQueries.USER_ID_INDEX)
+                    .query(TaskQueries.pageAfter(userId, query, after, size))) {
+                page.items().stream()
+                    .limit(size - tasks.size())
+                    .map(TaskEntity::toDomain)
+                    .forEach(tasks::add);
+                if (tasks.size() >= size) {
+                    break;
+                }
+            }
+            return TaskPage.of(tasks, size);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to query tasks from DynamoDB", e);
+        }
+    }
+
+    @Override
+    public boolean enforcesCreationQuotas() {
+        return true;
+    }
+
+    @Override
+    public boolean enforcesUniqueDescriptions() {
+        return true;
+    }
+
     @Override
     public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
         try {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-
-            return taskTable.scan()
-                .items()
-                .stream()
-                .filter(entity -> userId.value().equals(entity.getUserId()))
-                .filter(entity -> "HIGH".equals(entity.getPriority()))
-                .filter(entity -> {
-                    LocalDateTime createdAt = LocalDateTime.parse(entity.getCreatedAt());
-                    return createdAt.isAfter(startOfDay) && createdAt.isBefore(endOfDay);
-                })
-                .count();
+            return count(TaskQueries.USER_ID_INDEX, TaskQueries.countHighPriorityOnDate(userId, date));
         } catch (Exception e) {
             throw new RuntimeException("Failed to count high priority tasks", e);
         }
@@ -93,18 +203,8 @@ public class DynamoDBTaskRepository implements TaskRepositoryPort {
     @Override
     public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
         try {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-
-            return taskTable.scan()
-                .items()
-                .stream()
-                .filter(entity -> userId.value().equals(entity.getUserId()))
-                .filter(entity -> description.equals(entity.getDescription()))
-                .anyMatch(entity -> {
-                    LocalDateTime createdAt = LocalDateTime.parse(entity.getCreatedAt());
-                    return createdAt.isAfter(startOfDay) && createdAt.isBefore(endOfDay);
-                });
+            return DescriptionSentinel.isTaken(dynamoDbClient.getItem(
+                TaskQueries.descriptionSentinel(taskTable.tableName(), userId, date, description)).item());
         } catch (Exception e) {
             throw new RuntimeException("Failed to check task existence", e);
         }
@@ -113,24 +213,149 @@ public class DynamoDBTaskRepository implements TaskRepositoryPort {
     @Override
     public long countOpenTasksForUser(UserId userId) {
         try {
-            return taskTable.scan()
-                .items()
-                .stream()
-                .filter(entity -> userId.value().equals(entity.getUserId()))
-                .filter(entity -> "OPEN".equals(entity.getStatus()))
-                .count();
+            return count(TaskQueries.OPEN_TASKS_INDEX, TaskQueries.countAll(userId));
         } catch (Exception e) {
             throw new RuntimeException("Failed to count open tasks", e);
         }
     }
 
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        try {
+            return TaskQueries.creationContextOf(dynamoDbClient.transactGetItems(
+                TaskQueries.creationContext(taskTable.tableName(), userId, date, description)), date);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read creation context", e);
+        }
+    }
+
     @Override
     public void deleteById(TaskId id) {
         try {
-            Key key = Key.builder().partitionValue(id.value()).build();
-            taskTable.deleteItem(key);
+            for (int attempt = 0; attempt < TaskWrite.MAX_ATTEMPTS; attempt++) {
+                TaskEntity stored = read(id.value());
+                if (stored == null || delete(stored)) {
+                    return;
+                }
+            }
+            throw new IllegalStateException("Task " + id.value() + " kept changing while being deleted");
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete task from DynamoDB", e);
+        }
+    }
+
+    @Override
+    public void deleteOwnedTask(TaskId id, UserId userId) {
+        try {
+            for (int attempt = 0; attempt < TaskWrite.MAX_ATTEMPTS; attempt++) {
+                TaskEntity stored = read(id.value());
+                if (stored == null) {
+                    throw new TaskNotFoundException(id);
+                }
+                stored.toDomain().ensureOwnership(userId);
+                if (delete(stored)) {
+                    return;
+                }
+            }
+            throw new IllegalStateException("Task " + id.value() + " kept changing while being deleted");
+        } catch (TaskBusinessRuleException | TaskDomainException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete task from DynamoDB", e);
         }
     }
+
+    /** Writes {@code entity} over {@code stored}, or as a new task when null; false if the stored item changed. */
+    private boolean put(TaskEntity entity, TaskEntity stored) {
+        return transact(TaskWrite.put(taskTable, entity, stored, LocalDate.now(clock)));
+    }
+
+    /** Sets only the patched attributes over {@code stored}; false if the stored item changed. */
+    private boolean update(TaskEntity stored, TaskPatch patch) {
+        return transact(TaskWrite.update(taskTable.tableName(), stored, patch, LocalDate.now(clock)));
+    }
+
+    private boolean delete(TaskEntity stored) {
+        return transact(TaskWrite.delete(taskTable.tableName(), stored, LocalDate.now(clock)));
+    }
+
+    private TaskEntity read(String id) {
+        return taskTable.getItem(GetItemEnhancedRequest.builder()
+            .key(Key.builder().partitionValue(id).build())
+            .consistentRead(true)
+            .build());
+    }
+
+    /**
+     * Sends the write. Returns false when the task item was not in the
+     * expected state, or a counters item had to be prepared first, and throws
+     * the rule that was hit when the description was taken or a counter was
+     * at its limit.
+     */
+    private boolean transact(TaskWrite write) {
+        try {
+            dynamoDbClient.transactWriteItems(write.request());
+            return true;
+        } catch (TransactionCanceledException e) {
+            write.countersToPrepare(e).forEach((userId, counters) -> prepareCounters(userId, counters, write.today()));
+            return false;
+        }
+    }
+
+    /**
+     * Seeds the user's counters item from the indexes, or rolls it over to
+     * today. Only the first write of a user, and their first high-priority
+     * change of a day, get here; the counts are exact from then on.
+     */
+    private void prepareCounters(String userId, Map<String, AttributeValue> counters, LocalDate today) {
+        UserId user = UserId.of(userId);
+        String day = UserTaskCounters.dayOf(counters);
+        try {
+            if (day == null) {
+                long highPriorityToday = backfillSentinels(user, today);
+                long openTasks = count(TaskQueries.USER_ID_INDEX, TaskQueries.countOpen(user));
+                dynamoDbClient.putItem(UserTaskCounters.seed(taskTable.tableName(), userId, openTasks,
+                    highPriorityToday, today));
+            } else {
+                long highPriorityToday = count(TaskQueries.USER_ID_INDEX, TaskQueries.countHighPriorityOnDate(user, today));
+                dynamoDbClient.updateItem(UserTaskCounters.rollOver(taskTable.tableName(), userId, day,
+                    highPriorityToday, today));
+            }
+        } catch (ConditionalCheckFailedException e) {
+            // Another writer prepared it first; the retry reads what it wrote
+        }
+    }
+
+    /**
+     * Counts the sentinels of the user's tasks created today, which may
+     * predate them, and returns the day's high-priority tasks seen on the way.
+     */
+    private long backfillSentinels(UserId user, LocalDate today) {
+        Map<Map<String, AttributeValue>, Long> sentinels = new HashMap<>();
+        long highPriority = 0;
+        for (Page<TaskEntity> page : taskTable.index(TaskQueries.USER_ID_INDEX)
+                .query(TaskQueries.tasksCreatedOn(user, today))) {
+            for (TaskEntity task : page.items()) {
+                sentinels.merge(DescriptionSentinel.keyOf(task), 1L, Long::sum);
+                highPriority += Priority.HIGH.name().equals(task.getPriority()) ? 1 : 0;
+            }
+        }
+        sentinels.forEach((key, tasks) -> {
+            try {
+                dynamoDbClient.putItem(DescriptionSentinel.backfill(taskTable.tableName(), key, today, tasks));
+            } catch (ConditionalCheckFailedException e) {
+                // Already counting: another writer backfilled it and the user's writes moved it since
+            }
+        });
+        return highPriority;
+    }
+
+    // Counts come back without the items; only the user's slice of the index is read
+    private long count(String indexName, QueryEnhancedRequest request) {
+        long count = 0;
+        for (Page<TaskEntity> page : taskTable.index(indexName).query(request)) {
+            count += page.count();
+        }
+        return count;
+    }
 }
@@ -3,6 +3,7 @@ package com.example.tasks.adapters.outbound.aws;
 import com.example.tasks.domain.*;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -13,6 +14,7 @@ public class TaskEntity {
     private String description;
     private String priority;
     private String status;
+    private String openUserId;
     private String createdAt;
     private String updatedAt;
 
@@ -60,7 +62,17 @@ public class TaskEntity {
         this.status = status;
     }
 
-    @DynamoDbSecondarySortKey(indexNames = "UserIdIndex")
+    /** The owner while the task is open, absent otherwise: the key of the sparse OpenTasksIndex. */
+    @DynamoDbSecondaryPartitionKey(indexNames = "OpenTasksIndex")
+    public String getOpenUserId() {
+        return openUserId;
+    }
+
+    public void setOpenUserId(String openUserId) {
+        this.openUserId = openUserId;
+    }
+
+    @DynamoDbSecondarySortKey(indexNames = {"UserIdIndex", "OpenTasksIndex"})
     public String getCreatedAt() {
         return createdAt;
     }
@@ -84,11 +96,17 @@ public class TaskEntity {
         entity.setDescription(task.getDescription());
         entity.setPriority(task.getPriority().name());
         entity.setStatus(task.getStatus().name());
+        entity.setOpenUserId(task.isOpen() ? task.getUserId().value() : null);
         entity.setCreatedAt(task.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
         entity.setUpdatedAt(task.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
         return entity;
     }
 
+    // Static, so the bean schema does not map it to an attribute
+    static LocalDate createdOn(TaskEntity task) {
+        return LocalDateTime.parse(task.getCreatedAt(), DateTimeFormatter.ISO_LOCAL_DATE_TIME).toLocalDate();
+    }
+
     public Task toDomain() {
         return Task.reconstitute(
             TaskId.of(this.id),
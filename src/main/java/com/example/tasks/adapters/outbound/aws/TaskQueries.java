@@ -0,0 +1,190 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.UserId;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Get;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsResponse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The reads of the task table, built once for the blocking and the async
+ * repository. Every query stays within one user's partition of an index.
+ */
+final class TaskQueries {
+
+    static final String USER_ID_INDEX = "UserIdIndex";
+    static final String OPEN_TASKS_INDEX = "OpenTasksIndex";
+
+    private TaskQueries() {
+    }
+
+    /**
+     * Keyset page of the user's tasks: limit bounds the items read per round
+     * trip and the start key replaces any offset.
+     */
+    static QueryEnhancedRequest pageAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+            .queryConditional(createdAtCondition(userId, query))
+            .scanIndexForward(!query.isNewestFirst())
+            .limit(size);
+        Expression filter = attributeFilter(query);
+        if (filter != null) {
+            request.filterExpression(filter);
+        }
+        if (after != null) {
+            request.exclusiveStartKey(startKey(userId, after));
+        }
+        return request.build();
+    }
+
+    static QueryEnhancedRequest countHighPriorityOnDate(UserId userId, LocalDate date) {
+        return QueryEnhancedRequest.builder()
+            .queryConditional(createdOn(userId, date))
+            .select(Select.COUNT)
+            .filterExpression(attributesEqual(Map.of("priority", Priority.HIGH.name())))
+            .build();
+    }
+
+    // What the counters and sentinels derive from the day's tasks, read once when a user's counters are seeded
+    static QueryEnhancedRequest tasksCreatedOn(UserId userId, LocalDate date) {
+        return QueryEnhancedRequest.builder()
+            .queryConditional(createdOn(userId, date))
+            .build();
+    }
+
+    /**
+     * For the UserIdIndex: counts the user's open tasks over the whole
+     * history, including tasks written before the OpenTasksIndex, which have
+     * no openUserId. Only read once, when the user's counters are seeded.
+     */
+    static QueryEnhancedRequest countOpen(UserId userId) {
+        return QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId.value()).build()))
+            .select(Select.COUNT)
+            .filterExpression(attributesEqual(Map.of("status", Status.OPEN.name())))
+            .build();
+    }
+
+    // For the OpenTasksIndex: it holds only open tasks, so completed history is never read
+    static QueryEnhancedRequest countAll(UserId userId) {
+        return QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId.value()).build()))
+            .select(Select.COUNT)
+            .build();
+    }
+
+    // The description sentinel answers the uniqueness question with a single item read
+    static GetItemRequest descriptionSentinel(String tableName, UserId userId, LocalDate date, String description) {
+        return GetItemRequest.builder()
+            .tableName(tableName)
+            .key(DescriptionSentinel.key(userId.value(), date, description))
+            .consistentRead(true)
+            .build();
+    }
+
+    /**
+     * The description sentinel and the user's counters item in one
+     * transactional read: a consistent view of all the creation rules ask
+     * about, for one request instead of a get and two index queries.
+     */
+    static TransactGetItemsRequest creationContext(String tableName, UserId userId, LocalDate date, String description) {
+        return TransactGetItemsRequest.builder()
+            .transactItems(
+                get(tableName, DescriptionSentinel.key(userId.value(), date, description)),
+                get(tableName, UserTaskCounters.key(userId.value())))
+            .build();
+    }
+
+    // Responses come back in the order of the request's items
+    static CreationContext creationContextOf(TransactGetItemsResponse response, LocalDate date) {
+        Map<String, AttributeValue> counters = response.responses().get(1).item();
+        return new CreationContext(
+            DescriptionSentinel.isTaken(response.responses().get(0).item()),
+            UserTaskCounters.highPriorityOn(counters, date),
+            UserTaskCounters.valueOf(counters, UserTaskCounters.OPEN));
+    }
+
+    private static TransactGetItem get(String tableName, Map<String, AttributeValue> key) {
+        return TransactGetItem.builder().get(Get.builder().tableName(tableName).key(key).build()).build();
+    }
+
+    // An index start key names the index keys and the table key of the last item read
+    private static Map<String, AttributeValue> startKey(UserId userId, TaskCursor after) {
+        return Map.of(
+            "id", AttributeValue.fromS(after.taskId().value()),
+            "userId", AttributeValue.fromS(userId.value()),
+            "createdAt", AttributeValue.fromS(after.createdAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+        );
+    }
+
+    private static QueryConditional createdOn(UserId userId, LocalDate date) {
+        return QueryConditional.sortBetween(
+            indexKey(userId, date.atStartOfDay()),
+            indexKey(userId, date.atTime(LocalTime.MAX)));
+    }
+
+    // The creation date range is a key condition on the index sort key
+    private static QueryConditional createdAtCondition(UserId userId, TaskQuery query) {
+        if (query.createdFrom() == null && query.createdTo() == null) {
+            return QueryConditional.keyEqualTo(Key.builder().partitionValue(userId.value()).build());
+        }
+        Key lower = query.createdFrom() != null ? indexKey(userId, query.createdFrom().atStartOfDay()) : null;
+        Key upper = query.createdTo() != null ? indexKey(userId, query.createdTo().atTime(LocalTime.MAX)) : null;
+        if (lower != null && upper != null) {
+            return QueryConditional.sortBetween(lower, upper);
+        }
+        return lower != null ? QueryConditional.sortGreaterThanOrEqualTo(lower) : QueryConditional.sortLessThanOrEqualTo(upper);
+    }
+
+    private static Key indexKey(UserId userId, LocalDateTime createdAt) {
+        return Key.builder()
+            .partitionValue(userId.value())
+            .sortValue(createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+            .build();
+    }
+
+    // Status and priority are not part of the index key; they are filtered server-side
+    private static Expression attributeFilter(TaskQuery query) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        if (query.status() != null) {
+            attributes.put("status", query.status().name());
+        }
+        if (query.priority() != null) {
+            attributes.put("priority", query.priority().name());
+        }
+        return attributes.isEmpty() ? null : attributesEqual(attributes);
+    }
+
+    // Names go through placeholders since some, like status, are reserved words
+    private static Expression attributesEqual(Map<String, String> attributes) {
+        List<String> conditions = new ArrayList<>(attributes.size());
+        Expression.Builder filter = Expression.builder();
+        attributes.forEach((name, value) -> {
+            conditions.add("#" + name + " = :" + name);
+            filter.putExpressionName("#" + name, name)
+                .putExpressionValue(":" + name, AttributeValue.fromS(value));
+        });
+        return filter.expression(String.join(" AND ", conditions)).build();
+    }
+}
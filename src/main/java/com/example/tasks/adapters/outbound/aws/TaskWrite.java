@@ -0,0 +1,211 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import software.amazon.awssdk.enhanced.dynamodb.MappedTableResource;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One change to a task item as a transaction, together with the description
+ * sentinel and counter changes it implies. The write only applies while the
+ * stored task is as it was read. Only a create claims the sentinel; other
+ * writes move it without a condition. The blocking and the async repository
+ * send the same requests and read their cancellations the same way.
+ */
+final class TaskWrite {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+
+    // Ownership, status, the counters and the sentinel were all checked or derived
+    // from the stored task: the write only applies if none of it changed since
+    private static final String UNCHANGED =
+        "#userId = :userId AND #status = :status AND #priority = :priority AND #description = :description";
+    private static final Map<String, String> UNCHANGED_NAMES = Map.of(
+        "#userId", "userId", "#status", "status", "#priority", "priority", "#description", "description");
+
+    private final TransactWriteItemsRequest request;
+    private final TaskEntity after;
+    private final int claim;
+    // The user whose counters item each counter update or check names, by position in the request
+    private final Map<Integer, String> counters;
+    private final LocalDate today;
+
+    private TaskWrite(TransactWriteItemsRequest request, TaskEntity after, int claim, Map<Integer, String> counters,
+                      LocalDate today) {
+        this.request = request;
+        this.after = after;
+        this.claim = claim;
+        this.counters = counters;
+        this.today = today;
+    }
+
+    /** Writes {@code entity} over {@code stored}, or as a new task when null. */
+    static TaskWrite put(MappedTableResource<TaskEntity> table, TaskEntity entity, TaskEntity stored, LocalDate today) {
+        Put.Builder put = Put.builder()
+            .tableName(table.tableName())
+            .item(table.tableSchema().itemToMap(entity, true));
+        if (stored == null) {
+            put.conditionExpression("attribute_not_exists(id)");
+        } else {
+            put.conditionExpression(UNCHANGED)
+                .expressionAttributeNames(UNCHANGED_NAMES)
+                .expressionAttributeValues(unchangedValues(stored));
+        }
+        return of(table.tableName(), TransactWriteItem.builder().put(put.build()).build(), stored, entity, today,
+            stored == null);
+    }
+
+    /**
+     * Sets only the patched attributes over {@code stored}. A completed task
+     * also leaves the OpenTasksIndex.
+     */
+    static TaskWrite update(String tableName, TaskEntity stored, TaskPatch patch, LocalDate today) {
+        TaskEntity entity = TaskEntity.fromDomain(patch.task());
+        Map<String, String> names = new HashMap<>(UNCHANGED_NAMES);
+        Map<String, AttributeValue> values = new HashMap<>(unchangedValues(stored));
+        List<String> assignments = new ArrayList<>();
+        if (patch.changes(TaskPatch.Field.DESCRIPTION)) {
+            assignments.add("#description = :newDescription");
+            values.put(":newDescription", AttributeValue.fromS(entity.getDescription()));
+        }
+        if (patch.changes(TaskPatch.Field.PRIORITY)) {
+            assignments.add("#priority = :newPriority");
+            values.put(":newPriority", AttributeValue.fromS(entity.getPriority()));
+        }
+        if (patch.changes(TaskPatch.Field.STATUS)) {
+            assignments.add("#status = :newStatus");
+            values.put(":newStatus", AttributeValue.fromS(entity.getStatus()));
+        }
+        assignments.add("#updatedAt = :updatedAt");
+        names.put("#updatedAt", "updatedAt");
+        values.put(":updatedAt", AttributeValue.fromS(entity.getUpdatedAt()));
+        String expression = "SET " + String.join(", ", assignments);
+        if (entity.getOpenUserId() == null && stored.getOpenUserId() != null) {
+            expression += " REMOVE openUserId";
+        }
+
+        Update update = Update.builder()
+            .tableName(tableName)
+            .key(Map.of("id", AttributeValue.fromS(stored.getId())))
+            .updateExpression(expression)
+            .conditionExpression(UNCHANGED)
+            .expressionAttributeNames(names)
+            .expressionAttributeValues(values)
+            .build();
+        return of(tableName, TransactWriteItem.builder().update(update).build(), stored, entity, today, false);
+    }
+
+    static TaskWrite delete(String tableName, TaskEntity stored, LocalDate today) {
+        Delete delete = Delete.builder()
+            .tableName(tableName)
+            .key(Map.of("id", AttributeValue.fromS(stored.getId())))
+            .conditionExpression(UNCHANGED)
+            .expressionAttributeNames(UNCHANGED_NAMES)
+            .expressionAttributeValues(unchangedValues(stored))
+            .build();
+        return of(tableName, TransactWriteItem.builder().delete(delete).build(), stored, null, today, false);
+    }
+
+    TransactWriteItemsRequest request() {
+        return request;
+    }
+
+    LocalDate today() {
+        return today;
+    }
+
+    /**
+     * Reads a cancelled transaction and returns normally when it can be
+     * retried: with nothing when the task item was no longer in the expected
+     * state, so the caller can read it again, and otherwise with the counters
+     * items, by user, that must be seeded or rolled over to today first.
+     * Throws the rule that was hit when the description was taken or a
+     * counter was at its limit.
+     */
+    Map<String, Map<String, AttributeValue>> countersToPrepare(TransactionCanceledException e) {
+        List<CancellationReason> reasons = e.cancellationReasons();
+        if (failed(reasons.get(0))) {
+            return Map.of();
+        }
+        if (claim >= 0 && failed(reasons.get(claim))) {
+            throw TaskBusinessRuleException.duplicateDescription();
+        }
+        Map<String, Map<String, AttributeValue>> unprepared = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String> update : counters.entrySet()) {
+            CancellationReason reason = reasons.get(update.getKey());
+            if (!failed(reason)) {
+                continue;
+            }
+            if (!UserTaskCounters.isCurrent(reason.item(), today)) {
+                unprepared.put(update.getValue(), reason.hasItem() ? reason.item() : Map.of());
+            } else if (after != null) {
+                throw UserTaskCounters.limitReached(after, reason.item());
+            }
+        }
+        if (unprepared.isEmpty()) {
+            throw e;
+        }
+        return unprepared;
+    }
+
+    private static TaskWrite of(String tableName, TransactWriteItem taskWrite, TaskEntity before, TaskEntity after,
+                                LocalDate today, boolean enforceLimits) {
+        List<TransactWriteItem> writes = new ArrayList<>();
+        writes.add(taskWrite);
+        int claim = -1;
+        if (before == null) {
+            claim = writes.size();
+            writes.add(DescriptionSentinel.claim(tableName, after));
+        } else if (TaskEntity.createdOn(before).equals(today)
+                && (after == null || !DescriptionSentinel.keyOf(before).equals(DescriptionSentinel.keyOf(after)))) {
+            writes.add(DescriptionSentinel.release(tableName, before));
+            if (after != null) {
+                writes.add(DescriptionSentinel.acquire(tableName, after));
+            }
+        }
+        boolean sentinelMoves = writes.size() > 1;
+        Map<String, Map<String, Integer>> delta = UserTaskCounters.delta(before, after, today);
+        Map<Integer, String> counters = new HashMap<>();
+        delta.forEach((userId, changes) -> {
+            counters.put(writes.size(), userId);
+            writes.add(UserTaskCounters.update(tableName, userId, changes, today, enforceLimits));
+        });
+        // Sentinels only move once the user's counters were seeded, and with them the user's sentinels
+        String owner = (before != null ? before : after).getUserId();
+        if (sentinelMoves && !delta.containsKey(owner)) {
+            counters.put(writes.size(), owner);
+            writes.add(UserTaskCounters.seeded(tableName, owner));
+        }
+        return new TaskWrite(TransactWriteItemsRequest.builder().transactItems(writes).build(), after, claim,
+            counters, today);
+    }
+
+    private static Map<String, AttributeValue> unchangedValues(TaskEntity stored) {
+        return Map.of(
+            ":userId", AttributeValue.fromS(stored.getUserId()),
+            ":status", AttributeValue.fromS(stored.getStatus()),
+            ":priority", AttributeValue.fromS(stored.getPriority()),
+            ":description", AttributeValue.fromS(stored.getDescription())
+        );
+    }
+
+    private static boolean failed(CancellationReason reason) {
+        return CONDITIONAL_CHECK_FAILED.equals(reason.code());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The per-user aggregate item of the task table: the user's open task count
+ * and the high-priority count of the current day, kept in step with the tasks
+ * by writing both in one transaction. The item's id cannot clash with a task
+ * id, and it has no userId attribute, so it stays out of the UserIdIndex.
+ *
+ * <p>Only the current day's high-priority count is kept, since creates only
+ * ever ask about the day they happen on. Every update requires the item to
+ * be seeded and, when it changes the high-priority count, to hold the current
+ * day. A write that finds otherwise cancels, and the repository first
+ * {@link #seed seeds} the item, or {@link #rollOver rolls it over} to the new
+ * day, by counting the user's tasks in the indexes. Users whose tasks predate
+ * the counters, and items of the earlier layout with one attribute per day,
+ * are backfilled that way on the user's first write.
+ */
+final class UserTaskCounters {
+
+    static final String OPEN = "openCount";
+    static final String HIGH_PRIORITY = "highPriorityCount";
+    static final String HIGH_PRIORITY_DAY = "highPriorityDay";
+
+    private static final String ID_PREFIX = "counters#";
+
+    private UserTaskCounters() {
+    }
+
+    static Map<String, AttributeValue> key(String userId) {
+        return Map.of("id", AttributeValue.fromS(ID_PREFIX + userId));
+    }
+
+    /**
+     * Counter changes, by user, of replacing {@code before} with {@code after};
+     * either may be null for a create or a delete. Tasks created on another
+     * day than {@code today} change the open count only.
+     */
+    static Map<String, Map<String, Integer>> delta(TaskEntity before, TaskEntity after, LocalDate today) {
+        Map<String, Map<String, Integer>> delta = new LinkedHashMap<>();
+        add(delta, before, -1, today);
+        add(delta, after, 1, today);
+        delta.values().forEach(counters -> counters.values().removeIf(change -> change == 0));
+        delta.values().removeIf(Map::isEmpty);
+        return delta;
+    }
+
+    /**
+     * Applies the changes to one user's item. With {@code enforceLimits},
+     * every incremented counter must still be below its limit. The
+     * transaction is cancelled with the item's current values when a limit is
+     * reached, or when the item is not seeded or holds another day.
+     */
+    static TransactWriteItem update(String tableName, String userId, Map<String, Integer> changes, LocalDate today,
+                                    boolean enforceLimits) {
+        List<String> additions = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        names.put("#day", HIGH_PRIORITY_DAY);
+        if (changes.containsKey(HIGH_PRIORITY)) {
+            values.put(":day", AttributeValue.fromS(today.toString()));
+            conditions.add("#day = :day");
+        } else {
+            conditions.add("attribute_exists(#day)");
+        }
+        int i = 0;
+        for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            String name = "#c" + i;
+            names.put(name, change.getKey());
+            values.put(":c" + i, AttributeValue.fromN(Integer.toString(change.getValue())));
+            additions.add(name + " :c" + i);
+            if (enforceLimits && change.getValue() > 0) {
+                values.put(":max" + i, AttributeValue.fromN(Integer.toString(limitOf(change.getKey()))));
+                conditions.add(name + " < :max" + i);
+            }
+            i++;
+        }
+        Update update = Update.builder()
+            .tableName(tableName)
+            .key(key(userId))
+            .updateExpression("ADD " + String.join(", ", additions))
+            .conditionExpression(String.join(" AND ", conditions))
+            .expressionAttributeNames(names)
+            .expressionAttributeValues(values)
+            .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+            .build();
+        return TransactWriteItem.builder().update(update).build();
+    }
+
+    /** Checks that the user's item was seeded, for a write that changes none of the counters. */
+    static TransactWriteItem seeded(String tableName, String userId) {
+        return TransactWriteItem.builder()
+            .conditionCheck(ConditionCheck.builder()
+                .tableName(tableName)
+                .key(key(userId))
+                .conditionExpression("attribute_exists(#day)")
+                .expressionAttributeNames(Map.of("#day", HIGH_PRIORITY_DAY))
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build())
+            .build();
+    }
+
+    /** Whether a cancelled update found the item ready, so that a limit is what it ran into. */
+    static boolean isCurrent(Map<String, AttributeValue> counters, LocalDate today) {
+        return today.toString().equals(dayOf(counters));
+    }
+
+    /**
+     * Writes the item from the user's counted tasks, when it is missing or was
+     * left by the earlier per-day layout, whose open count missed the tasks
+     * that predate it. Fails if another writer seeded it first.
+     */
+    static PutItemRequest seed(String tableName, String userId, long openTasks, long highPriorityToday, LocalDate today) {
+        Map<String, AttributeValue> item = new HashMap<>(key(userId));
+        item.put(OPEN, AttributeValue.fromN(Long.toString(openTasks)));
+        item.put(HIGH_PRIORITY_DAY, AttributeValue.fromS(today.toString()));
+        item.put(HIGH_PRIORITY, AttributeValue.fromN(Long.toString(highPriorityToday)));
+        return PutItemRequest.builder()
+            .tableName(tableName)
+            .item(item)
+            .conditionExpression("attribute_not_exists(#day)")
+            .expressionAttributeNames(Map.of("#day", HIGH_PRIORITY_DAY))
+            .build();
+    }
+
+    /**
+     * Moves the high-priority count from the day the item holds,
+     * {@code seenDay}, to {@code today}. The open count carries over. Fails if
+     * another writer moved it first.
+     */
+    static UpdateItemRequest rollOver(String tableName, String userId, String seenDay, long highPriorityToday,
+                                      LocalDate today) {
+        return UpdateItemRequest.builder()
+            .tableName(tableName)
+            .key(key(userId))
+            .updateExpression("SET #day = :day, #count = :count")
+            .conditionExpression("#day = :seen")
+            .expressionAttributeNames(Map.of("#day", HIGH_PRIORITY_DAY, "#count", HIGH_PRIORITY))
+            .expressionAttributeValues(Map.of(
+                ":day", AttributeValue.fromS(today.toString()),
+                ":count", AttributeValue.fromN(Long.toString(highPriorityToday)),
+                ":seen", AttributeValue.fromS(seenDay)))
+            .build();
+    }
+
+    /** The day an item holds the high-priority count of, or null when it must be seeded. */
+    static String dayOf(Map<String, AttributeValue> counters) {
+        AttributeValue day = counters != null ? counters.get(HIGH_PRIORITY_DAY) : null;
+        return day != null ? day.s() : null;
+    }
+
+    /** The user's high-priority count on {@code date}, which the item only holds for its current day. */
+    static long highPriorityOn(Map<String, AttributeValue> counters, LocalDate date) {
+        return date.toString().equals(dayOf(counters)) ? valueOf(counters, HIGH_PRIORITY) : 0;
+    }
+
+    /** The rule a cancelled create ran into, in the order the domain checks them. */
+    static TaskBusinessRuleException limitReached(TaskEntity task, Map<String, AttributeValue> counters) {
+        if (Priority.HIGH.name().equals(task.getPriority())
+                && highPriorityOn(counters, TaskEntity.createdOn(task)) >= TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY) {
+            return TaskBusinessRuleException.highPriorityLimitReached();
+        }
+        return TaskBusinessRuleException.openTaskLimitReached();
+    }
+
+    private static void add(Map<String, Map<String, Integer>> delta, TaskEntity task, int sign, LocalDate today) {
+        if (task == null) {
+            return;
+        }
+        Map<String, Integer> counters = delta.computeIfAbsent(task.getUserId(), user -> new LinkedHashMap<>());
+        if (Status.OPEN.name().equals(task.getStatus())) {
+            counters.merge(OPEN, sign, Integer::sum);
+        }
+        if (Priority.HIGH.name().equals(task.getPriority()) && TaskEntity.createdOn(task).equals(today)) {
+            counters.merge(HIGH_PRIORITY, sign, Integer::sum);
+        }
+    }
+
+    private static int limitOf(String counter) {
+        return OPEN.equals(counter)
+            ? TaskBusinessRules.MAX_OPEN_TASKS_PER_USER
+            : TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY;
+    }
+
+    static long valueOf(Map<String, AttributeValue> counters, String counter) {
+        AttributeValue value = counters != null ? counters.get(counter) : null;
+        return value != null ? Long.parseLong(value.n()) : 0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.tasks.adapters.outbound.cache;
+
+import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of {@link #findById} in front of another repository.
+ * Found tasks are kept in a {@link TinyLfuCache}; a missing task is not
+ * cached. Every write through this repository invalidates the task after the
+ * store has it, whether the write succeeded or not. Everything else,
+ * including the owned updates and deletes that check the stored version in
+ * their write, goes to the store unchanged.
+ *
+ * <p>Writes made by other instances do not reach this cache, so an entry can
+ * be up to {@code ttl} stale; the TTL bounds how long.
+ */
+public class CachingTaskRepository implements TaskRepositoryPort {
+
+    static final String CACHE_NAME = "tasks";
+
+    private final TaskRepositoryPort delegate;
+    private final TinyLfuCache<TaskId, Task> cache;
+
+    public CachingTaskRepository(TaskRepositoryPort delegate, long maximumSize, Duration ttl, LongSupplier ticker) {
+        this.delegate = delegate;
+        this.cache = new TinyLfuCache<>(maximumSize, ttl.toNanos(), ticker);
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        new TinyLfuCacheMetrics(cache, CACHE_NAME, Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    public Optional<Task> findById(TaskId id) {
+        Task cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedAt = cache.generation();
+        Optional<Task> task = delegate.findById(id);
+        task.ifPresent(found -> cache.putIfCurrent(id, found, loadedAt));
+        return task;
+    }
+
+    @Override
+    public Task save(Task task) {
+        try {
+            return delegate.save(task);
+        } finally {
+            cache.invalidate(task.getId());
+        }
+    }
+
+    @Override
+    public Task save(TaskPatch patch) {
+        try {
+            return delegate.save(patch);
+        } finally {
+            cache.invalidate(patch.task().getId());
+        }
+    }
+
+    @Override
+    public void deleteById(TaskId id) {
+        try {
+            delegate.deleteById(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public Task updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        try {
+            return delegate.updateOwnedTask(id, userId, update, updatedTime);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public void deleteOwnedTask(TaskId id, UserId userId) {
+        try {
+            delegate.deleteOwnedTask(id, userId);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Task> findByUserId(UserId userId, int page, int size) {
+        return delegate.findByUserId(userId, page, size);
+    }
+
+    @Override
+    public TaskPage findByUserId(UserId userId, int page, int size, Long readVersion) {
+        return delegate.findByUserId(userId, page, size, readVersion);
+    }
+
+    @Override
+    public TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        return delegate.findByUserIdAfter(userId, query, after, size);
+    }
+
+    @Override
+    public boolean enforcesCreationQuotas() {
+        return delegate.enforcesCreationQuotas();
+    }
+
+    @Override
+    public boolean enforcesUniqueDescriptions() {
+        return delegate.enforcesUniqueDescriptions();
+    }
+
+    @Override
+    public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        return delegate.existsByUserAndDateAndDescription(userId, date, description);
+    }
+
+    @Override
+    public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        return delegate.countHighPriorityTasksForUserOnDate(userId, date);
+    }
+
+    @Override
+    public long countOpenTasksForUser(UserId userId) {
+        return delegate.countOpenTasksForUser(userId);
+    }
+
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        return delegate.creationContext(userId, date, description);
+    }
+}
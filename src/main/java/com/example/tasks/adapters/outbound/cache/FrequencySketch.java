@@ -0,0 +1,79 @@
+package com.example.tasks.adapters.outbound.cache;
+
+/**
+ * Count-min sketch of how often keys were asked for, the popularity estimate
+ * behind TinyLFU admission. Counters are four bits, sixteen to a long, and a
+ * key's estimate is the least of its four counters. Once the sketch has
+ * counted ten times as many accesses as it has longs, every counter is
+ * halved, so that past popularity fades and a key that was hot yesterday
+ * cannot keep today's keys out.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0x97cb3127ee4e1e6dL, 0xc2b2ae3d27d4eb4fL, 0x165667b19e3779f9L, 0x9e3779b97f4a7c15L};
+    private static final long HALVE_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long maximumSize) {
+        int longs = Integer.highestOneBit(Math.clamp(maximumSize, 1, 1 << 28) * 2 - 1);
+        this.table = new long[Math.max(8, longs)];
+        this.sampleSize = 10 * table.length;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            frequency = Math.min(frequency, (int) (table[indexOf(hash, depth)] >>> shiftOf(hash, depth)) & MAX_COUNT);
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            int index = indexOf(hash, depth);
+            int shift = shiftOf(hash, depth);
+            if (((table[index] >>> shift) & MAX_COUNT) != MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            halve();
+        }
+    }
+
+    private void halve() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & HALVE_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    // Each depth reads a different one of the long's sixteen counters
+    private static int shiftOf(int hash, int depth) {
+        return ((hash >>> (depth << 3)) & 0xF) << 2;
+    }
+
+    // The murmur3 finalizer, so that poor hashCodes still spread over the table
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.tasks.adapters.outbound.cache;
+
+import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Puts a {@link CachingTaskRepository} in front of the remote stores'
+ * repository. The local and LSM stores already answer findById from memory,
+ * and are left alone.
+ */
+@Configuration
+@Profile({"aws", "gcp"})
+@ConditionalOnProperty(name = "tasks.cache.enabled", havingValue = "true")
+public class TaskCacheConfiguration {
+
+    // 0 sizes the cache by heapFraction of the maximum heap over entrySize
+    @Value("${tasks.cache.maximum-size:0}")
+    private long maximumSize;
+
+    @Value("${tasks.cache.heap-fraction:0.05}")
+    private double heapFraction;
+
+    // What a cached task takes on the heap, a 500 character description included
+    @Value("${tasks.cache.entry-size:2KB}")
+    private DataSize entrySize;
+
+    @Value("${tasks.cache.ttl:30s}")
+    private Duration ttl;
+
+    // Primary, so the services get the cache; a collection injection leaves the cache itself out
+    @Bean
+    @Primary
+    public TaskRepositoryPort cachingTaskRepository(List<TaskRepositoryPort> stores,
+                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        if (stores.size() != 1) {
+            throw new IllegalStateException("tasks.cache needs exactly one store to cache, found " + stores.size());
+        }
+        CachingTaskRepository repository = new CachingTaskRepository(stores.get(0), size(), ttl, System::nanoTime);
+        meterRegistry.ifAvailable(repository::bindMetrics);
+        return repository;
+    }
+
+    private long size() {
+        if (maximumSize > 0) {
+            return maximumSize;
+        }
+        return Math.max(1, (long) (Runtime.getRuntime().maxMemory() * heapFraction / entrySize.toBytes()));
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.tasks.adapters.outbound.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded cache with W-TinyLFU eviction. New entries go into a small
+ * LRU window, one percent of the capacity. An entry pushed out of the window
+ * joins the main space only if the {@link FrequencySketch} rates it more
+ * popular than the entry main would evict for it. Otherwise it is dropped.
+ * The main space is a segmented LRU: a probation segment for entries that
+ * were admitted, and a protected segment, 80% of main, for entries hit again
+ * since. A burst of one-off reads passes through the window without flushing
+ * the tasks that are read over and over.
+ *
+ * <p>Entries expire {@code ttl} after they were put, by {@code ticker}'s
+ * clock. Every operation takes the cache's lock. A hit reorders the LRU
+ * lists, and the critical sections are a few pointer moves.
+ *
+ * <p>{@link #invalidate} bumps a generation. A value loaded before the bump
+ * is refused by {@link #putIfCurrent}, so a read that raced a write cannot
+ * cache what the write replaced.
+ */
+final class TinyLfuCache<K, V> {
+
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSegment = new AccessOrder<>();
+    private final FrequencySketch sketch;
+    private final long maximumSize;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+
+    TinyLfuCache(long maximumSize, long ttlNanos, LongSupplier ticker) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, (long) (maximumSize * WINDOW_SHARE));
+        this.protectedMaximum = (long) ((maximumSize - windowMaximum) * PROTECTED_SHARE);
+        this.ttlNanos = ttlNanos;
+        this.ticker = ticker;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /** The cached value, or null on a miss; a miss and a hit both count towards the key's popularity. */
+    synchronized V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = nodes.get(key);
+        if (node != null && ticker.getAsLong() - node.expiresAt >= 0) {
+            remove(node);
+            node = null;
+        }
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onHit(node);
+        return node.value;
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    /** Caches {@code value} unless an invalidation came after {@code loadedAt}, a {@link #generation} read before the load. */
+    synchronized void putIfCurrent(K key, V value, long loadedAt) {
+        if (loadedAt != generation) {
+            return;
+        }
+        puts++;
+        long expiresAt = ticker.getAsLong() + ttlNanos;
+        Node<K, V> node = nodes.get(key);
+        if (node != null) {
+            node.value = value;
+            node.expiresAt = expiresAt;
+            onHit(node);
+            return;
+        }
+        node = new Node<>(key, value, expiresAt);
+        nodes.put(key, node);
+        window.addLast(node, Region.WINDOW);
+        Node<K, V> candidate = null;
+        if (window.size > windowMaximum) {
+            candidate = window.first();
+            window.remove(candidate);
+            probation.addLast(candidate, Region.PROBATION);
+        }
+        evictOverflow(candidate);
+    }
+
+    synchronized void invalidate(K key) {
+        generation++;
+        Node<K, V> node = nodes.get(key);
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    synchronized long size() {
+        return nodes.size();
+    }
+
+    synchronized long hitCount() {
+        return hits;
+    }
+
+    synchronized long missCount() {
+        return misses;
+    }
+
+    synchronized long putCount() {
+        return puts;
+    }
+
+    /** Entries dropped for room; expired and invalidated ones are not counted. */
+    synchronized long evictionCount() {
+        return evictions;
+    }
+
+    // A window hit only refreshes its place; a probation hit earns protection
+    private void onHit(Node<K, V> node) {
+        switch (node.region) {
+            case WINDOW -> window.moveToLast(node);
+            case PROTECTED -> protectedSegment.moveToLast(node);
+            case PROBATION -> {
+                probation.remove(node);
+                protectedSegment.addLast(node, Region.PROTECTED);
+                if (protectedSegment.size > protectedMaximum) {
+                    Node<K, V> demoted = protectedSegment.first();
+                    protectedSegment.remove(demoted);
+                    probation.addLast(demoted, Region.PROBATION);
+                }
+            }
+        }
+    }
+
+    // The window's candidate duels main's victim once; the less popular one leaves
+    private void evictOverflow(Node<K, V> candidate) {
+        while (nodes.size() > maximumSize) {
+            Node<K, V> victim = probation.first() != null ? probation.first()
+                    : protectedSegment.first() != null ? protectedSegment.first()
+                    : window.first();
+            if (candidate != null && candidate != victim) {
+                evict(sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate);
+                candidate = null;
+            } else {
+                evict(victim);
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        remove(node);
+        evictions++;
+    }
+
+    private void remove(Node<K, V> node) {
+        nodes.remove(node.key);
+        switch (node.region) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedSegment.remove(node);
+        }
+    }
+
+    private enum Region { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        long expiresAt;
+        Region region;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Doubly linked list from least to most recently used, threaded through the nodes
+    private static final class AccessOrder<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        long size;
+
+        Node<K, V> first() {
+            return head;
+        }
+
+        void addLast(Node<K, V> node, Region region) {
+            node.region = region;
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != tail) {
+                Region region = node.region;
+                remove(node);
+                addLast(node, region);
+            }
+        }
+    }
+}
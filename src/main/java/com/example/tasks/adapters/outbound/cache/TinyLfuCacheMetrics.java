@@ -0,0 +1,51 @@
+package com.example.tasks.adapters.outbound.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes a {@link TinyLfuCache}'s counters under Micrometer's standard
+ * cache meters: cache.gets tagged hit or miss, cache.puts, cache.evictions
+ * and cache.size.
+ */
+final class TinyLfuCacheMetrics extends CacheMeterBinder<TinyLfuCache<?, ?>> {
+
+    TinyLfuCacheMetrics(TinyLfuCache<?, ?> cache, String cacheName, Iterable<Tag> tags) {
+        super(cache, cacheName, tags);
+    }
+
+    @Override
+    protected Long size() {
+        TinyLfuCache<?, ?> cache = getCache();
+        return cache != null ? cache.size() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TinyLfuCache<?, ?> cache = getCache();
+        return cache != null ? cache.hitCount() : 0;
+    }
+
+    @Override
+    protected Long missCount() {
+        TinyLfuCache<?, ?> cache = getCache();
+        return cache != null ? cache.missCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TinyLfuCache<?, ?> cache = getCache();
+        return cache != null ? cache.evictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        TinyLfuCache<?, ?> cache = getCache();
+        return cache != null ? cache.putCount() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    }
+}
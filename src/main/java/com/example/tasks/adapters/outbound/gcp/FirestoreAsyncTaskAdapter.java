@@ -0,0 +1,210 @@
+package com.example.tasks.adapters.outbound.gcp;
+
+import com.example.tasks.application.port.outbound.AsyncTaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * The Firestore store behind the async port. Every call hands its
+ * {@link ApiFuture} a callback instead of waiting on it; the callbacks run on
+ * the client's threads, so nothing here may block.
+ */
+@Repository
+@Profile("gcp")
+public class FirestoreAsyncTaskAdapter implements AsyncTaskRepositoryPort {
+
+    private static final String COLLECTION = TaskDocuments.COLLECTION;
+
+    private final Firestore firestore;
+    private final Clock clock;
+
+    public FirestoreAsyncTaskAdapter(Firestore firestore, Clock clock) {
+        this.firestore = firestore;
+        this.clock = clock;
+    }
+
+    @Override
+    public CompletableFuture<Task> save(Task task) {
+        DocumentReference document = firestore.collection(COLLECTION).document(task.getId().value());
+        // The counters move from the stored version, if any, as the blocking repository does
+        return completable(firestore.runAsyncTransaction(transaction ->
+            ApiFutures.transformAsync(transaction.get(document), snapshot ->
+                ApiFutures.transform(TaskCounterShards.prepare(firestore, transaction,
+                    snapshot.exists() ? TaskDocuments.toTask(snapshot) : null, task, today()), counters -> {
+                    transaction.set(document, TaskDocuments.toData(task));
+                    counters.writeTo(transaction);
+                    return task;
+                }, MoreExecutors.directExecutor()), MoreExecutors.directExecutor())), "Failed to save task");
+    }
+
+    @Override
+    public CompletableFuture<Task> save(TaskPatch patch) {
+        DocumentReference document = firestore.collection(COLLECTION).document(patch.task().getId().value());
+        // Replayed on the stored version, as the blocking repository does
+        return completable(firestore.runAsyncTransaction(transaction ->
+            ApiFutures.transformAsync(transaction.get(document), snapshot -> {
+                if (!snapshot.exists()) {
+                    throw new TaskNotFoundException(patch.task().getId());
+                }
+                Task stored = TaskDocuments.toTask(snapshot);
+                TaskPatch replayed = stored.patch(patch.toUpdate(), patch.task().getUpdatedAt());
+                if (replayed.isEmpty()) {
+                    return ApiFutures.immediateFuture(replayed.task());
+                }
+                return ApiFutures.transform(TaskCounterShards.prepare(firestore, transaction, stored, replayed.task(), today()),
+                    counters -> {
+                        transaction.update(document, TaskDocuments.changedFields(replayed, snapshot));
+                        counters.writeTo(transaction);
+                        return replayed.task();
+                    }, MoreExecutors.directExecutor());
+            }, MoreExecutors.directExecutor())), "Failed to save task");
+    }
+
+    @Override
+    public CompletableFuture<Optional<Task>> findById(TaskId id) {
+        return completable(firestore.collection(COLLECTION).document(id.value()).get(), "Failed to find task")
+            .thenApply(document -> document.exists() ? Optional.of(TaskDocuments.toTask(document)) : Optional.empty());
+    }
+
+    @Override
+    public CompletableFuture<TaskPage> findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        return completable(TaskDocuments.pageAfter(firestore.collection(COLLECTION), userId, query, after, size).get(),
+            "Failed to find tasks")
+            .thenApply(snapshot -> TaskPage.of(snapshot.getDocuments().stream()
+                .map(TaskDocuments::toTask)
+                .collect(Collectors.toList()), size));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteById(TaskId id) {
+        DocumentReference document = firestore.collection(COLLECTION).document(id.value());
+        return completable(firestore.runAsyncTransaction(transaction ->
+            ApiFutures.transformAsync(transaction.get(document), snapshot -> {
+                if (!snapshot.exists()) {
+                    return ApiFutures.immediateFuture((Void) null);
+                }
+                return ApiFutures.transform(TaskCounterShards.prepare(firestore, transaction,
+                    TaskDocuments.toTask(snapshot), null, today()), counters -> {
+                    transaction.delete(document);
+                    counters.writeTo(transaction);
+                    return (Void) null;
+                }, MoreExecutors.directExecutor());
+            }, MoreExecutors.directExecutor())), "Failed to delete task");
+    }
+
+    @Override
+    public CompletableFuture<Task> updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        DocumentReference document = firestore.collection(COLLECTION).document(id.value());
+        // The async transaction chains its read and write as callbacks; the
+        // precondition on the read's update time keeps the checks valid
+        return completable(firestore.runAsyncTransaction(transaction ->
+            ApiFutures.transformAsync(transaction.get(document), snapshot -> {
+                if (!snapshot.exists()) {
+                    throw new TaskNotFoundException(id);
+                }
+                Task task = TaskDocuments.toTask(snapshot);
+                task.ensureOwnership(userId);
+                TaskPatch patch = task.patch(update, updatedTime);
+                if (patch.isEmpty()) {
+                    return ApiFutures.immediateFuture(patch.task());
+                }
+                return ApiFutures.transform(TaskCounterShards.prepare(firestore, transaction, task, patch.task(), today()),
+                    counters -> {
+                        transaction.update(document, TaskDocuments.changedFields(patch, snapshot), Precondition.updatedAt(snapshot.getUpdateTime()));
+                        counters.writeTo(transaction);
+                        return patch.task();
+                    }, MoreExecutors.directExecutor());
+            }, MoreExecutors.directExecutor())), "Failed to update task");
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteOwnedTask(TaskId id, UserId userId) {
+        DocumentReference document = firestore.collection(COLLECTION).document(id.value());
+        return completable(firestore.runAsyncTransaction(transaction ->
+            ApiFutures.transformAsync(transaction.get(document), snapshot -> {
+                if (!snapshot.exists()) {
+                    throw new TaskNotFoundException(id);
+                }
+                Task task = TaskDocuments.toTask(snapshot);
+                task.ensureOwnership(userId);
+                return ApiFutures.transform(TaskCounterShards.prepare(firestore, transaction, task, null, today()),
+                    counters -> {
+                        transaction.delete(document, Precondition.updatedAt(snapshot.getUpdateTime()));
+                        counters.writeTo(transaction);
+                        return (Void) null;
+                    }, MoreExecutors.directExecutor());
+            }, MoreExecutors.directExecutor())), "Failed to delete task");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        return completable(TaskDocuments.withDescriptionOn(firestore.collection(COLLECTION), userId, date, description).get(),
+            "Failed to check description uniqueness").thenApply(snapshot -> TaskDocuments.hasDescription(snapshot, description));
+    }
+
+    @Override
+    public CompletableFuture<Long> countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        return completable(TaskCounterShards.totals(firestore, userId, date, today()), "Failed to count high priority tasks")
+            .thenApply(TaskCounterShards.Totals::highPriorityTasks);
+    }
+
+    @Override
+    public CompletableFuture<Long> countOpenTasksForUser(UserId userId) {
+        return completable(TaskCounterShards.totals(firestore, userId, today(), today()), "Failed to count open tasks")
+            .thenApply(TaskCounterShards.Totals::openTasks);
+    }
+
+    // One shard read answers both counts, sent along with the description lookup
+    @Override
+    public CompletableFuture<CreationContext> creationContext(UserId userId, LocalDate date, String description) {
+        CompletableFuture<Boolean> exists = existsByUserAndDateAndDescription(userId, date, description);
+        return completable(TaskCounterShards.totals(firestore, userId, date, today()), "Failed to read creation context")
+            .thenCombine(exists, (totals, taken) -> new CreationContext(taken,
+                totals.highPriorityTasks(), totals.openTasks()));
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    // Failures are reported as the blocking adapter throws them, domain exceptions unwrapped
+    private static <T> CompletableFuture<T> completable(ApiFuture<T> future, String message) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable failure) {
+                result.completeExceptionally(TaskDocuments.domainExceptionOr(failure, message));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+}
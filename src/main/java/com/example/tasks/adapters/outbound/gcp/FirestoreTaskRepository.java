@@ -1,21 +1,30 @@
 package com.example.tasks.adapters.outbound.gcp;
 
 import com.example.tasks.application.port.outbound.TaskRepositoryPort;
-import com.example.tasks.domain.Priority;
-import com.example.tasks.domain.Status;
+import com.example.tasks.domain.CreationContext;
 import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
 import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
 import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
 import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
@@ -24,28 +33,29 @@ import java.util.stream.Collectors;
 @Profile("gcp")
 public class FirestoreTaskRepository implements TaskRepositoryPort {
 
+    private static final String COLLECTION = TaskDocuments.COLLECTION;
+
     private final Firestore firestore;
-    private static final String COLLECTION = "tasks";
+    private final Clock clock;
 
-    public FirestoreTaskRepository(Firestore firestore) {
+    public FirestoreTaskRepository(Firestore firestore, Clock clock) {
         this.firestore = firestore;
+        this.clock = clock;
     }
 
     @Override
     public Task save(Task task) {
+        DocumentReference document = firestore.collection(COLLECTION).document(task.getId().value());
         try {
-            Map<String, Object> taskData = Map.of(
-                "id", task.getId().value(),
-                "userId", task.getUserId().value(),
-                "description", task.getDescription(),
-                "priority", task.getPriority().name(),
-                "status", task.getStatus().name(),
-                "createdAt", task.getCreatedAt().toString(),
-                "updatedAt", task.getUpdatedAt().toString()
-            );
-
-            firestore.collection(COLLECTION).document(task.getId().value()).set(taskData).get();
-            return task;
+            // The counters move from the stored version, if any, to this one
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(document).get();
+                TaskCounterShards.Change counters = TaskCounterShards.prepare(firestore, transaction,
+                    snapshot.exists() ? TaskDocuments.toTask(snapshot) : null, task, today()).get();
+                transaction.set(document, TaskDocuments.toData(task));
+                counters.writeTo(transaction);
+                return task;
+            }).get();
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to save task", e);
         }
@@ -61,7 +71,7 @@ public class FirestoreTaskRepository implements TaskRepositoryPort {
                 return Optional.empty();
             }
 
-            return Optional.of(mapToTask(document));
+            return Optional.of(TaskDocuments.toTask(document));
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to find task", e);
         }
@@ -70,6 +80,7 @@ public class FirestoreTaskRepository implements TaskRepositoryPort {
     @Override
     public List<Task> findByUserId(UserId userId, int page, int size) {
         try {
+            // Orders Timestamps only as intended, see TaskTimestampBackfill
             Query query = firestore.collection(COLLECTION)
                 .whereEqualTo("userId", userId.value())
                 .orderBy("createdAt", Query.Direction.DESCENDING)
@@ -77,35 +88,127 @@ public class FirestoreTaskRepository implements TaskRepositoryPort {
                 .limit(size);
 
             return query.get().get().getDocuments().stream()
-                .map(this::mapToTask)
+                .map(TaskDocuments::toTask)
                 .collect(Collectors.toList());
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to find tasks", e);
         }
     }
 
+    @Override
+    public TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        try {
+            Query firestoreQuery = TaskDocuments.pageAfter(firestore.collection(COLLECTION), userId, query, after, size);
+            List<Task> tasks = firestoreQuery.get().get().getDocuments().stream()
+                .map(TaskDocuments::toTask)
+                .collect(Collectors.toList());
+            return TaskPage.of(tasks, size);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Failed to find tasks", e);
+        }
+    }
+
     @Override
     public void deleteById(TaskId id) {
         try {
-            firestore.collection(COLLECTION).document(id.value()).delete().get();
+            DocumentReference document = firestore.collection(COLLECTION).document(id.value());
+            firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(document).get();
+                if (snapshot.exists()) {
+                    TaskCounterShards.Change counters = TaskCounterShards.prepare(firestore, transaction,
+                        TaskDocuments.toTask(snapshot), null, today()).get();
+                    transaction.delete(document);
+                    counters.writeTo(transaction);
+                }
+                return null;
+            }).get();
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to delete task", e);
         }
     }
 
     @Override
-    public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+    public Task save(TaskPatch patch) {
+        try {
+            DocumentReference document = firestore.collection(COLLECTION).document(patch.task().getId().value());
+            // The patch's changes are replayed on the stored version, so the
+            // counters move from what is actually stored
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(document).get();
+                if (!snapshot.exists()) {
+                    throw new TaskNotFoundException(patch.task().getId());
+                }
+                Task stored = TaskDocuments.toTask(snapshot);
+                TaskPatch replayed = stored.patch(patch.toUpdate(), patch.task().getUpdatedAt());
+                if (!replayed.isEmpty()) {
+                    TaskCounterShards.Change counters = TaskCounterShards.prepare(firestore, transaction,
+                        stored, replayed.task(), today()).get();
+                    // A field mask of the changed fields: the rest of the document is left as stored
+                    transaction.update(document, TaskDocuments.changedFields(replayed, snapshot));
+                    counters.writeTo(transaction);
+                }
+                return replayed.task();
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw TaskDocuments.domainExceptionOr(e, "Failed to save task");
+        }
+    }
+
+    @Override
+    public Task updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
         try {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(23, 59, 59);
+            DocumentReference document = firestore.collection(COLLECTION).document(id.value());
+            // The transaction's read and the precondition on its update time make
+            // the ownership and status checks hold at the moment of the write
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(document).get();
+                if (!snapshot.exists()) {
+                    throw new TaskNotFoundException(id);
+                }
+                Task task = TaskDocuments.toTask(snapshot);
+                task.ensureOwnership(userId);
+                TaskPatch patch = task.patch(update, updatedTime);
+                if (!patch.isEmpty()) {
+                    TaskCounterShards.Change counters = TaskCounterShards.prepare(firestore, transaction,
+                        task, patch.task(), today()).get();
+                    transaction.update(document, TaskDocuments.changedFields(patch, snapshot), Precondition.updatedAt(snapshot.getUpdateTime()));
+                    counters.writeTo(transaction);
+                }
+                return patch.task();
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw TaskDocuments.domainExceptionOr(e, "Failed to update task");
+        }
+    }
 
-            Query query = firestore.collection(COLLECTION)
-                .whereEqualTo("userId", userId.value())
-                .whereEqualTo("description", description)
-                .whereGreaterThanOrEqualTo("createdAt", startOfDay.toString())
-                .whereLessThanOrEqualTo("createdAt", endOfDay.toString());
+    @Override
+    public void deleteOwnedTask(TaskId id, UserId userId) {
+        try {
+            DocumentReference document = firestore.collection(COLLECTION).document(id.value());
+            firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(document).get();
+                if (!snapshot.exists()) {
+                    throw new TaskNotFoundException(id);
+                }
+                Task task = TaskDocuments.toTask(snapshot);
+                task.ensureOwnership(userId);
+                TaskCounterShards.Change counters = TaskCounterShards.prepare(firestore, transaction,
+                    task, null, today()).get();
+                transaction.delete(document, Precondition.updatedAt(snapshot.getUpdateTime()));
+                counters.writeTo(transaction);
+                return null;
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw TaskDocuments.domainExceptionOr(e, "Failed to delete task");
+        }
+    }
 
-            return !query.get().get().isEmpty();
+    @Override
+    public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        try {
+            Query query = TaskDocuments.withDescriptionOn(firestore.collection(COLLECTION), userId, date, description);
+
+            return TaskDocuments.hasDescription(query.get().get(), description);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to check description uniqueness", e);
         }
@@ -114,16 +217,7 @@ public class FirestoreTaskRepository implements TaskRepositoryPort {
     @Override
     public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
         try {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(23, 59, 59);
-
-            Query query = firestore.collection(COLLECTION)
-                .whereEqualTo("userId", userId.value())
-                .whereEqualTo("priority", "HIGH")
-                .whereGreaterThanOrEqualTo("createdAt", startOfDay.toString())
-                .whereLessThanOrEqualTo("createdAt", endOfDay.toString());
-
-            return query.get().get().size();
+            return TaskCounterShards.totals(firestore, userId, date, today()).get().highPriorityTasks();
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to count high priority tasks", e);
         }
@@ -132,25 +226,29 @@ public class FirestoreTaskRepository implements TaskRepositoryPort {
     @Override
     public long countOpenTasksForUser(UserId userId) {
         try {
-            Query query = firestore.collection(COLLECTION)
-                .whereEqualTo("userId", userId.value())
-                .whereEqualTo("status", "OPEN");
-
-            return query.get().get().size();
+            return TaskCounterShards.totals(firestore, userId, today(), today()).get().openTasks();
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to count open tasks", e);
         }
     }
 
-    private Task mapToTask(DocumentSnapshot document) {
-        return Task.reconstitute(
-            TaskId.of(document.getString("id")),
-            UserId.of(document.getString("userId")),
-            document.getString("description"),
-            Priority.valueOf(document.getString("priority")),
-            Status.valueOf(document.getString("status")),
-            LocalDateTime.parse(document.getString("createdAt")),
-            LocalDateTime.parse(document.getString("updatedAt"))
-        );
+    // The lookup and the shard read are sent together and answered in one round trip
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        try {
+            ApiFuture<QuerySnapshot> exists = TaskDocuments.withDescriptionOn(firestore.collection(COLLECTION),
+                userId, date, description).get();
+            ApiFuture<TaskCounterShards.Totals> totals = TaskCounterShards.totals(firestore, userId, date, today());
+
+            TaskCounterShards.Totals counters = totals.get();
+            return new CreationContext(TaskDocuments.hasDescription(exists.get(), description),
+                counters.highPriorityTasks(), counters.openTasks());
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Failed to read creation context", e);
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
     }
 }
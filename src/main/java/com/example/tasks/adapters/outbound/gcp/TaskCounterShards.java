@@ -0,0 +1,199 @@
+package com.example.tasks.adapters.outbound.gcp;
+
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.UserId;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Transaction;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-user task counters, split over {@link #SHARDS} documents: the user's
+ * open task count and the high-priority count of the current day. A write
+ * moves the counters on one shard picked at random, read and written in the
+ * transaction that writes the task, so a busy user's writes spread over the
+ * shards instead of queueing on one document. A total is the sum over the
+ * shards, read with one getAll.
+ *
+ * <p>Only the current day's high-priority count is kept, since creates only
+ * ever ask about the day they happen on: a shard holding another day counts
+ * none of today's tasks, and the next write to it starts the day over. A
+ * write that finds its shard never seeded, because the user's tasks predate
+ * the counters or the shards were left by the earlier layout with one field
+ * per day, first counts the user's tasks in the same transaction and seeds
+ * every shard from the counts.
+ */
+final class TaskCounterShards {
+
+    static final String COLLECTION = "taskCounters";
+    static final int SHARDS = 8;
+
+    static final String OPEN = "openCount";
+    static final String HIGH_PRIORITY = "highPriorityCount";
+    static final String HIGH_PRIORITY_DAY = "highPriorityDay";
+
+    private TaskCounterShards() {
+    }
+
+    static DocumentReference[] shardsOf(Firestore firestore, UserId userId) {
+        DocumentReference[] shards = new DocumentReference[SHARDS];
+        for (int shard = 0; shard < SHARDS; shard++) {
+            shards[shard] = firestore.collection(COLLECTION).document(userId.value() + "#" + shard);
+        }
+        return shards;
+    }
+
+    /**
+     * Reads, in {@code transaction}, what replacing {@code before} with
+     * {@code after} needs to move the counters; either may be null for a
+     * create or a delete, and both belong to the same user. Tasks created on
+     * another day than {@code today} change the open count only, and a write
+     * that changes no counter reads nothing. Firestore transactions read
+     * before they write, so the task is written after this completes.
+     */
+    static ApiFuture<Change> prepare(Firestore firestore, Transaction transaction, Task before, Task after,
+                                     LocalDate today) {
+        Map<String, Long> changes = new HashMap<>();
+        add(changes, before, -1, today);
+        add(changes, after, 1, today);
+        changes.values().removeIf(change -> change == 0);
+        if (changes.isEmpty()) {
+            return ApiFutures.immediateFuture(new Change(changes, null, 0, null, today, 0, 0));
+        }
+        UserId userId = (after != null ? after : before).getUserId();
+        DocumentReference[] shards = shardsOf(firestore, userId);
+        int picked = ThreadLocalRandom.current().nextInt(SHARDS);
+        return ApiFutures.transformAsync(transaction.get(shards[picked]), shard -> {
+            if (isSeeded(shard)) {
+                return ApiFutures.immediateFuture(new Change(changes, shards, picked, shard, today, 0, 0));
+            }
+            CollectionReference tasks = firestore.collection(TaskDocuments.COLLECTION);
+            ApiFuture<List<AggregateQuerySnapshot>> counts = ApiFutures.allAsList(List.of(
+                transaction.get(TaskDocuments.countOpen(tasks, userId)),
+                transaction.get(TaskDocuments.countHighPriorityOn(tasks, userId, today))));
+            return ApiFutures.transform(counts, counted -> new Change(changes, shards, picked, null, today,
+                counted.get(0).getCount(), counted.get(1).getCount()), MoreExecutors.directExecutor());
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * The user's open task count and high-priority count on {@code date},
+     * summed over the shards. The shards only hold the current day, so
+     * another date, like a user whose shards were never seeded, is answered
+     * by counting the user's tasks instead.
+     */
+    static ApiFuture<Totals> totals(Firestore firestore, UserId userId, LocalDate date, LocalDate today) {
+        return ApiFutures.transformAsync(firestore.getAll(shardsOf(firestore, userId)), shards -> {
+            if (date.equals(today) && shards.stream().allMatch(TaskCounterShards::isSeeded)) {
+                return ApiFutures.immediateFuture(new Totals(sum(shards, OPEN, today), sum(shards, HIGH_PRIORITY, today)));
+            }
+            CollectionReference tasks = firestore.collection(TaskDocuments.COLLECTION);
+            ApiFuture<List<AggregateQuerySnapshot>> counts = ApiFutures.allAsList(List.of(
+                TaskDocuments.countOpen(tasks, userId).get(),
+                TaskDocuments.countHighPriorityOn(tasks, userId, date).get()));
+            return ApiFutures.transform(counts, counted -> new Totals(counted.get(0).getCount(), counted.get(1).getCount()),
+                MoreExecutors.directExecutor());
+        }, MoreExecutors.directExecutor());
+    }
+
+    /** A user's counts, as {@link #totals} reads them. */
+    record Totals(long openTasks, long highPriorityTasks) {
+    }
+
+    /**
+     * The counter writes of one task write, prepared from the reads of its
+     * transaction: the picked shard moved by the changes, or, when the shards
+     * were never seeded, every shard overwritten, the counted tasks on the
+     * first and the changes on the picked one.
+     */
+    static final class Change {
+
+        private final Map<String, Long> changes;
+        private final DocumentReference[] shards;
+        private final int picked;
+        private final DocumentSnapshot shard;
+        private final LocalDate today;
+        private final long openTasks;
+        private final long highPriorityToday;
+
+        private Change(Map<String, Long> changes, DocumentReference[] shards, int picked, DocumentSnapshot shard,
+                       LocalDate today, long openTasks, long highPriorityToday) {
+            this.changes = changes;
+            this.shards = shards;
+            this.picked = picked;
+            this.shard = shard;
+            this.today = today;
+            this.openTasks = openTasks;
+            this.highPriorityToday = highPriorityToday;
+        }
+
+        // Every write sets whole shards, which also drops the per-day fields of the earlier layout
+        void writeTo(Transaction transaction) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            if (shard != null) {
+                transaction.set(shards[picked], values(valueOf(shard, OPEN, today), valueOf(shard, HIGH_PRIORITY, today), picked));
+                return;
+            }
+            for (int index = 0; index < SHARDS; index++) {
+                transaction.set(shards[index], index == 0
+                    ? values(openTasks, highPriorityToday, index)
+                    : values(0, 0, index));
+            }
+        }
+
+        private Map<String, Object> values(long open, long highPriority, int index) {
+            Map<String, Long> moved = index == picked ? changes : Map.of();
+            return Map.of(
+                OPEN, open + moved.getOrDefault(OPEN, 0L),
+                HIGH_PRIORITY_DAY, today.toString(),
+                HIGH_PRIORITY, highPriority + moved.getOrDefault(HIGH_PRIORITY, 0L));
+        }
+    }
+
+    private static void add(Map<String, Long> changes, Task task, long sign, LocalDate today) {
+        if (task == null) {
+            return;
+        }
+        if (task.isOpen()) {
+            changes.merge(OPEN, sign, Long::sum);
+        }
+        if (task.isHighPriority() && task.getCreatedAt().toLocalDate().equals(today)) {
+            changes.merge(HIGH_PRIORITY, sign, Long::sum);
+        }
+    }
+
+    // Seeding writes every shard, so a shard without a day was never seeded
+    private static boolean isSeeded(DocumentSnapshot shard) {
+        return shard.exists() && shard.getString(HIGH_PRIORITY_DAY) != null;
+    }
+
+    // A shard holding another day counts none of today's high-priority tasks
+    private static long valueOf(DocumentSnapshot shard, String counter, LocalDate today) {
+        if (HIGH_PRIORITY.equals(counter) && !today.toString().equals(shard.getString(HIGH_PRIORITY_DAY))) {
+            return 0;
+        }
+        Long value = shard.getLong(counter);
+        return value != null ? value : 0;
+    }
+
+    private static long sum(List<DocumentSnapshot> shards, String counter, LocalDate today) {
+        long total = 0;
+        for (DocumentSnapshot shard : shards) {
+            total += valueOf(shard, counter, today);
+        }
+        return total;
+    }
+}
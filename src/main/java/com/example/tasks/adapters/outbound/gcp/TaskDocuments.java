@@ -0,0 +1,218 @@
+package com.example.tasks.adapters.outbound.gcp;
+
+import com.example.tasks.adapters.outbound.DescriptionHash;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import com.example.tasks.domain.exception.TaskDomainException;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.AggregateQuery;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Filter;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The task documents and the queries over them, shared by the blocking and
+ * the async Firestore adapters.
+ */
+final class TaskDocuments {
+
+    static final String COLLECTION = "tasks";
+
+    private TaskDocuments() {
+    }
+
+    static Map<String, Object> toData(Task task) {
+        return Map.of(
+            "id", task.getId().value(),
+            "userId", task.getUserId().value(),
+            "description", task.getDescription(),
+            "descriptionHash", DescriptionHash.of(task.getDescription()).toHex(),
+            "priority", task.getPriority().name(),
+            "status", task.getStatus().name(),
+            "createdAt", timestamp(task.getCreatedAt()),
+            "updatedAt", timestamp(task.getUpdatedAt())
+        );
+    }
+
+    static Task toTask(DocumentSnapshot document) {
+        return Task.reconstitute(
+            TaskId.of(document.getString("id")),
+            UserId.of(document.getString("userId")),
+            document.getString("description"),
+            Priority.valueOf(document.getString("priority")),
+            Status.valueOf(document.getString("status")),
+            localDateTime(document.get("createdAt")),
+            localDateTime(document.get("updatedAt"))
+        );
+    }
+
+    /**
+     * The fields the patch changed, plus updatedAt, for a field-mask update
+     * of {@code stored}. A createdAt still stored as text is rewritten as a
+     * Timestamp, and a missing descriptionHash is added, so documents migrate
+     * as they are updated.
+     */
+    static Map<String, Object> changedFields(TaskPatch patch, DocumentSnapshot stored) {
+        Task task = patch.task();
+        Map<String, Object> fields = new HashMap<>();
+        if (patch.changes(TaskPatch.Field.DESCRIPTION) || !stored.contains("descriptionHash")) {
+            fields.put("description", task.getDescription());
+            fields.put("descriptionHash", DescriptionHash.of(task.getDescription()).toHex());
+        }
+        if (patch.changes(TaskPatch.Field.PRIORITY)) {
+            fields.put("priority", task.getPriority().name());
+        }
+        if (patch.changes(TaskPatch.Field.STATUS)) {
+            fields.put("status", task.getStatus().name());
+        }
+        fields.put("updatedAt", timestamp(task.getUpdatedAt()));
+        if (!(stored.get("createdAt") instanceof Timestamp)) {
+            fields.put("createdAt", timestamp(task.getCreatedAt()));
+        }
+        return fields;
+    }
+
+    /**
+     * The times a document still stores as ISO-8601 text, rewritten as
+     * Timestamps, for the {@link TaskTimestampBackfill}.
+     */
+    static Map<String, Object> timestampFields(DocumentSnapshot stored) {
+        Map<String, Object> fields = new HashMap<>();
+        for (String field : new String[] {"createdAt", "updatedAt"}) {
+            if (stored.get(field) instanceof String text) {
+                fields.put(field, timestamp(LocalDateTime.parse(text)));
+            }
+        }
+        return fields;
+    }
+
+    // Ranges and ordering on createdAt see Timestamps only: documents still
+    // holding text are left to the TaskTimestampBackfill
+    static Query pageAfter(CollectionReference tasks, UserId userId, TaskQuery query, TaskCursor after, int size) {
+        Query.Direction direction = query.isNewestFirst() ? Query.Direction.DESCENDING : Query.Direction.ASCENDING;
+        Query firestoreQuery = tasks.whereEqualTo("userId", userId.value());
+        if (query.status() != null) {
+            firestoreQuery = firestoreQuery.whereEqualTo("status", query.status().name());
+        }
+        if (query.priority() != null) {
+            firestoreQuery = firestoreQuery.whereEqualTo("priority", query.priority().name());
+        }
+        if (query.createdFrom() != null) {
+            firestoreQuery = firestoreQuery.whereGreaterThanOrEqualTo("createdAt", startOf(query.createdFrom()));
+        }
+        if (query.createdTo() != null) {
+            firestoreQuery = firestoreQuery.whereLessThan("createdAt", startOf(query.createdTo().plusDays(1)));
+        }
+
+        // Documents are keyed by task id, which breaks createdAt ties; the
+        // composite indexes order by document id implicitly
+        firestoreQuery = firestoreQuery
+            .orderBy("createdAt", direction)
+            .orderBy(FieldPath.documentId(), direction)
+            .limit(size);
+        if (after != null) {
+            firestoreQuery = firestoreQuery.startAfter(timestamp(after.createdAt()), after.taskId().value());
+        }
+        return firestoreQuery;
+    }
+
+    /**
+     * Tasks of the user's day with the description, looked up by its 128-bit
+     * hash rather than by the text: at most one match, masked down to the
+     * description, which {@link #hasDescription} compares on a hit. The day
+     * is half-open, [midnight, next midnight). Documents from before the hash
+     * and Timestamp fields are matched by their text fields until migrated.
+     */
+    static Query withDescriptionOn(CollectionReference tasks, UserId userId, LocalDate date, String description) {
+        return tasks
+            .where(Filter.and(
+                Filter.equalTo("userId", userId.value()),
+                Filter.or(
+                    Filter.and(
+                        Filter.equalTo("descriptionHash", DescriptionHash.of(description).toHex()),
+                        Filter.greaterThanOrEqualTo("createdAt", startOf(date)),
+                        Filter.lessThan("createdAt", startOf(date.plusDays(1)))),
+                    Filter.and(
+                        Filter.equalTo("description", DescriptionHash.normalize(description)),
+                        Filter.greaterThanOrEqualTo("createdAt", date.atStartOfDay().toString()),
+                        Filter.lessThan("createdAt", date.plusDays(1).atStartOfDay().toString())))))
+            .select("description")
+            .limit(1);
+    }
+
+    /** The user's open tasks, counted without reading them, to seed the counters. */
+    static AggregateQuery countOpen(CollectionReference tasks, UserId userId) {
+        return tasks
+            .whereEqualTo("userId", userId.value())
+            .whereEqualTo("status", Status.OPEN.name())
+            .count();
+    }
+
+    /**
+     * The user's high-priority tasks created on the day, counted without
+     * reading them, whichever format their createdAt is stored in.
+     */
+    static AggregateQuery countHighPriorityOn(CollectionReference tasks, UserId userId, LocalDate date) {
+        return tasks
+            .where(Filter.and(
+                Filter.equalTo("userId", userId.value()),
+                Filter.equalTo("priority", Priority.HIGH.name()),
+                Filter.or(
+                    Filter.and(
+                        Filter.greaterThanOrEqualTo("createdAt", startOf(date)),
+                        Filter.lessThan("createdAt", startOf(date.plusDays(1)))),
+                    Filter.and(
+                        Filter.greaterThanOrEqualTo("createdAt", date.atStartOfDay().toString()),
+                        Filter.lessThan("createdAt", date.plusDays(1).atStartOfDay().toString())))))
+            .count();
+    }
+
+    static boolean hasDescription(QuerySnapshot matches, String description) {
+        return matches.getDocuments().stream()
+            .anyMatch(document -> DescriptionHash.sameDescription(document.getString("description"), description));
+    }
+
+    // Domain exceptions thrown inside a transaction come back as the cause of its failure
+    static RuntimeException domainExceptionOr(Throwable e, String message) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TaskDomainException || cause instanceof TaskBusinessRuleException) {
+                return (RuntimeException) cause;
+            }
+        }
+        return new RuntimeException(message, e);
+    }
+
+    // Task times carry no zone: they are pinned to UTC both ways, so a local
+    // day maps to the same Timestamp range it is queried with
+    static Timestamp timestamp(LocalDateTime time) {
+        return Timestamp.ofTimeSecondsAndNanos(time.toEpochSecond(ZoneOffset.UTC), time.getNano());
+    }
+
+    // Documents written before the Timestamp fields hold ISO-8601 text
+    static LocalDateTime localDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return LocalDateTime.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos(), ZoneOffset.UTC);
+        }
+        return LocalDateTime.parse((String) value);
+    }
+
+    private static Timestamp startOf(LocalDate date) {
+        return timestamp(date.atStartOfDay());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.tasks.adapters.outbound.gcp;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * One-off migration of the task documents that still store their times as
+ * ISO-8601 text, from before the Timestamp fields. Firestore ranges and
+ * ordering only compare values of one type, so until it has run such tasks
+ * are missing from createdAt-filtered pages and sort after every other task
+ * in listings. It runs at startup with tasks.gcp.backfill-timestamps=true,
+ * in batches of {@link #BATCH_SIZE}, and can be rerun, since migrated
+ * documents no longer match its query.
+ */
+@Component
+@Profile("gcp")
+@ConditionalOnProperty(name = "tasks.gcp.backfill-timestamps", havingValue = "true")
+public class TaskTimestampBackfill implements ApplicationRunner {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(TaskTimestampBackfill.class);
+
+    private final Firestore firestore;
+
+    public TaskTimestampBackfill(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Migrated {} task documents to Timestamp fields", backfill());
+    }
+
+    /** Rewrites every text createdAt and updatedAt as a Timestamp, returning how many documents changed. */
+    long backfill() {
+        long migrated = 0;
+        try {
+            while (true) {
+                // An inequality on text matches text values only, so the query finds the legacy documents
+                List<QueryDocumentSnapshot> legacy = firestore.collection(TaskDocuments.COLLECTION)
+                    .whereGreaterThanOrEqualTo("createdAt", "")
+                    .limit(BATCH_SIZE)
+                    .get().get().getDocuments();
+                if (legacy.isEmpty()) {
+                    return migrated;
+                }
+                WriteBatch batch = firestore.batch();
+                for (QueryDocumentSnapshot document : legacy) {
+                    batch.update(document.getReference(), TaskDocuments.timestampFields(document),
+                        Precondition.updatedAt(document.getUpdateTime()));
+                }
+                try {
+                    batch.commit().get();
+                    migrated += legacy.size();
+                } catch (ExecutionException e) {
+                    if (!updatedSinceRead(e)) {
+                        throw e;
+                    }
+                    // The update migrated the task already, and the next query leaves it out
+                    log.debug("Retrying a backfill batch that raced a task update", e);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Failed to backfill task timestamps", e);
+        }
+    }
+
+    // A task updated since the read fails its precondition, and with it the whole batch
+    private static boolean updatedSinceRead(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException api && api.getStatusCode().getCode() == StatusCode.Code.FAILED_PRECONDITION) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Column-oriented storage that keeps no per-task objects besides the
+ * description string. Every field lives in a fixed-size slab of a primitive
+ * array, indexed by a slot number:
+ * <ul>
+ *   <li>task id as the two longs of its UUID</li>
+ *   <li>user id as an int ordinal into a dictionary of distinct users</li>
+ *   <li>priority and status as byte ordinals</li>
+ *   <li>timestamps as {@link EpochNanos}</li>
+ * </ul>
+ * Ids are located through an open-addressing hash table of slot numbers.
+ * {@link Task} instances are only materialized when read.
+ *
+ * Writers are serialized by a single lock; readers share it.
+ */
+final class CompactTaskStore implements TaskStore {
+
+    private static final int SLAB_SHIFT = 16;
+    private static final int SLAB_SIZE = 1 << SLAB_SHIFT;
+    private static final int SLAB_MASK = SLAB_SIZE - 1;
+    private static final int INITIAL_TABLE_SIZE = 1 << 10;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[][] idHigh = new long[0][];
+    private long[][] idLow = new long[0][];
+    private int[][] userOrdinal = new int[0][];
+    private byte[][] priority = new byte[0][];
+    private byte[][] status = new byte[0][];
+    private long[][] createdAt = new long[0][];
+    private long[][] updatedAt = new long[0][];
+    private String[][] description = new String[0][];
+
+    private int allocatedSlots;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int size;
+
+    // Slot number + 1 per bucket, 0 marks an empty bucket; linear probing
+    private int[] table = new int[INITIAL_TABLE_SIZE];
+
+    private final Map<String, Integer> userOrdinals = new HashMap<>();
+    private final List<UserId> users = new ArrayList<>();
+
+    @Override
+    public Task get(TaskId id) {
+        UUID uuid = UUID.fromString(id.value());
+        lock.readLock().lock();
+        try {
+            int bucket = findBucket(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            return bucket < 0 ? null : materialize(table[bucket] - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void compute(TaskId id, UnaryOperator<Task> remapping) {
+        UUID uuid = UUID.fromString(id.value());
+        long high = uuid.getMostSignificantBits();
+        long low = uuid.getLeastSignificantBits();
+
+        lock.writeLock().lock();
+        try {
+            int bucket = findBucket(high, low);
+            Task current = bucket < 0 ? null : materialize(table[bucket] - 1);
+            Task updated = remapping.apply(current);
+
+            if (updated == null) {
+                if (bucket >= 0) {
+                    release(bucket);
+                }
+            } else if (bucket >= 0) {
+                write(table[bucket] - 1, updated);
+            } else {
+                int slot = allocate();
+                idHigh[slot >>> SLAB_SHIFT][slot & SLAB_MASK] = high;
+                idLow[slot >>> SLAB_SHIFT][slot & SLAB_MASK] = low;
+                write(slot, updated);
+                insert(slot, high, low);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Task> action) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < allocatedSlots; slot++) {
+                // Released slots are recognizable by their cleared description
+                if (description[slot >>> SLAB_SHIFT][slot & SLAB_MASK] != null) {
+                    action.accept(materialize(slot));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(table, 0);
+            for (String[] slab : description) {
+                Arrays.fill(slab, null);
+            }
+            freeSlotCount = 0;
+            allocatedSlots = 0;
+            size = 0;
+            userOrdinals.clear();
+            users.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Distinct users in the dictionary, for tests
+    int userCount() {
+        lock.readLock().lock();
+        try {
+            return users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Task materialize(int slot) {
+        int slab = slot >>> SLAB_SHIFT;
+        int offset = slot & SLAB_MASK;
+        return Task.reconstitute(
+                TaskId.of(new UUID(idHigh[slab][offset], idLow[slab][offset]).toString()),
+                users.get(userOrdinal[slab][offset]),
+                description[slab][offset],
+                PRIORITIES[priority[slab][offset]],
+                STATUSES[status[slab][offset]],
+                EpochNanos.toLocalDateTime(createdAt[slab][offset]),
+                EpochNanos.toLocalDateTime(updatedAt[slab][offset]));
+    }
+
+    private void write(int slot, Task task) {
+        int slab = slot >>> SLAB_SHIFT;
+        int offset = slot & SLAB_MASK;
+        userOrdinal[slab][offset] = ordinalOf(task.getUserId());
+        description[slab][offset] = task.getDescription();
+        priority[slab][offset] = (byte) task.getPriority().ordinal();
+        status[slab][offset] = (byte) task.getStatus().ordinal();
+        createdAt[slab][offset] = EpochNanos.of(task.getCreatedAt());
+        updatedAt[slab][offset] = EpochNanos.of(task.getUpdatedAt());
+    }
+
+    private int ordinalOf(UserId userId) {
+        return userOrdinals.computeIfAbsent(userId.value(), value -> {
+            users.add(userId);
+            return users.size() - 1;
+        });
+    }
+
+    private int allocate() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        int slot = allocatedSlots++;
+        if ((slot >>> SLAB_SHIFT) == description.length) {
+            addSlab();
+        }
+        return slot;
+    }
+
+    private void addSlab() {
+        int slabs = description.length + 1;
+        idHigh = Arrays.copyOf(idHigh, slabs);
+        idLow = Arrays.copyOf(idLow, slabs);
+        userOrdinal = Arrays.copyOf(userOrdinal, slabs);
+        priority = Arrays.copyOf(priority, slabs);
+        status = Arrays.copyOf(status, slabs);
+        createdAt = Arrays.copyOf(createdAt, slabs);
+        updatedAt = Arrays.copyOf(updatedAt, slabs);
+        description = Arrays.copyOf(description, slabs);
+
+        int last = slabs - 1;
+        idHigh[last] = new long[SLAB_SIZE];
+        idLow[last] = new long[SLAB_SIZE];
+        userOrdinal[last] = new int[SLAB_SIZE];
+        priority[last] = new byte[SLAB_SIZE];
+        status[last] = new byte[SLAB_SIZE];
+        createdAt[last] = new long[SLAB_SIZE];
+        updatedAt[last] = new long[SLAB_SIZE];
+        description[last] = new String[SLAB_SIZE];
+    }
+
+    private void release(int bucket) {
+        int slot = table[bucket] - 1;
+        description[slot >>> SLAB_SHIFT][slot & SLAB_MASK] = null;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+        removeBucket(bucket);
+        size--;
+    }
+
+    private int findBucket(long high, long low) {
+        int mask = table.length - 1;
+        for (int bucket = hash(high, low) & mask; table[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int slot = table[bucket] - 1;
+            if (idHigh[slot >>> SLAB_SHIFT][slot & SLAB_MASK] == high
+                    && idLow[slot >>> SLAB_SHIFT][slot & SLAB_MASK] == low) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int slot, long high, long low) {
+        if (++size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        int bucket = hash(high, low) & mask;
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = slot + 1;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void removeBucket(int bucket) {
+        int mask = table.length - 1;
+        int hole = bucket;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int slot = table[next] - 1;
+            int home = hash(idHigh[slot >>> SLAB_SHIFT][slot & SLAB_MASK], idLow[slot >>> SLAB_SHIFT][slot & SLAB_MASK]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void rehash(int newSize) {
+        int[] old = table;
+        table = new int[newSize];
+        int mask = newSize - 1;
+        for (int entry : old) {
+            if (entry != 0) {
+                int slot = entry - 1;
+                int bucket = hash(idHigh[slot >>> SLAB_SHIFT][slot & SLAB_MASK], idLow[slot >>> SLAB_SHIFT][slot & SLAB_MASK]) & mask;
+                while (table[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                table[bucket] = entry;
+            }
+        }
+    }
+
+    private static int hash(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L ^ low;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.tasks.adapters.outbound.local;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Packs a {@link LocalDateTime} into a single long of nanoseconds since the
+ * epoch (read as UTC), preserving full precision for years 1678 to 2261.
+ */
+final class EpochNanos {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private EpochNanos() {}
+
+    static long of(LocalDateTime dateTime) {
+        return Math.addExact(
+                Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                dateTime.getNano());
+    }
+
+    static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(epochNanos, NANOS_PER_SECOND),
+                ZoneOffset.UTC);
+    }
+}
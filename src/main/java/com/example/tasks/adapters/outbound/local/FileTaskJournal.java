@@ -0,0 +1,392 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log plus periodic snapshots in a local directory.
+ *
+ * Every change is appended to the current {@code wal-<generation>.log} as
+ * {@code [length][crc32c][type][payload]}. A snapshot first rotates to a new
+ * generation, then writes every live task to {@code snapshot-<generation>.dat}
+ * and drops the older files. Because records carry full task state, replaying
+ * the log tail over a snapshot taken while writes continued converges on the
+ * same state. Recovery memory-maps the latest snapshot, replays the remaining
+ * logs and stops at the first torn record.
+ *
+ * With {@link FsyncPolicy#ALWAYS} writers wait for their record to be forced to
+ * disk; concurrent writers share a single force (group commit).
+ */
+final class FileTaskJournal implements TaskJournal {
+
+    enum FsyncPolicy {
+        /** Every write waits until it is on disk, fsyncs are batched across writers. */
+        ALWAYS,
+        /** The log is forced in the background at a fixed interval. */
+        INTERVAL,
+        /** Flushing is left to the operating system. */
+        NEVER
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(FileTaskJournal.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("(wal|snapshot)-(\\d+)\\.(log|dat)");
+    private static final int SNAPSHOT_MAGIC = 0x54534B53;
+    private static final byte SAVED = 1;
+    private static final byte DELETED = 2;
+    private static final int RECORD_HEADER = Integer.BYTES * 2;
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final Duration fsyncInterval;
+    private final Duration snapshotInterval;
+
+    // Writers share the gate; rotation takes it exclusively so that every record
+    // of a finished generation has also been applied in memory
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    private ScheduledExecutorService scheduler;
+    private Consumer<Consumer<Task>> liveTasks;
+    private FileChannel wal;
+    private long generation;
+    private long snapshotPosition;
+    private volatile long writtenPosition;
+    private volatile long durablePosition;
+
+    FileTaskJournal(Path directory, FsyncPolicy fsyncPolicy, Duration fsyncInterval, Duration snapshotInterval) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncInterval = fsyncInterval;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void recover(Changes target) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = journalFiles();
+            long snapshotGeneration = files.stream()
+                    .filter(file -> file.getFileName().toString().startsWith("snapshot-"))
+                    .mapToLong(FileTaskJournal::generationOf)
+                    .max()
+                    .orElse(-1);
+
+            if (snapshotGeneration >= 0) {
+                loadSnapshot(snapshotFile(snapshotGeneration), target);
+            }
+            for (Path file : files) {
+                if (file.getFileName().toString().startsWith("wal-") && generationOf(file) >= snapshotGeneration) {
+                    replayLog(file, target);
+                }
+            }
+            generation = files.stream().mapToLong(FileTaskJournal::generationOf).max().orElse(0) + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover task journal from " + directory, e);
+        }
+    }
+
+    @Override
+    public void start(Consumer<Consumer<Task>> liveTasks) {
+        this.liveTasks = liveTasks;
+        try {
+            wal = openLog(generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open task journal in " + directory, e);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            long millis = fsyncInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::forceQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+        long millis = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long record(Consumer<Changes> mutation) {
+        gate.readLock().lock();
+        try {
+            LogAppender appender = new LogAppender();
+            mutation.accept(appender);
+            return appender.end;
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS || durablePosition >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            // Whoever gets here first forces everything appended so far, which
+            // usually covers the writers queued behind it as well
+            if (durablePosition < position) {
+                force();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            snapshot();
+            synchronized (syncLock) {
+                force();
+                wal.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close task journal", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void snapshot() throws IOException {
+        long snapshotGeneration;
+        gate.writeLock().lock();
+        try {
+            if (writtenPosition == snapshotPosition) {
+                return;
+            }
+            snapshotPosition = writtenPosition;
+            snapshotGeneration = rotate();
+        } finally {
+            gate.writeLock().unlock();
+        }
+
+        Path target = snapshotFile(snapshotGeneration);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            long[] count = {0};
+            liveTasks.accept(task -> {
+                try {
+                    out.writeByte(SAVED);
+                    TaskCodec.write(task, out);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.writeByte(0);
+            out.writeLong(count[0]);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path file : journalFiles()) {
+            if (generationOf(file) < snapshotGeneration) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private long rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                force();
+                wal.close();
+                generation++;
+                wal = openLog(generation);
+                return generation;
+            }
+        }
+    }
+
+    private long append(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        synchronized (appendLock) {
+            try {
+                while (record.hasRemaining()) {
+                    wal.write(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to append to task journal", e);
+            }
+            writtenPosition += record.limit();
+            return writtenPosition;
+        }
+    }
+
+    // Callers hold syncLock
+    private void force() {
+        long target = writtenPosition;
+        try {
+            wal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sync task journal", e);
+        }
+        durablePosition = target;
+    }
+
+    private void forceQuietly() {
+        synchronized (syncLock) {
+            try {
+                force();
+            } catch (UncheckedIOException e) {
+                log.warn("Periodic sync of task journal failed", e);
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Task journal snapshot failed", e);
+        }
+    }
+
+    private void loadSnapshot(Path file, Changes target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            long count = 0;
+            while (buffer.get() == SAVED) {
+                target.saved(TaskCodec.read(buffer));
+                count++;
+            }
+            if (buffer.getLong() != count) {
+                throw new IOException("Task snapshot is inconsistent: " + file);
+            }
+        }
+    }
+
+    private void replayLog(Path file, Changes target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C crc = new CRC32C();
+            while (buffer.remaining() >= RECORD_HEADER) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    log.warn("Ignoring torn record at the end of {}", file);
+                    return;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Ignoring corrupt record at the end of {}", file);
+                    return;
+                }
+                buffer.position(buffer.position() + length);
+                if (payload.get() == SAVED) {
+                    target.saved(TaskCodec.read(payload));
+                } else {
+                    target.deleted(TaskCodec.readId(payload));
+                }
+            }
+        }
+    }
+
+    private FileChannel openLog(long logGeneration) throws IOException {
+        return FileChannel.open(directory.resolve("wal-%020d.log".formatted(logGeneration)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path snapshotFile(long snapshotGeneration) {
+        return directory.resolve("snapshot-%020d.dat".formatted(snapshotGeneration));
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long generationOf(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a journal file: " + file);
+        }
+        return Long.parseLong(matcher.group(2));
+    }
+
+    private final class LogAppender implements Changes {
+
+        private long end;
+
+        @Override
+        public void saved(Task task) {
+            end = append(encode(SAVED, out -> TaskCodec.write(task, out)));
+        }
+
+        @Override
+        public void deleted(TaskId id) {
+            end = append(encode(DELETED, out -> TaskCodec.writeId(id, out)));
+        }
+
+        private byte[] encode(byte type, PayloadWriter writer) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeByte(type);
+                writer.write(out);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.application.port.outbound.AsyncTaskRepositoryPort;
+import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The async port over a repository in this process. Its calls never wait on
+ * a network, so each runs on the caller's thread and hands back a future that
+ * is already complete; a thrown exception becomes a failed future, as a
+ * remote store's error would.
+ */
+public class ImmediateAsyncTaskAdapter implements AsyncTaskRepositoryPort {
+
+    private final TaskRepositoryPort repository;
+
+    public ImmediateAsyncTaskAdapter(TaskRepositoryPort repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public CompletableFuture<Task> save(Task task) {
+        return completed(() -> repository.save(task));
+    }
+
+    @Override
+    public CompletableFuture<Task> save(TaskPatch patch) {
+        return completed(() -> repository.save(patch));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Task>> findById(TaskId id) {
+        return completed(() -> repository.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteById(TaskId id) {
+        return completed(() -> {
+            repository.deleteById(id);
+            return null;
+        });
+    }
+
+    // The owned-task operations keep the repository's own atomicity, e.g. a shard's single thread
+    @Override
+    public CompletableFuture<Task> updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        return completed(() -> repository.updateOwnedTask(id, userId, update, updatedTime));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteOwnedTask(TaskId id, UserId userId) {
+        return completed(() -> {
+            repository.deleteOwnedTask(id, userId);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<TaskPage> findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        return completed(() -> repository.findByUserIdAfter(userId, query, after, size));
+    }
+
+    @Override
+    public boolean enforcesCreationQuotas() {
+        return repository.enforcesCreationQuotas();
+    }
+
+    @Override
+    public boolean enforcesUniqueDescriptions() {
+        return repository.enforcesUniqueDescriptions();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        return completed(() -> repository.existsByUserAndDateAndDescription(userId, date, description));
+    }
+
+    @Override
+    public CompletableFuture<Long> countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        return completed(() -> repository.countHighPriorityTasksForUserOnDate(userId, date));
+    }
+
+    @Override
+    public CompletableFuture<Long> countOpenTasksForUser(UserId userId) {
+        return completed(() -> repository.countOpenTasksForUser(userId));
+    }
+
+    @Override
+    public CompletableFuture<CreationContext> creationContext(UserId userId, LocalDate date, String description) {
+        return completed(() -> repository.creationContext(userId, date, description));
+    }
+
+    private static <T> CompletableFuture<T> completed(Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -1,84 +1,228 @@
 package com.example.tasks.adapters.outbound.local;
 
 import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
 import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
 import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
 import com.example.tasks.domain.UserId;
-import org.springframework.context.annotation.Profile;
-import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
-@Repository
-@Profile("local")
 public class InMemoryTaskRepository implements TaskRepositoryPort {
 
-    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+    static final Duration DEFAULT_SNAPSHOT_LEASE = Duration.ofSeconds(30);
+
+    private final TaskStore tasks;
+    private final TaskJournal journal;
+    private final long snapshotLeaseNanos;
+    private final LongSupplier nanoClock;
+
+    // Every write to a user index takes the next version; snapshots pin one
+    private final AtomicLong versions = new AtomicLong();
+
+    // Secondary indexes and rule aggregates per user. Mutations of one user's
+    // index are serialized through compute() on this map; reads are lock-free.
+    private final Map<UserId, UserTaskIndex> tasksByUser = new ConcurrentHashMap<>();
+
+    public InMemoryTaskRepository() {
+        this(new ObjectTaskStore());
+    }
+
+    InMemoryTaskRepository(TaskStore tasks) {
+        this(tasks, TaskJournal.NONE);
+    }
+
+    InMemoryTaskRepository(TaskStore tasks, TaskJournal journal) {
+        this(tasks, journal, DEFAULT_SNAPSHOT_LEASE, System::nanoTime);
+    }
+
+    InMemoryTaskRepository(TaskStore tasks, TaskJournal journal, Duration snapshotLease, LongSupplier nanoClock) {
+        this.tasks = tasks;
+        this.journal = journal;
+        this.snapshotLeaseNanos = snapshotLease.toNanos();
+        this.nanoClock = nanoClock;
+        journal.recover(new TaskJournal.Changes() {
+            @Override
+            public void saved(Task task) {
+                apply(task, TaskJournal.Changes.IGNORED);
+            }
+
+            @Override
+            public void deleted(TaskId id) {
+                remove(id, TaskJournal.Changes.IGNORED);
+            }
+        });
+        journal.start(tasks::forEach);
+    }
 
     @Override
     public Task save(Task task) {
-        tasks.put(task.getId().value(), task);
+        long position = journal.record(changes -> apply(task, changes));
+        journal.awaitDurable(position);
         return task;
     }
 
     @Override
     public Optional<Task> findById(TaskId id) {
-        return Optional.ofNullable(tasks.get(id.value()));
+        return Optional.ofNullable(tasks.get(id));
     }
 
     @Override
     public List<Task> findByUserId(UserId userId, int page, int size) {
-        return tasks.values().stream()
-                .filter(task -> task.belongsTo(userId))
-                .sorted((t1, t2) -> t2.getCreatedAt().compareTo(t1.getCreatedAt()))
+        UserTaskIndex userTasks = tasksByUser.get(userId);
+        if (userTasks == null) {
+            return List.of();
+        }
+        return userTasks.newestFirst(tasks::get)
+                .skip((long) page * size)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Serves the page from a pinned snapshot of the user's listing, so that
+     * writes between two page reads neither shift nor duplicate rows. Each
+     * read renews the snapshot's lease; a snapshot whose lease ran out is
+     * replaced by a fresh one, which the returned version reveals.
+     */
+    @Override
+    public TaskPage findByUserId(UserId userId, int page, int size, Long readVersion) {
+        long[] snapshot = new long[1];
+        // Pinning is serialized with the user's writers, so every write at or
+        // below the pinned version is already in the index
+        UserTaskIndex userTasks = tasksByUser.computeIfPresent(userId, (id, index) -> {
+            snapshot[0] = index.pin(readVersion, versions.get(), snapshotLeaseNanos);
+            return index;
+        });
+        if (userTasks == null) {
+            return TaskPage.of(List.of(), size);
+        }
+        List<Task> tasksAtSnapshot = userTasks.newestFirstAt(snapshot[0], tasks::get)
                 .skip((long) page * size)
                 .limit(size)
                 .collect(Collectors.toList());
+        return TaskPage.of(tasksAtSnapshot, size, snapshot[0]);
+    }
+
+    @Override
+    public TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        UserTaskIndex userTasks = tasksByUser.get(userId);
+        if (userTasks == null) {
+            return TaskPage.of(List.of(), size);
+        }
+        TaskOrder from = after != null ? TaskOrder.of(after.createdAt(), after.taskId()) : null;
+        return TaskPage.of(userTasks.list(query, from, tasks::get)
+                .limit(size)
+                .collect(Collectors.toList()), size);
     }
 
     @Override
     public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
-        return tasks.values().stream()
-                .anyMatch(task ->
-                    task.belongsTo(userId) &&
-                    task.wasCreatedOn(date) &&
-                    task.getDescription().equals(description)
-                );
+        UserTaskIndex userTasks = tasksByUser.get(userId);
+        return userTasks != null && userTasks.containsDescription(date, description, tasks::get);
     }
 
     @Override
     public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
-        return tasks.values().stream()
-                .filter(task ->
-                    task.belongsTo(userId) &&
-                    task.wasCreatedOn(date) &&
-                    task.isHighPriority()
-                )
-                .count();
+        UserTaskIndex userTasks = tasksByUser.get(userId);
+        return userTasks != null ? userTasks.countHighPriorityTasksOn(date) : 0;
     }
 
     @Override
     public long countOpenTasksForUser(UserId userId) {
-        return tasks.values().stream()
-                .filter(task -> task.belongsTo(userId) && task.isOpen())
-                .count();
+        UserTaskIndex userTasks = tasksByUser.get(userId);
+        return userTasks != null ? userTasks.countOpenTasks() : 0;
+    }
+
+    // One lookup of the user's index answers all three rule queries
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        UserTaskIndex userTasks = tasksByUser.get(userId);
+        if (userTasks == null) {
+            return new CreationContext(false, 0, 0);
+        }
+        return new CreationContext(userTasks.containsDescription(date, description, tasks::get),
+            userTasks.countHighPriorityTasksOn(date), userTasks.countOpenTasks());
     }
 
     @Override
     public void deleteById(TaskId id) {
-        tasks.remove(id.value());
+        long position = journal.record(changes -> remove(id, changes));
+        journal.awaitDurable(position);
     }
 
     public void clear() {
         tasks.clear();
+        tasksByUser.clear();
     }
 
     public int size() {
         return tasks.size();
     }
+
+    int retainedVersions() {
+        return tasksByUser.values().stream().mapToInt(UserTaskIndex::retainedVersions).sum();
+    }
+
+    public void close() {
+        journal.close();
+    }
+
+    private void apply(Task task, TaskJournal.Changes changes) {
+        tasks.compute(task.getId(), previous -> {
+            changes.saved(task);
+            if (previous != null && previous.getUserId().equals(task.getUserId())) {
+                reindex(previous, task);
+            } else {
+                if (previous != null) {
+                    unindex(previous);
+                }
+                index(task);
+            }
+            return task;
+        });
+    }
+
+    private void remove(TaskId id, TaskJournal.Changes changes) {
+        tasks.compute(id, previous -> {
+            if (previous != null) {
+                changes.deleted(id);
+                unindex(previous);
+            }
+            return null;
+        });
+    }
+
+    private void index(Task task) {
+        tasksByUser.compute(task.getUserId(), (userId, userTasks) -> {
+            UserTaskIndex index = userTasks != null ? userTasks : new UserTaskIndex(nanoClock);
+            index.add(task, versions.incrementAndGet());
+            return index;
+        });
+    }
+
+    private void reindex(Task previous, Task task) {
+        tasksByUser.compute(task.getUserId(), (userId, userTasks) -> {
+            userTasks.replace(previous, task, versions.incrementAndGet());
+            return userTasks;
+        });
+    }
+
+    private void unindex(Task task) {
+        tasksByUser.computeIfPresent(task.getUserId(), (userId, userTasks) -> {
+            userTasks.remove(task, versions.incrementAndGet());
+            return userTasks.isEmpty() ? null : userTasks;
+        });
+    }
 }
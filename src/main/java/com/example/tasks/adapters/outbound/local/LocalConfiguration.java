@@ -0,0 +1,87 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.application.port.outbound.AsyncTaskRepositoryPort;
+import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@Profile("local")
+public class LocalConfiguration {
+
+    public enum Storage {
+        /** Tasks kept as the domain objects handed to the repository. */
+        OBJECTS,
+        /** Tasks packed into primitive slabs, materialized on read. */
+        COMPACT
+    }
+
+    public enum Engine {
+        /** One repository shared by all request threads. */
+        SHARED,
+        /** Users partitioned over shards, each driven by a single thread. */
+        SHARDED
+    }
+
+    @Value("${tasks.local.engine:SHARED}")
+    private Engine engine;
+
+    // 0 means one shard per available processor
+    @Value("${tasks.local.shards:0}")
+    private int shards;
+
+    // How long a pinned listing snapshot outlives its last page read
+    @Value("${tasks.local.snapshot-lease:30s}")
+    private Duration snapshotLease;
+
+    @Value("${tasks.local.storage:OBJECTS}")
+    private Storage storage;
+
+    @Value("${tasks.local.durability.enabled:false}")
+    private boolean durable;
+
+    @Value("${tasks.local.durability.directory:data/tasks}")
+    private Path directory;
+
+    @Value("${tasks.local.durability.fsync:ALWAYS}")
+    private FileTaskJournal.FsyncPolicy fsyncPolicy;
+
+    @Value("${tasks.local.durability.fsync-interval:100ms}")
+    private Duration fsyncInterval;
+
+    @Value("${tasks.local.durability.snapshot-interval:5m}")
+    private Duration snapshotInterval;
+
+    @Bean(destroyMethod = "close")
+    public TaskRepositoryPort localTaskRepository() {
+        return switch (engine) {
+            case SHARED -> new InMemoryTaskRepository(newStore(), durable
+                    ? new FileTaskJournal(directory, fsyncPolicy, fsyncInterval, snapshotInterval)
+                    : TaskJournal.NONE, snapshotLease, System::nanoTime);
+            case SHARDED -> {
+                if (durable) {
+                    throw new IllegalStateException("tasks.local.durability is not supported by the SHARDED engine");
+                }
+                yield new ShardedTaskRepository(
+                        shards > 0 ? shards : Runtime.getRuntime().availableProcessors(), this::newStore, snapshotLease);
+            }
+        };
+    }
+
+    @Bean
+    public AsyncTaskRepositoryPort localAsyncTaskRepository(TaskRepositoryPort localTaskRepository) {
+        return new ImmediateAsyncTaskAdapter(localTaskRepository);
+    }
+
+    private TaskStore newStore() {
+        return switch (storage) {
+            case OBJECTS -> new ObjectTaskStore();
+            case COMPACT -> new CompactTaskStore();
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Default storage: {@link Task} instances as handed to the repository.
+ */
+final class ObjectTaskStore implements TaskStore {
+
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+
+    @Override
+    public Task get(TaskId id) {
+        return tasks.get(id.value());
+    }
+
+    @Override
+    public void compute(TaskId id, UnaryOperator<Task> remapping) {
+        tasks.compute(id.value(), (key, current) -> remapping.apply(current));
+    }
+
+    @Override
+    public void forEach(Consumer<Task> action) {
+        tasks.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public void clear() {
+        tasks.clear();
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Local repository hash-partitioned by user into {@link TaskShard}s, each
+ * owned by a single thread that runs every mutation and rule query of its
+ * users in order, so that no two threads ever touch the same shard state.
+ * Saving a task the user's shard does not hold yet checks the creation rules
+ * in the same command as the insert, so nothing can land in between.
+ *
+ * Everything is routed by the owning user. Operations that only carry a task
+ * id ask every shard; the ownership checks ask the caller's shard, and only
+ * look further when the task is not there.
+ */
+public class ShardedTaskRepository implements TaskRepositoryPort {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final TaskShard[] shards;
+
+    ShardedTaskRepository(int shardCount, Supplier<TaskStore> stores) {
+        this(shardCount, stores, InMemoryTaskRepository.DEFAULT_SNAPSHOT_LEASE);
+    }
+
+    ShardedTaskRepository(int shardCount, Supplier<TaskStore> stores, Duration snapshotLease) {
+        shards = new TaskShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            InMemoryTaskRepository tasks = new InMemoryTaskRepository(
+                    stores.get(), TaskJournal.NONE, snapshotLease, System::nanoTime);
+            shards[i] = new TaskShard(i, tasks, QUEUE_CAPACITY);
+        }
+    }
+
+    public CompletableFuture<Task> saveAsync(Task task) {
+        TaskShard target = shardOf(task.getUserId());
+        return target.submit(tasks -> {
+            boolean inserted = tasks.findById(task.getId()).isEmpty();
+            if (inserted) {
+                LocalDate day = task.getCreatedAt().toLocalDate();
+                Task.validateCreationRules(task.getUserId(), task.getDescription(), task.getPriority(), day,
+                        tasks.creationContext(task.getUserId(), day, task.getDescription()));
+            }
+            tasks.save(task);
+            return inserted;
+        }).thenApply(inserted -> {
+            if (inserted) {
+                // It may have changed owner: queue its removal everywhere else. Commands run
+                // in order per shard, so any later call already finds the old copy gone
+                for (TaskShard shard : shards) {
+                    if (shard != target) {
+                        shard.submit(tasks -> {
+                            tasks.deleteById(task.getId());
+                            return null;
+                        });
+                    }
+                }
+            }
+            return task;
+        });
+    }
+
+    public CompletableFuture<Optional<Task>> findByIdAsync(TaskId id) {
+        List<CompletableFuture<Optional<Task>>> found = Arrays.stream(shards)
+                .map(shard -> shard.submit(tasks -> tasks.findById(id)))
+                .toList();
+        return CompletableFuture.allOf(found.toArray(CompletableFuture[]::new))
+                .thenApply(done -> found.stream()
+                        .map(CompletableFuture::join)
+                        .flatMap(Optional::stream)
+                        .findFirst());
+    }
+
+    public CompletableFuture<Void> deleteByIdAsync(TaskId id) {
+        return CompletableFuture.allOf(Arrays.stream(shards)
+                .map(shard -> shard.submit(tasks -> {
+                    tasks.deleteById(id);
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public Task save(Task task) {
+        return await(saveAsync(task));
+    }
+
+    @Override
+    public Optional<Task> findById(TaskId id) {
+        return await(findByIdAsync(id));
+    }
+
+    @Override
+    public List<Task> findByUserId(UserId userId, int page, int size) {
+        return await(shardOf(userId).submit(tasks -> tasks.findByUserId(userId, page, size)));
+    }
+
+    // Versions are per shard, which is fine: a user's snapshots never leave its shard
+    @Override
+    public TaskPage findByUserId(UserId userId, int page, int size, Long readVersion) {
+        return await(shardOf(userId).submit(tasks -> tasks.findByUserId(userId, page, size, readVersion)));
+    }
+
+    @Override
+    public TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        return await(shardOf(userId).submit(tasks -> tasks.findByUserIdAfter(userId, query, after, size)));
+    }
+
+    @Override
+    public void deleteById(TaskId id) {
+        await(deleteByIdAsync(id));
+    }
+
+    // Check and write run as one command on the owning shard, so nothing interleaves
+    @Override
+    public Task updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        try {
+            return await(shardOf(userId).submit(tasks -> tasks.updateOwnedTask(id, userId, update, updatedTime)));
+        } catch (TaskNotFoundException e) {
+            throw notOnOwnShard(id, userId, e);
+        }
+    }
+
+    @Override
+    public void deleteOwnedTask(TaskId id, UserId userId) {
+        try {
+            await(shardOf(userId).submit(tasks -> {
+                tasks.deleteOwnedTask(id, userId);
+                return null;
+            }));
+        } catch (TaskNotFoundException e) {
+            throw notOnOwnShard(id, userId, e);
+        }
+    }
+
+    @Override
+    public boolean enforcesCreationQuotas() {
+        return true;
+    }
+
+    @Override
+    public boolean enforcesUniqueDescriptions() {
+        return true;
+    }
+
+    @Override
+    public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        return await(shardOf(userId).submit(tasks -> tasks.existsByUserAndDateAndDescription(userId, date, description)));
+    }
+
+    @Override
+    public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        return await(shardOf(userId).submit(tasks -> tasks.countHighPriorityTasksForUserOnDate(userId, date)));
+    }
+
+    @Override
+    public long countOpenTasksForUser(UserId userId) {
+        return await(shardOf(userId).submit(tasks -> tasks.countOpenTasksForUser(userId)));
+    }
+
+    // A single hop to the user's shard instead of one per question
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        return await(shardOf(userId).submit(tasks -> tasks.creationContext(userId, date, description)));
+    }
+
+    public void clear() {
+        Arrays.stream(shards)
+                .map(shard -> shard.submit(tasks -> {
+                    tasks.clear();
+                    return null;
+                }))
+                .toList()
+                .forEach(ShardedTaskRepository::await);
+    }
+
+    public int size() {
+        return Arrays.stream(shards)
+                .map(shard -> shard.submit(InMemoryTaskRepository::size))
+                .toList().stream()
+                .mapToInt(ShardedTaskRepository::await)
+                .sum();
+    }
+
+    public void close() {
+        for (TaskShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    // A task missing from the caller's shard may still exist on another user's
+    private RuntimeException notOnOwnShard(TaskId id, UserId userId, TaskNotFoundException notFound) {
+        findById(id).ifPresent(task -> task.ensureOwnership(userId));
+        return notFound;
+    }
+
+    private TaskShard shardOf(UserId userId) {
+        return shards[Math.floorMod(spread(userId.hashCode()), shards.length)];
+    }
+
+    // String hashes of similar ids differ mostly in the low bits; mix before reducing
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
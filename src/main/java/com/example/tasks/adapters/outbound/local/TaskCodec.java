@@ -0,0 +1,69 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Binary layout of a task in journal and snapshot files:
+ * id (2 longs), user id and description (int length + UTF-8), priority and
+ * status (byte ordinals), createdAt and updatedAt ({@link EpochNanos}).
+ */
+final class TaskCodec {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private TaskCodec() {}
+
+    static void write(Task task, DataOutput out) throws IOException {
+        writeId(task.getId(), out);
+        writeString(task.getUserId().value(), out);
+        writeString(task.getDescription(), out);
+        out.writeByte(task.getPriority().ordinal());
+        out.writeByte(task.getStatus().ordinal());
+        out.writeLong(EpochNanos.of(task.getCreatedAt()));
+        out.writeLong(EpochNanos.of(task.getUpdatedAt()));
+    }
+
+    static Task read(ByteBuffer in) {
+        return Task.reconstitute(
+                readId(in),
+                UserId.of(readString(in)),
+                readString(in),
+                PRIORITIES[in.get()],
+                STATUSES[in.get()],
+                EpochNanos.toLocalDateTime(in.getLong()),
+                EpochNanos.toLocalDateTime(in.getLong()));
+    }
+
+    static void writeId(TaskId id, DataOutput out) throws IOException {
+        UUID uuid = UUID.fromString(id.value());
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    static TaskId readId(ByteBuffer in) {
+        return TaskId.of(new UUID(in.getLong(), in.getLong()).toString());
+    }
+
+    private static void writeString(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
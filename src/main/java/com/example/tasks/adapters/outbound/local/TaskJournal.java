@@ -0,0 +1,70 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+
+import java.util.function.Consumer;
+
+/**
+ * Durability hook of the in-memory adapter. The repository runs every
+ * mutation through {@link #record}, appending the resulting change while it
+ * still holds the task's lock, and then waits for {@link #awaitDurable}
+ * outside of it.
+ */
+interface TaskJournal extends AutoCloseable {
+
+    TaskJournal NONE = new TaskJournal() {
+        @Override
+        public void recover(Changes target) {
+        }
+
+        @Override
+        public void start(Consumer<Consumer<Task>> liveTasks) {
+        }
+
+        @Override
+        public long record(Consumer<Changes> mutation) {
+            mutation.accept(Changes.IGNORED);
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    interface Changes {
+
+        Changes IGNORED = new Changes() {
+            @Override
+            public void saved(Task task) {
+            }
+
+            @Override
+            public void deleted(TaskId id) {
+            }
+        };
+
+        void saved(Task task);
+
+        void deleted(TaskId id);
+    }
+
+    /** Replays the persisted changes, oldest first. Called once before {@link #start}. */
+    void recover(Changes target);
+
+    /** Starts accepting writes; {@code liveTasks} enumerates the current state for snapshots. */
+    void start(Consumer<Consumer<Task>> liveTasks);
+
+    /** Runs {@code mutation} and returns the log position its changes end at. */
+    long record(Consumer<Changes> mutation);
+
+    void awaitDurable(long position);
+
+    @Override
+    void close();
+}
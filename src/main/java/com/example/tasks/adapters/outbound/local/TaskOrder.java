@@ -0,0 +1,42 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sort key of the per-user index: newest tasks first, task id as tie-breaker
+ * so that tasks created in the same instant never collide. Held as primitives
+ * so the index does not pin any part of the task graph.
+ */
+record TaskOrder(long createdAt, long idHigh, long idLow) implements Comparable<TaskOrder> {
+
+    static TaskOrder of(Task task) {
+        return of(task.getCreatedAt(), task.getId());
+    }
+
+    static TaskOrder of(LocalDateTime createdAt, TaskId taskId) {
+        UUID id = UUID.fromString(taskId.value());
+        return new TaskOrder(EpochNanos.of(createdAt), id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /** The first key, in listing order, of the tasks created at {@code createdAt}. */
+    static TaskOrder first(long createdAt) {
+        return new TaskOrder(createdAt, Long.MIN_VALUE, Long.MIN_VALUE);
+    }
+
+    TaskId taskId() {
+        return TaskId.of(new UUID(idHigh, idLow).toString());
+    }
+
+    @Override
+    public int compareTo(TaskOrder other) {
+        int result = Long.compare(other.createdAt, createdAt);
+        if (result == 0) {
+            result = Long.compare(idHigh, other.idHigh);
+        }
+        return result != 0 ? result : Long.compare(idLow, other.idLow);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.tasks.adapters.outbound.local;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * One partition of {@link ShardedTaskRepository}: a private
+ * {@link InMemoryTaskRepository} that only its event-loop thread touches.
+ * Callers enqueue commands on a bounded queue, which blocks them when the
+ * shard falls behind, and receive the result through a future.
+ */
+final class TaskShard {
+
+    private final BlockingQueue<Runnable> commands;
+    private final InMemoryTaskRepository tasks;
+    private final Thread loop;
+    private volatile boolean accepting = true;
+    private boolean running = true;
+
+    TaskShard(int index, InMemoryTaskRepository tasks, int queueCapacity) {
+        this.commands = new ArrayBlockingQueue<>(queueCapacity);
+        this.tasks = tasks;
+        this.loop = new Thread(() -> run(queueCapacity), "task-shard-" + index);
+        this.loop.setDaemon(true);
+        this.loop.start();
+    }
+
+    <T> CompletableFuture<T> submit(Function<InMemoryTaskRepository, T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!accepting) {
+            result.completeExceptionally(new IllegalStateException("Task shard is closed"));
+            return result;
+        }
+        enqueue(() -> {
+            try {
+                result.complete(command.apply(tasks));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, result);
+        return result;
+    }
+
+    /** Runs the commands queued so far, then stops the event loop. */
+    void close() {
+        if (!accepting) {
+            return;
+        }
+        accepting = false;
+        CompletableFuture<Void> stopped = new CompletableFuture<>();
+        enqueue(() -> running = false, stopped);
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Runnable command, CompletableFuture<?> result) {
+        try {
+            commands.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void run(int batchSize) {
+        List<Runnable> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(commands.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Drain whatever else is queued so the queue lock is taken once per batch
+            commands.drainTo(batch, batchSize - 1);
+            for (Runnable command : batch) {
+                command.run();
+            }
+            batch.clear();
+        }
+        // Commands that raced with close still get their answer
+        commands.drainTo(batch);
+        batch.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Primary storage of the in-memory adapter, keyed by task id. Secondary
+ * indexes live in {@link InMemoryTaskRepository}; implementations only decide
+ * how task state is laid out in memory.
+ */
+interface TaskStore {
+
+    Task get(TaskId id);
+
+    /**
+     * Atomically replaces the task stored under {@code id}. The remapping
+     * function receives the current task (or {@code null}) and returns the new
+     * one (or {@code null} to remove it). No other update of the same task can
+     * run while the function executes.
+     */
+    void compute(TaskId id, UnaryOperator<Task> remapping);
+
+    /** Visits every stored task; concurrent updates may or may not be observed. */
+    void forEach(Consumer<Task> action);
+
+    int size();
+
+    void clear();
+}
@@ -0,0 +1,312 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.adapters.outbound.DescriptionHash;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskSortOrder;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Everything the repository knows about one user's tasks: the listing order
+ * plus the aggregates behind the creation rules, kept up to date on every
+ * write so that rule checks never scan.
+ *
+ * Listing entries carry the task's priority and status, so that filtered
+ * listings skip non-matching tasks without reading them from the store.
+ *
+ * The listing is multi-versioned: while a reader holds a pinned snapshot,
+ * writes keep the superseded state of each entry they touch, so that pages
+ * read at that version never shift. Without pins no history is kept.
+ *
+ * Mutations and pins must be serialized per user by the caller; reads are
+ * lock-free.
+ */
+final class UserTaskIndex {
+
+    // Visible to every snapshot; shared by all entries that carry no history
+    private static final Version[][] LIVE = new Version[Priority.values().length][Status.values().length];
+
+    static {
+        for (Priority priority : Priority.values()) {
+            for (Status status : Status.values()) {
+                LIVE[priority.ordinal()][status.ordinal()] = new Version(0, priority, status, null, null);
+            }
+        }
+    }
+
+    private final NavigableMap<TaskOrder, Version> newestFirst = new ConcurrentSkipListMap<>();
+    // Pinned snapshot versions, mapped to the nano time their lease ends
+    private final NavigableMap<Long, Long> pins = new TreeMap<>();
+    private final LongSupplier nanoClock;
+    private final AtomicInteger openTasks = new AtomicInteger();
+    private final Map<LocalDate, Integer> highPriorityTasksByDay = new ConcurrentHashMap<>();
+    // A multiset of fixed-size keys: description updates may legitimately
+    // produce same-day duplicates, and the descriptions stay in the store
+    private final Map<DescriptionKey, Integer> descriptionsByDay = new ConcurrentHashMap<>();
+
+    UserTaskIndex(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    void add(Task task, long version) {
+        install(TaskOrder.of(task), version, task, null);
+        count(task, 1);
+    }
+
+    void replace(Task previous, Task current, long version) {
+        TaskOrder previousOrder = TaskOrder.of(previous);
+        TaskOrder currentOrder = TaskOrder.of(current);
+        if (previousOrder.equals(currentOrder)) {
+            install(currentOrder, version, current, previous);
+        } else {
+            install(currentOrder, version, current, null);
+            install(previousOrder, version, null, previous);
+        }
+        count(previous, -1);
+        count(current, 1);
+    }
+
+    void remove(Task task, long version) {
+        install(TaskOrder.of(task), version, null, task);
+        count(task, -1);
+    }
+
+    boolean isEmpty() {
+        return newestFirst.isEmpty();
+    }
+
+    /**
+     * Pins a snapshot for {@code leaseNanos}: the requested one when it is
+     * still pinned, otherwise {@code current}. Returns the pinned version.
+     */
+    long pin(Long requested, long current, long leaseNanos) {
+        long now = nanoClock.getAsLong();
+        expirePins(now);
+        long version = requested != null && pins.containsKey(requested) ? requested : current;
+        pins.put(version, now + leaseNanos);
+        return version;
+    }
+
+    /** Live tasks, newest first; {@code latest} resolves a task id to its stored state. */
+    Stream<Task> newestFirst(Function<TaskId, Task> latest) {
+        return list(TaskQuery.ALL, null, latest);
+    }
+
+    /**
+     * Live tasks matching {@code query}, in its order, after {@code after}.
+     * The date range and the cursor bound a view of the index, so nothing
+     * outside of them is visited.
+     */
+    Stream<Task> list(TaskQuery query, TaskOrder after, Function<TaskId, Task> latest) {
+        NavigableMap<TaskOrder, Version> range = newestFirst;
+        if (query.createdTo() != null) {
+            range = range.tailMap(TaskOrder.first(EpochNanos.of(query.createdTo().plusDays(1).atStartOfDay()) - 1), true);
+        }
+        if (query.createdFrom() != null) {
+            range = range.headMap(TaskOrder.first(EpochNanos.of(query.createdFrom().atStartOfDay()) - 1), false);
+        }
+        if (!query.isNewestFirst()) {
+            range = range.descendingMap();
+        }
+        if (after != null) {
+            range = range.tailMap(after, false);
+        }
+        return range.entrySet().stream()
+                .filter(entry -> entry.getValue().matches(query))
+                .map(entry -> latest.apply(entry.getKey().taskId()))
+                .filter(Objects::nonNull);
+    }
+
+    /** Tasks as they were at a pinned {@code snapshot}, newest first. */
+    Stream<Task> newestFirstAt(long snapshot, Function<TaskId, Task> latest) {
+        return newestFirst.entrySet().stream()
+                .filter(entry -> isVisible(entry.getValue(), snapshot))
+                .map(entry -> resolve(entry.getKey(), entry.getValue(), snapshot, latest))
+                .filter(Objects::nonNull);
+    }
+
+    /** Number of superseded entry states currently kept for pinned snapshots. */
+    int retainedVersions() {
+        int retained = 0;
+        for (Version head : newestFirst.values()) {
+            for (Version link = head.older(); link != null; link = link.older()) {
+                retained++;
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Whether a task created on {@code day} has the description. A miss on
+     * the hash answers alone; a hit is confirmed against the day's tasks,
+     * which {@code latest} resolves.
+     */
+    boolean containsDescription(LocalDate day, String description, Function<TaskId, Task> latest) {
+        if (!descriptionsByDay.containsKey(new DescriptionKey(day.toEpochDay(), DescriptionHash.of(description)))) {
+            return false;
+        }
+        return list(new TaskQuery(null, null, day, day, TaskSortOrder.NEWEST_FIRST), null, latest)
+                .anyMatch(task -> DescriptionHash.sameDescription(task.getDescription(), description));
+    }
+
+    long countHighPriorityTasksOn(LocalDate day) {
+        return highPriorityTasksByDay.getOrDefault(day, 0);
+    }
+
+    long countOpenTasks() {
+        return openTasks.get();
+    }
+
+    // current is the entry's new state, null when it leaves the listing
+    private void install(TaskOrder order, long version, Task current, Task replaced) {
+        long oldestPin = oldestPin();
+        newestFirst.compute(order, (key, head) -> {
+            Version older = head == null ? null : head.superseded(replaced);
+            return retain(Version.of(version, current, older), oldestPin);
+        });
+    }
+
+    private long oldestPin() {
+        if (pins.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        expirePins(nanoClock.getAsLong());
+        return pins.isEmpty() ? Long.MAX_VALUE : pins.firstKey();
+    }
+
+    private void expirePins(long now) {
+        if (pins.values().removeIf(deadline -> deadline - now < 0)) {
+            // Drop whatever only the expired snapshots could still see
+            long oldestPin = pins.isEmpty() ? Long.MAX_VALUE : pins.firstKey();
+            for (Map.Entry<TaskOrder, Version> entry : newestFirst.entrySet()) {
+                if (entry.getValue().older() != null || !entry.getValue().live()) {
+                    newestFirst.computeIfPresent(entry.getKey(), (key, head) -> retain(head, oldestPin));
+                }
+            }
+        }
+    }
+
+    // A read sees the newest link no newer than its snapshot; the head's state is the stored one
+    private Task resolve(TaskOrder order, Version head, long snapshot, Function<TaskId, Task> latest) {
+        while (true) {
+            Version visible = visibleAt(head, snapshot);
+            if (visible == null || !visible.live()) {
+                return null;
+            }
+            if (visible != head) {
+                return visible.task();
+            }
+            Task task = latest.apply(order.taskId());
+            Version current = newestFirst.get(order);
+            if (current == null || (current == head && task != null)) {
+                return task;
+            }
+            // A write to this entry is in flight: its index change lands before the store's
+            head = current;
+            Thread.onSpinWait();
+        }
+    }
+
+    private static boolean isVisible(Version head, long snapshot) {
+        Version visible = visibleAt(head, snapshot);
+        return visible != null && visible.live();
+    }
+
+    private static Version visibleAt(Version head, long snapshot) {
+        Version link = head;
+        while (link != null && link.version() > snapshot) {
+            link = link.older();
+        }
+        return link;
+    }
+
+    // Keeps the links that some pinned snapshot still resolves to; null drops the entry
+    private static Version retain(Version head, long oldestPin) {
+        if (head.version() <= oldestPin) {
+            return head.live() ? LIVE[head.priority().ordinal()][head.status().ordinal()] : null;
+        }
+        Version older = trim(head.older(), oldestPin);
+        if (!head.live() && older == null) {
+            return null;
+        }
+        return older == head.older() ? head : head.withOlder(older);
+    }
+
+    private static Version trim(Version link, long oldestPin) {
+        if (link == null) {
+            return null;
+        }
+        if (link.version() <= oldestPin) {
+            // Every older link is shadowed for all pinned snapshots
+            if (!link.live()) {
+                return null;
+            }
+            return link.older() == null ? link : link.withOlder(null);
+        }
+        Version older = trim(link.older(), oldestPin);
+        return older == link.older() ? link : link.withOlder(older);
+    }
+
+    private void count(Task task, int delta) {
+        LocalDate day = task.getCreatedAt().toLocalDate();
+        if (task.isOpen()) {
+            openTasks.addAndGet(delta);
+        }
+        if (task.isHighPriority()) {
+            adjust(highPriorityTasksByDay, day, delta);
+        }
+        adjust(descriptionsByDay, new DescriptionKey(day.toEpochDay(), DescriptionHash.of(task.getDescription())), delta);
+    }
+
+    private static <K> void adjust(Map<K, Integer> counters, K key, int delta) {
+        counters.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    /**
+     * State of an entry from {@code version} on, linked to the state before:
+     * the task's priority and status, both null once it left the listing.
+     * Only superseded links carry their task; the head's is in the store.
+     */
+    private record Version(long version, Priority priority, Status status, Task task, Version older) {
+
+        static Version of(long version, Task current, Version older) {
+            return current == null
+                    ? new Version(version, null, null, null, older)
+                    : new Version(version, current.getPriority(), current.getStatus(), null, older);
+        }
+
+        boolean live() {
+            return priority != null;
+        }
+
+        boolean matches(TaskQuery query) {
+            return live()
+                    && (query.status() == null || query.status() == status)
+                    && (query.priority() == null || query.priority() == priority);
+        }
+
+        Version superseded(Task state) {
+            return new Version(version, priority, status, live() ? state : null, older);
+        }
+
+        Version withOlder(Version link) {
+            return new Version(version, priority, status, task, link);
+        }
+    }
+
+    private record DescriptionKey(long epochDay, DescriptionHash hash) {}
+}
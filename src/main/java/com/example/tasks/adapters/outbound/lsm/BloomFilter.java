@@ -0,0 +1,68 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+/**
+ * Bloom filter over segment keys, sized at ten bits per key with seven probes
+ * for a false positive rate of about one percent. Probes are derived from one
+ * 64-bit hash by double hashing.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int PROBES = 7;
+
+    private final long[] words;
+
+    BloomFilter(long[] words) {
+        this.words = words;
+    }
+
+    static BloomFilter of(long[] keyHashes, int count) {
+        long bits = Math.max(64, (long) count * BITS_PER_KEY);
+        BloomFilter filter = new BloomFilter(new long[(int) ((bits + 63) / 64)]);
+        for (int i = 0; i < count; i++) {
+            filter.add(keyHashes[i]);
+        }
+        return filter;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    boolean mightContain(byte[] key) {
+        long hash = hash(key);
+        long bits = words.length * 64L;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(long hash) {
+        long bits = words.length * 64L;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // FNV-1a followed by the murmur3 finalizer
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+/**
+ * A key with its latest value, or a tombstone when {@code value} is null.
+ */
+record Entry(byte[] key, byte[] value) {
+
+    static Entry tombstone(byte[] key) {
+        return new Entry(key, null);
+    }
+
+    boolean isTombstone() {
+        return value == null;
+    }
+}
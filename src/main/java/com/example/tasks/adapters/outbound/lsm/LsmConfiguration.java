@@ -0,0 +1,43 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import com.example.tasks.adapters.outbound.local.ImmediateAsyncTaskAdapter;
+import com.example.tasks.application.port.outbound.AsyncTaskRepositoryPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Configuration
+@Profile("lsm")
+public class LsmConfiguration {
+
+    @Value("${tasks.lsm.directory:data/lsm}")
+    private Path directory;
+
+    @Value("${tasks.lsm.memtable-size:16MB}")
+    private DataSize memtableSize;
+
+    @Value("${tasks.lsm.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${tasks.lsm.compaction-trigger:4}")
+    private int compactionTrigger;
+
+    @Value("${tasks.lsm.sync-writes:false}")
+    private boolean syncWrites;
+
+    @Bean(destroyMethod = "close")
+    public LsmTaskRepository lsmTaskRepository() {
+        return new LsmTaskRepository(new LsmTree(directory, memtableSize.toBytes(), segmentSize.toBytes(),
+                compactionTrigger, syncWrites));
+    }
+
+    // The tree lives in this process, like the local stores
+    @Bean
+    public AsyncTaskRepositoryPort lsmAsyncTaskRepository(LsmTaskRepository lsmTaskRepository) {
+        return new ImmediateAsyncTaskAdapter(lsmTaskRepository);
+    }
+}
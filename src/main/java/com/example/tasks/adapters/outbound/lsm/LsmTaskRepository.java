@@ -0,0 +1,204 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.adapters.outbound.DescriptionHash;
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.UserId;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed repository on an embedded {@link LsmTree}; see {@link TaskLayout}
+ * for the keys. A user's tasks form one contiguous key range, newest first,
+ * so paging and the per-day rule queries are range scans.
+ *
+ * Writes are serialized: each one reads the task it replaces, then writes the
+ * task, its id pointer, its description key and the user's open task count as
+ * one atomic batch.
+ */
+public class LsmTaskRepository implements TaskRepositoryPort {
+
+    private final LsmTree tree;
+    private final Object writeLock = new Object();
+
+    LsmTaskRepository(LsmTree tree) {
+        this.tree = tree;
+    }
+
+    @Override
+    public Task save(Task task) {
+        byte[] taskKey = TaskLayout.taskKey(task.getId());
+        byte[] userTaskKey = TaskLayout.userTaskKey(task);
+
+        synchronized (writeLock) {
+            byte[] previousKey = tree.get(taskKey);
+            Task previous = previousKey != null ? TaskLayout.decode(tree.get(previousKey)) : null;
+
+            List<Entry> batch = new ArrayList<>(7);
+            if (previousKey != null && !Arrays.equals(previousKey, userTaskKey)) {
+                batch.add(Entry.tombstone(previousKey));
+            }
+            batch.add(new Entry(userTaskKey, TaskLayout.encode(task)));
+            batch.add(new Entry(taskKey, userTaskKey));
+            addDescriptionKey(batch, previous, task, userTaskKey);
+            addOpenTaskCounts(batch, previous, task);
+            tree.write(batch);
+        }
+        return task;
+    }
+
+    @Override
+    public Optional<Task> findById(TaskId id) {
+        byte[] userTaskKey = tree.get(TaskLayout.taskKey(id));
+        if (userTaskKey == null) {
+            return Optional.empty();
+        }
+        byte[] value = tree.get(userTaskKey);
+        return Optional.ofNullable(value).map(TaskLayout::decode);
+    }
+
+    @Override
+    public List<Task> findByUserId(UserId userId, int page, int size) {
+        byte[] prefix = TaskLayout.userPrefix(userId);
+        return tree.scan(prefix, TaskLayout.prefixEnd(prefix))
+                .skip((long) page * size)
+                .limit(size)
+                .map(entry -> TaskLayout.decode(entry.value()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        // The date range and the cursor become key bounds; newest first is key order
+        byte[] prefix = TaskLayout.userPrefix(userId);
+        byte[] from = query.createdTo() != null ? TaskLayout.startOfDay(userId, query.createdTo()) : prefix;
+        byte[] to = query.createdFrom() != null ? TaskLayout.endOfDay(userId, query.createdFrom()) : TaskLayout.prefixEnd(prefix);
+        Stream<Entry> range;
+        if (query.isNewestFirst()) {
+            range = tree.scan(after != null ? max(from, TaskLayout.userTaskKeyAfter(userId, after)) : from, to);
+        } else {
+            range = tree.scanDescending(from, after != null ? min(to, TaskLayout.userTaskKey(userId, after)) : to);
+        }
+        List<Task> tasks = range
+                .filter(entry -> query.status() == null || TaskLayout.statusOf(entry.value()) == query.status())
+                .filter(entry -> query.priority() == null || TaskLayout.priorityOf(entry.value()) == query.priority())
+                .limit(size)
+                .map(entry -> TaskLayout.decode(entry.value()))
+                .collect(Collectors.toList());
+        return TaskPage.of(tasks, size);
+    }
+
+    @Override
+    public void deleteById(TaskId id) {
+        byte[] taskKey = TaskLayout.taskKey(id);
+        synchronized (writeLock) {
+            byte[] userTaskKey = tree.get(taskKey);
+            if (userTaskKey == null) {
+                return;
+            }
+            Task previous = TaskLayout.decode(tree.get(userTaskKey));
+
+            List<Entry> batch = new ArrayList<>(4);
+            batch.add(Entry.tombstone(userTaskKey));
+            batch.add(Entry.tombstone(taskKey));
+            batch.add(Entry.tombstone(TaskLayout.descriptionKey(previous)));
+            addOpenTaskCounts(batch, previous, null);
+            tree.write(batch);
+        }
+    }
+
+    @Override
+    public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        // Hash matches point at their tasks; only those descriptions are read
+        byte[] prefix = TaskLayout.descriptionPrefix(userId, date, description);
+        return tree.scan(prefix, TaskLayout.prefixEnd(prefix))
+                .map(entry -> tree.get(entry.value()))
+                .anyMatch(value -> value != null
+                        && DescriptionHash.sameDescription(TaskLayout.descriptionOf(value), description));
+    }
+
+    @Override
+    public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        return countHighPriorityTasksUpTo(userId, date, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long countOpenTasksForUser(UserId userId) {
+        return TaskLayout.decodeCount(tree.get(TaskLayout.openTasksKey(userId)));
+    }
+
+    // The description is a key lookup and the open count a single key; the day's
+    // priorities are scanned only as far as the quota, which is all the rule compares
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        return new CreationContext(existsByUserAndDateAndDescription(userId, date, description),
+            countHighPriorityTasksUpTo(userId, date, TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY),
+            countOpenTasksForUser(userId));
+    }
+
+    private long countHighPriorityTasksUpTo(UserId userId, LocalDate date, long limit) {
+        return tree.scan(TaskLayout.startOfDay(userId, date), TaskLayout.endOfDay(userId, date))
+                .filter(entry -> TaskLayout.priorityOf(entry.value()) == Priority.HIGH)
+                .limit(limit)
+                .count();
+    }
+
+    public void close() {
+        tree.close();
+    }
+
+    // Called with the write lock held; the key only moves when the description or day does
+    private static void addDescriptionKey(List<Entry> batch, Task previous, Task current, byte[] userTaskKey) {
+        byte[] key = TaskLayout.descriptionKey(current);
+        if (previous != null) {
+            byte[] previousKey = TaskLayout.descriptionKey(previous);
+            if (Arrays.equals(previousKey, key)) {
+                return;
+            }
+            batch.add(Entry.tombstone(previousKey));
+        }
+        batch.add(new Entry(key, userTaskKey));
+    }
+
+    // Called with the write lock held
+    private void addOpenTaskCounts(List<Entry> batch, Task previous, Task current) {
+        Map<UserId, Integer> deltas = new LinkedHashMap<>(2);
+        if (previous != null && previous.isOpen()) {
+            deltas.merge(previous.getUserId(), -1, Integer::sum);
+        }
+        if (current != null && current.isOpen()) {
+            deltas.merge(current.getUserId(), 1, Integer::sum);
+        }
+        deltas.forEach((userId, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            byte[] key = TaskLayout.openTasksKey(userId);
+            long count = TaskLayout.decodeCount(tree.get(key)) + delta;
+            batch.add(count > 0 ? new Entry(key, TaskLayout.encodeCount(count)) : Entry.tombstone(key));
+        });
+    }
+
+    private static byte[] max(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b) >= 0 ? a : b;
+    }
+
+    private static byte[] min(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b) <= 0 ? a : b;
+    }
+}
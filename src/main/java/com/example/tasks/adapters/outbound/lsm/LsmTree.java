@@ -0,0 +1,384 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Log-structured merge tree over byte keys in a local directory.
+ *
+ * Writes go to the write-ahead log and the active {@link Memtable}. A full
+ * memtable is swapped for an empty one and flushed into a new level 0
+ * {@link Run} by a background thread. Whenever {@code compactionTrigger} runs
+ * share a level, the same thread merges them into one run of the next level
+ * (size-tiered compaction), dropping tombstones once the merge reaches the
+ * oldest data.
+ *
+ * The {@code MANIFEST} lists the live runs, newest first, and the last
+ * flushed memtable; it is replaced atomically after every flush and
+ * compaction. Reads take an immutable view of memtables and runs and consult
+ * them newest first, so they never block on writes or maintenance.
+ */
+final class LsmTree implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LsmTree.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("(wal|segment)-(\\d+)\\.(log|sst)(\\.tmp)?");
+    private static final String MANIFEST = "MANIFEST";
+    private static final byte[] FIRST_KEY = new byte[0];
+    // Writers wait once this many full memtables are queued for flushing
+    private static final int MAX_PENDING_FLUSHES = 4;
+
+    private record State(Memtable active, List<Memtable> flushing, List<Run> runs) {}
+
+    private final Path directory;
+    private final long memtableBytes;
+    private final int compactionTrigger;
+    private final boolean syncWrites;
+    private final SegmentWriter writer;
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition flushed = writeLock.newCondition();
+    private final ExecutorService maintenance;
+
+    private volatile State state;
+    private WriteAheadLog wal;
+    private boolean closed;
+    // Id of the newest memtable whose contents are in runs; older logs are obsolete
+    private long flushedThrough = -1;
+
+    LsmTree(Path directory, long memtableBytes, long segmentBytes, int compactionTrigger, boolean syncWrites) {
+        this.directory = directory;
+        this.memtableBytes = memtableBytes;
+        this.compactionTrigger = compactionTrigger;
+        this.syncWrites = syncWrites;
+        this.writer = new SegmentWriter(directory, nextId::getAndIncrement, segmentBytes);
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open task store in " + directory, e);
+        }
+        this.maintenance = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lsm-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** The current value of {@code key}, or null when it is absent or deleted. */
+    byte[] get(byte[] key) {
+        State current = state;
+        Entry entry = current.active().get(key);
+        for (int i = 0; entry == null && i < current.flushing().size(); i++) {
+            entry = current.flushing().get(i).get(key);
+        }
+        for (int i = 0; entry == null && i < current.runs().size(); i++) {
+            entry = current.runs().get(i).get(key);
+        }
+        return entry == null ? null : entry.value();
+    }
+
+    /** Live entries with keys in {@code [from, to)}, in key order. */
+    Stream<Entry> scan(byte[] from, byte[] to) {
+        State current = state;
+        List<Iterator<Entry>> sources = new ArrayList<>();
+        sources.add(current.active().iterator(from));
+        current.flushing().forEach(memtable -> sources.add(memtable.iterator(from)));
+        current.runs().forEach(run -> sources.add(run.iterator(from)));
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        new MergingIterator(sources), Spliterator.ORDERED | Spliterator.SORTED), false)
+                .takeWhile(entry -> Arrays.compareUnsigned(entry.key(), to) < 0)
+                .filter(entry -> !entry.isTombstone());
+    }
+
+    /** Live entries with keys in {@code [from, to)}, in descending key order. */
+    Stream<Entry> scanDescending(byte[] from, byte[] to) {
+        State current = state;
+        List<Iterator<Entry>> sources = new ArrayList<>();
+        sources.add(current.active().descendingIterator(to));
+        current.flushing().forEach(memtable -> sources.add(memtable.descendingIterator(to)));
+        current.runs().forEach(run -> sources.add(run.descendingIterator(to)));
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        new MergingIterator(sources, true), Spliterator.ORDERED), false)
+                .takeWhile(entry -> Arrays.compareUnsigned(entry.key(), from) >= 0)
+                .filter(entry -> !entry.isTombstone());
+    }
+
+    /** Applies {@code batch} atomically: it is logged as one record and then applied in order. */
+    void write(List<Entry> batch) {
+        writeLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Task store is closed");
+            }
+            while (state.flushing().size() >= MAX_PENDING_FLUSHES) {
+                flushed.awaitUninterruptibly();
+            }
+            wal.append(batch);
+            Memtable active = state.active();
+            batch.forEach(active::apply);
+            if (active.bytes() >= memtableBytes) {
+                rotate();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to task store", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    int runCount() {
+        return state.runs().size();
+    }
+
+    /**
+     * Stops accepting writes and waits for queued maintenance. The active
+     * memtable is not flushed; its write-ahead log is replayed on the next open.
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            wal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close task store", e);
+        } finally {
+            writeLock.unlock();
+        }
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Called with the write lock held
+    private void rotate() throws IOException {
+        wal.close();
+        Memtable next = new Memtable(nextId.getAndIncrement());
+        wal = WriteAheadLog.create(walFile(next.id()), syncWrites);
+
+        State current = state;
+        List<Memtable> flushing = new ArrayList<>(current.flushing().size() + 1);
+        flushing.add(current.active());
+        flushing.addAll(current.flushing());
+        state = new State(next, List.copyOf(flushing), current.runs());
+        maintenance.execute(this::flushOldest);
+    }
+
+    private void flushOldest() {
+        try {
+            List<Memtable> pending = state.flushing();
+            Memtable oldest = pending.get(pending.size() - 1);
+            // Runs only change on this thread, so the check stays valid until the swap below
+            List<Segment> segments = writer.write(oldest.iterator(FIRST_KEY), !state.runs().isEmpty());
+
+            writeLock.lock();
+            try {
+                State current = state;
+                List<Run> runs = new ArrayList<>(current.runs().size() + 1);
+                if (!segments.isEmpty()) {
+                    runs.add(new Run(0, segments));
+                }
+                runs.addAll(current.runs());
+                writeManifest(oldest.id(), runs);
+                state = new State(current.active(),
+                        current.flushing().subList(0, current.flushing().size() - 1), List.copyOf(runs));
+                flushed.signalAll();
+            } finally {
+                writeLock.unlock();
+            }
+            Files.deleteIfExists(walFile(oldest.id()));
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to flush memtable in {}", directory, e);
+        }
+    }
+
+    private void compact() throws IOException {
+        while (true) {
+            List<Run> runs = state.runs();
+            if (runs.size() < compactionTrigger) {
+                return;
+            }
+            // Levels only grow from newest to oldest, so runs of one level are adjacent
+            int first = -1;
+            int last = -1;
+            for (int level = 0; first < 0 && level <= runs.get(runs.size() - 1).level(); level++) {
+                int from = -1;
+                int to = -1;
+                for (int i = 0; i < runs.size(); i++) {
+                    if (runs.get(i).level() == level) {
+                        from = from < 0 ? i : from;
+                        to = i;
+                    }
+                }
+                if (from >= 0 && to - from + 1 >= compactionTrigger) {
+                    first = from;
+                    last = to;
+                }
+            }
+            if (first < 0) {
+                return;
+            }
+
+            List<Run> inputs = runs.subList(first, last + 1);
+            boolean reachesOldest = last == runs.size() - 1;
+            List<Iterator<Entry>> sources = inputs.stream().map(run -> run.iterator(FIRST_KEY)).toList();
+            List<Segment> segments = writer.write(new MergingIterator(sources), !reachesOldest);
+            int level = inputs.get(0).level() + 1;
+            log.debug("Compacted {} runs of level {} into {} segments", inputs.size(), level - 1, segments.size());
+
+            writeLock.lock();
+            try {
+                State current = state;
+                List<Run> compacted = new ArrayList<>(current.runs().subList(0, first));
+                if (!segments.isEmpty()) {
+                    compacted.add(new Run(level, segments));
+                }
+                compacted.addAll(current.runs().subList(last + 1, current.runs().size()));
+                writeManifest(flushedThrough, compacted);
+                state = new State(current.active(), current.flushing(), List.copyOf(compacted));
+            } finally {
+                writeLock.unlock();
+            }
+            for (Run input : inputs) {
+                for (Segment segment : input.segments()) {
+                    segment.delete();
+                }
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Run> runs = readManifest();
+        Set<Long> live = runs.stream()
+                .flatMap(run -> run.segments().stream())
+                .map(Segment::id)
+                .collect(Collectors.toSet());
+
+        List<Path> logs = new ArrayList<>();
+        long maxId = flushedThrough;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                long id = Long.parseLong(matcher.group(2));
+                maxId = Math.max(maxId, id);
+                if (matcher.group(4) != null || (matcher.group(1).equals("segment") && !live.contains(id))) {
+                    // Leftovers of an interrupted flush or compaction
+                    Files.delete(file);
+                } else if (matcher.group(1).equals("wal")) {
+                    if (id > flushedThrough) {
+                        logs.add(file);
+                    } else {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+        nextId.set(maxId + 1);
+
+        Memtable recovered = new Memtable(maxId);
+        for (Path file : logs) {
+            WriteAheadLog.replay(file, recovered::apply);
+        }
+        if (recovered.size() > 0) {
+            List<Segment> segments = writer.write(recovered.iterator(FIRST_KEY), !runs.isEmpty());
+            List<Run> withRecovered = new ArrayList<>(runs.size() + 1);
+            withRecovered.add(new Run(0, segments));
+            withRecovered.addAll(runs);
+            runs = withRecovered;
+            log.info("Recovered {} entries from {} write-ahead logs in {}", recovered.size(), logs.size(), directory);
+        }
+        writeManifest(maxId, runs);
+        for (Path file : logs) {
+            Files.delete(file);
+        }
+
+        Memtable active = new Memtable(nextId.getAndIncrement());
+        wal = WriteAheadLog.create(walFile(active.id()), syncWrites);
+        state = new State(active, List.of(), List.copyOf(runs));
+    }
+
+    // MANIFEST: "flushed <memtable id>", then one "run <level> <segment id>..." line per run, newest first
+    private List<Run> readManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        List<Run> runs = new ArrayList<>();
+        if (!Files.exists(manifest)) {
+            return runs;
+        }
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ");
+            if (fields[0].equals("flushed")) {
+                flushedThrough = Long.parseLong(fields[1]);
+            } else if (fields[0].equals("run")) {
+                List<Segment> segments = new ArrayList<>(fields.length - 2);
+                for (int i = 2; i < fields.length; i++) {
+                    long id = Long.parseLong(fields[i]);
+                    segments.add(Segment.open(id, SegmentWriter.fileOf(directory, id)));
+                }
+                runs.add(new Run(Integer.parseInt(fields[1]), List.copyOf(segments)));
+            }
+        }
+        return runs;
+    }
+
+    private void writeManifest(long flushedMemtable, List<Run> runs) throws IOException {
+        flushedThrough = flushedMemtable;
+        StringBuilder manifest = new StringBuilder("flushed ").append(flushedMemtable).append('\n');
+        for (Run run : runs) {
+            manifest.append("run ").append(run.level());
+            run.segments().forEach(segment -> manifest.append(' ').append(segment.id()));
+            manifest.append('\n');
+        }
+
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        Files.writeString(temporary, manifest, StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path walFile(long id) {
+        return directory.resolve(String.format("wal-%020d.log", id));
+    }
+}
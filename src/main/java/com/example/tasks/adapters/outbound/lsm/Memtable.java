@@ -0,0 +1,79 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorted in-memory buffer of recent writes, backed by its own write-ahead log
+ * file until it is flushed into a segment. Deletes are kept as tombstones so
+ * that they shadow older values in segments.
+ */
+final class Memtable {
+
+    // Identity marker for deletes; never handed out to callers
+    private static final byte[] TOMBSTONE = new byte[0];
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final long id;
+    private final ConcurrentNavigableMap<byte[], byte[]> entries = new ConcurrentSkipListMap<>(Arrays::compareUnsigned);
+    private final AtomicLong bytes = new AtomicLong();
+
+    Memtable(long id) {
+        this.id = id;
+    }
+
+    long id() {
+        return id;
+    }
+
+    void apply(Entry entry) {
+        entries.put(entry.key(), entry.isTombstone() ? TOMBSTONE : entry.value());
+        bytes.addAndGet(ENTRY_OVERHEAD + entry.key().length + (entry.isTombstone() ? 0 : entry.value().length));
+    }
+
+    /** The entry for {@code key}, a tombstone, or null when this memtable has not seen the key. */
+    Entry get(byte[] key) {
+        byte[] value = entries.get(key);
+        return value == null ? null : toEntry(key, value);
+    }
+
+    Iterator<Entry> iterator(byte[] from) {
+        return entries(entries.tailMap(from, true));
+    }
+
+    /** Entries with a key below {@code before}, in descending key order. */
+    Iterator<Entry> descendingIterator(byte[] before) {
+        return entries(entries.headMap(before, false).descendingMap());
+    }
+
+    private static Iterator<Entry> entries(java.util.Map<byte[], byte[]> view) {
+        Iterator<java.util.Map.Entry<byte[], byte[]>> tail = view.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return tail.hasNext();
+            }
+
+            @Override
+            public Entry next() {
+                java.util.Map.Entry<byte[], byte[]> next = tail.next();
+                return toEntry(next.getKey(), next.getValue());
+            }
+        };
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+
+    private static Entry toEntry(byte[] key, byte[] value) {
+        return value == TOMBSTONE ? Entry.tombstone(key) : new Entry(key, value);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted sources into one sorted sequence, ascending or descending by
+ * key. When several sources hold the same key only the entry of the earliest
+ * source is returned, so sources must be passed newest first. Tombstones are
+ * passed through.
+ */
+final class MergingIterator implements Iterator<Entry> {
+
+    private record Head(Entry entry, int source, Iterator<Entry> rest) {}
+
+    private static final Comparator<byte[]> ASCENDING = Arrays::compareUnsigned;
+
+    private final PriorityQueue<Head> heads;
+
+    MergingIterator(List<Iterator<Entry>> sources) {
+        this(sources, false);
+    }
+
+    MergingIterator(List<Iterator<Entry>> sources, boolean descending) {
+        heads = new PriorityQueue<>(
+                Comparator.<Head, byte[]>comparing(head -> head.entry().key(), descending ? ASCENDING.reversed() : ASCENDING)
+                        .thenComparingInt(Head::source));
+        for (int source = 0; source < sources.size(); source++) {
+            advance(source, sources.get(source));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public Entry next() {
+        Head winner = heads.poll();
+        if (winner == null) {
+            throw new NoSuchElementException();
+        }
+        advance(winner.source(), winner.rest());
+        // Drop the shadowed versions of the same key from older sources
+        while (!heads.isEmpty() && Arrays.equals(heads.peek().entry().key(), winner.entry().key())) {
+            Head shadowed = heads.poll();
+            advance(shadowed.source(), shadowed.rest());
+        }
+        return winner.entry();
+    }
+
+    private void advance(int source, Iterator<Entry> rest) {
+        if (rest.hasNext()) {
+            heads.add(new Head(rest.next(), source, rest));
+        }
+    }
+}
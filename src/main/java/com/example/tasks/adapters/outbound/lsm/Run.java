@@ -0,0 +1,102 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Output of one flush or compaction: segments with ascending, non-overlapping
+ * key ranges that together act as a single sorted file. The level counts how
+ * many compactions the data has been through.
+ */
+record Run(int level, List<Segment> segments) {
+
+    Entry get(byte[] key) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Segment segment = segments.get(middle);
+            if (Arrays.compareUnsigned(key, segment.firstKey()) < 0) {
+                high = middle - 1;
+            } else if (Arrays.compareUnsigned(key, segment.lastKey()) > 0) {
+                low = middle + 1;
+            } else {
+                return segment.get(key);
+            }
+        }
+        return null;
+    }
+
+    Iterator<Entry> iterator(byte[] from) {
+        return new Iterator<>() {
+            private int next = 0;
+            private Iterator<Entry> current = nextSegment();
+
+            @Override
+            public boolean hasNext() {
+                while (current != null && !current.hasNext()) {
+                    current = nextSegment();
+                }
+                return current != null;
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            private Iterator<Entry> nextSegment() {
+                while (next < segments.size()) {
+                    Segment segment = segments.get(next++);
+                    if (Arrays.compareUnsigned(segment.lastKey(), from) >= 0) {
+                        return segment.iterator(from);
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /** Entries with a key below {@code before}, in descending key order. */
+    Iterator<Entry> descendingIterator(byte[] before) {
+        return new Iterator<>() {
+            private int next = segments.size() - 1;
+            private Iterator<Entry> current = nextSegment();
+
+            @Override
+            public boolean hasNext() {
+                while (current != null && !current.hasNext()) {
+                    current = nextSegment();
+                }
+                return current != null;
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            private Iterator<Entry> nextSegment() {
+                while (next >= 0) {
+                    Segment segment = segments.get(next--);
+                    if (Arrays.compareUnsigned(segment.firstKey(), before) < 0) {
+                        return segment.descendingIterator(before);
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    long sizeBytes() {
+        return segments.stream().mapToLong(Segment::sizeBytes).sum();
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable, memory-mapped file of entries sorted by key:
+ * <pre>
+ * entries   [key length][key][value length, -1 for a tombstone][value] ...
+ * index     [count] ([key length][key][entry offset]) ... every {@value #INDEX_INTERVAL}th entry
+ * last key  [key length][key]
+ * bloom     [word count][word] ...
+ * footer    [index offset][bloom offset][entry count][magic]
+ * </pre>
+ * The sparse index and the bloom filter are loaded on the heap; entries are
+ * read straight from the mapping, so the page cache rather than the heap
+ * bounds how much data a segment can hold.
+ */
+final class Segment {
+
+    static final int INDEX_INTERVAL = 16;
+    static final int MAGIC = 0x4C534D31;
+    static final int FOOTER = Integer.BYTES * 4;
+
+    private final long id;
+    private final Path file;
+    private final MappedByteBuffer data;
+    private final int indexOffset;
+    private final int entryCount;
+    private final byte[][] indexKeys;
+    private final int[] indexOffsets;
+    private final byte[] lastKey;
+    private final BloomFilter bloom;
+
+    private Segment(long id, Path file, MappedByteBuffer data) {
+        this.id = id;
+        this.file = file;
+        this.data = data;
+
+        int footer = data.capacity() - FOOTER;
+        if (data.getInt(footer + Integer.BYTES * 3) != MAGIC) {
+            throw new IllegalStateException("Not a segment file: " + file);
+        }
+        indexOffset = data.getInt(footer);
+        int bloomOffset = data.getInt(footer + Integer.BYTES);
+        entryCount = data.getInt(footer + Integer.BYTES * 2);
+
+        int position = indexOffset;
+        int indexSize = data.getInt(position);
+        position += Integer.BYTES;
+        indexKeys = new byte[indexSize][];
+        indexOffsets = new int[indexSize];
+        for (int i = 0; i < indexSize; i++) {
+            indexKeys[i] = readBytes(position);
+            position += Integer.BYTES + indexKeys[i].length;
+            indexOffsets[i] = data.getInt(position);
+            position += Integer.BYTES;
+        }
+        lastKey = readBytes(position);
+
+        long[] words = new long[data.getInt(bloomOffset)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = data.getLong(bloomOffset + Integer.BYTES + i * Long.BYTES);
+        }
+        bloom = new BloomFilter(words);
+    }
+
+    static Segment open(long id, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Segment(id, file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    long id() {
+        return id;
+    }
+
+    int entryCount() {
+        return entryCount;
+    }
+
+    long sizeBytes() {
+        return data.capacity();
+    }
+
+    byte[] firstKey() {
+        return indexKeys[0];
+    }
+
+    byte[] lastKey() {
+        return lastKey;
+    }
+
+    /** The entry for {@code key}, a tombstone, or null when the segment does not hold the key. */
+    Entry get(byte[] key) {
+        if (Arrays.compareUnsigned(key, lastKey) > 0 || !bloom.mightContain(key)) {
+            return null;
+        }
+        int block = floorBlock(key);
+        if (block < 0) {
+            return null;
+        }
+        int position = indexOffsets[block];
+        for (int i = 0; i < INDEX_INTERVAL && position < indexOffset; i++) {
+            byte[] candidate = readBytes(position);
+            int comparison = Arrays.compareUnsigned(candidate, key);
+            if (comparison == 0) {
+                return readEntry(candidate, position);
+            }
+            if (comparison > 0) {
+                return null;
+            }
+            position = nextEntry(position);
+        }
+        return null;
+    }
+
+    /** Entries with a key of at least {@code from}, tombstones included. */
+    Iterator<Entry> iterator(byte[] from) {
+        int block = Math.max(floorBlock(from), 0);
+        int start = indexOffsets[block];
+        while (start < indexOffset && Arrays.compareUnsigned(readBytes(start), from) < 0) {
+            start = nextEntry(start);
+        }
+        int first = start;
+        return new Iterator<>() {
+            private int position = first;
+
+            @Override
+            public boolean hasNext() {
+                return position < indexOffset;
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Entry entry = readEntry(readBytes(position), position);
+                position = nextEntry(position);
+                return entry;
+            }
+        };
+    }
+
+    /** Entries with a key below {@code before}, in descending key order, tombstones included. */
+    Iterator<Entry> descendingIterator(byte[] before) {
+        return new Iterator<>() {
+            // Entries only link forward: each index block is read front to back
+            // and replayed in reverse before moving on to the block in front of it
+            private final Deque<Entry> pending = new ArrayDeque<>(INDEX_INTERVAL);
+            private int block = floorBlock(before);
+
+            @Override
+            public boolean hasNext() {
+                while (pending.isEmpty() && block >= 0) {
+                    readBlock(block--);
+                }
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pending.pop();
+            }
+
+            private void readBlock(int index) {
+                int end = index + 1 < indexOffsets.length ? indexOffsets[index + 1] : indexOffset;
+                for (int position = indexOffsets[index]; position < end; position = nextEntry(position)) {
+                    byte[] key = readBytes(position);
+                    if (Arrays.compareUnsigned(key, before) >= 0) {
+                        return;
+                    }
+                    pending.push(readEntry(key, position));
+                }
+            }
+        };
+    }
+
+    void delete() throws IOException {
+        // The mapping stays readable for iterators still holding it
+        Files.deleteIfExists(file);
+    }
+
+    // Last index block starting at or before key, -1 when key precedes the segment
+    private int floorBlock(byte[] key) {
+        int low = 0;
+        int high = indexKeys.length - 1;
+        int floor = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (Arrays.compareUnsigned(indexKeys[middle], key) <= 0) {
+                floor = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return floor;
+    }
+
+    private Entry readEntry(byte[] key, int position) {
+        int valuePosition = position + Integer.BYTES + key.length;
+        int valueLength = data.getInt(valuePosition);
+        if (valueLength < 0) {
+            return Entry.tombstone(key);
+        }
+        byte[] value = new byte[valueLength];
+        data.get(valuePosition + Integer.BYTES, value);
+        return new Entry(key, value);
+    }
+
+    private int nextEntry(int position) {
+        int valuePosition = position + Integer.BYTES + data.getInt(position);
+        return valuePosition + Integer.BYTES + Math.max(data.getInt(valuePosition), 0);
+    }
+
+    private byte[] readBytes(int position) {
+        byte[] bytes = new byte[data.getInt(position)];
+        data.get(position + Integer.BYTES, bytes);
+        return bytes;
+    }
+}
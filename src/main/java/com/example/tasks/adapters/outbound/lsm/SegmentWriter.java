@@ -0,0 +1,147 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Writes sorted entries into one or more {@link Segment} files, starting a new
+ * file whenever the current one reaches the target size, so that every file
+ * stays small enough to be mapped in one piece. Each file is written under a
+ * temporary name, forced and then renamed into place.
+ */
+final class SegmentWriter {
+
+    private final Path directory;
+    private final LongSupplier nextId;
+    private final long targetBytes;
+
+    SegmentWriter(Path directory, LongSupplier nextId, long targetBytes) {
+        this.directory = directory;
+        this.nextId = nextId;
+        this.targetBytes = Math.min(targetBytes, Integer.MAX_VALUE / 2);
+    }
+
+    static Path fileOf(Path directory, long id) {
+        return directory.resolve(String.format("segment-%020d.sst", id));
+    }
+
+    /**
+     * Writes {@code entries} in order. Tombstones are dropped unless
+     * {@code keepTombstones} is set, which callers need whenever older segments
+     * may still hold a value the tombstone shadows.
+     */
+    List<Segment> write(Iterator<Entry> entries, boolean keepTombstones) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        FileBuilder current = null;
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            if (entry.isTombstone() && !keepTombstones) {
+                continue;
+            }
+            if (current == null) {
+                current = new FileBuilder(nextId.getAsLong());
+            }
+            current.add(entry);
+            if (current.offset >= targetBytes) {
+                segments.add(current.finish());
+                current = null;
+            }
+        }
+        if (current != null) {
+            segments.add(current.finish());
+        }
+        return segments;
+    }
+
+    private final class FileBuilder {
+
+        private final long id;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+
+        private final List<byte[]> indexKeys = new ArrayList<>();
+        private final List<Integer> indexOffsets = new ArrayList<>();
+        private long[] keyHashes = new long[1024];
+        private int count;
+        private byte[] lastKey;
+        private int offset;
+
+        FileBuilder(long id) throws IOException {
+            this.id = id;
+            this.temporary = directory.resolve(fileOf(directory, id).getFileName() + ".tmp");
+            this.channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        }
+
+        void add(Entry entry) throws IOException {
+            if (count % Segment.INDEX_INTERVAL == 0) {
+                indexKeys.add(entry.key());
+                indexOffsets.add(offset);
+            }
+            if (count == keyHashes.length) {
+                keyHashes = Arrays.copyOf(keyHashes, count * 2);
+            }
+            keyHashes[count++] = BloomFilter.hash(entry.key());
+            lastKey = entry.key();
+
+            out.writeInt(entry.key().length);
+            out.write(entry.key());
+            if (entry.isTombstone()) {
+                out.writeInt(-1);
+                offset += Integer.BYTES * 2 + entry.key().length;
+            } else {
+                out.writeInt(entry.value().length);
+                out.write(entry.value());
+                offset += Integer.BYTES * 2 + entry.key().length + entry.value().length;
+            }
+        }
+
+        Segment finish() throws IOException {
+            int indexOffset = offset;
+            out.writeInt(indexKeys.size());
+            offset += Integer.BYTES;
+            for (int i = 0; i < indexKeys.size(); i++) {
+                out.writeInt(indexKeys.get(i).length);
+                out.write(indexKeys.get(i));
+                out.writeInt(indexOffsets.get(i));
+                offset += Integer.BYTES * 2 + indexKeys.get(i).length;
+            }
+            out.writeInt(lastKey.length);
+            out.write(lastKey);
+            offset += Integer.BYTES + lastKey.length;
+
+            int bloomOffset = offset;
+            long[] words = BloomFilter.of(keyHashes, count).words();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+
+            out.writeInt(indexOffset);
+            out.writeInt(bloomOffset);
+            out.writeInt(count);
+            out.writeInt(Segment.MAGIC);
+            out.flush();
+            channel.force(true);
+            out.close();
+
+            Path file = fileOf(directory, id);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            return Segment.open(id, file);
+        }
+    }
+}
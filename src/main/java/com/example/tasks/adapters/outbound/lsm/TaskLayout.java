@@ -0,0 +1,223 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import com.example.tasks.adapters.outbound.DescriptionHash;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Keys and values of the task store. Keys compare as unsigned bytes:
+ * <pre>
+ * T taskId                                 -> key of the task under its user
+ * U userId createdAt(descending) taskId    -> task
+ * O userId                                 -> number of open tasks
+ * D userId day descriptionHash taskId      -> key of the task under its user
+ * </pre>
+ * User ids are length-prefixed and timestamps are UTC nanoseconds since the
+ * epoch, inverted so that the newest task of a user sorts first. Values start
+ * with their fixed-size fields so that rule queries can inspect priority and
+ * description without decoding the whole task. The description keys hold a
+ * 128-bit {@link DescriptionHash}, so a uniqueness check seeks to a small
+ * fixed-size prefix and reads a description only on a hash match.
+ */
+final class TaskLayout {
+
+    private static final byte TASK = 'T';
+    private static final byte USER_TASK = 'U';
+    private static final byte OPEN_TASKS = 'O';
+    private static final byte DESCRIPTION = 'D';
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // priority, status, createdAt, updatedAt, task id
+    private static final int FIXED_FIELDS = 2 + Long.BYTES * 4;
+
+    private TaskLayout() {}
+
+    static byte[] taskKey(TaskId id) {
+        UUID uuid = UUID.fromString(id.value());
+        return ByteBuffer.allocate(1 + Long.BYTES * 2)
+                .put(TASK)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static byte[] userTaskKey(Task task) {
+        return userTaskKey(task.getUserId(), task.getCreatedAt(), task.getId(), 0);
+    }
+
+    /** Key of the cursor's task under {@code userId}. */
+    static byte[] userTaskKey(UserId userId, TaskCursor cursor) {
+        return userTaskKey(userId, cursor.createdAt(), cursor.taskId(), 0);
+    }
+
+    /** Smallest key ordered after the cursor's task under {@code userId}. */
+    static byte[] userTaskKeyAfter(UserId userId, TaskCursor cursor) {
+        return userTaskKey(userId, cursor.createdAt(), cursor.taskId(), 1);
+    }
+
+    /** Prefix shared by all tasks of a user. */
+    static byte[] userPrefix(UserId userId) {
+        return userKey(USER_TASK, userId);
+    }
+
+    /** Lower bound of the tasks a user created on {@code date}; {@link #endOfDay} is the upper bound. */
+    static byte[] startOfDay(UserId userId, LocalDate date) {
+        return userTasksCreatedAtOrBefore(userId, epochNanos(date.plusDays(1).atStartOfDay()) - 1);
+    }
+
+    static byte[] endOfDay(UserId userId, LocalDate date) {
+        return userTasksCreatedAtOrBefore(userId, epochNanos(date.atStartOfDay()) - 1);
+    }
+
+    static byte[] openTasksKey(UserId userId) {
+        return userKey(OPEN_TASKS, userId);
+    }
+
+    static byte[] descriptionKey(Task task) {
+        UUID uuid = UUID.fromString(task.getId().value());
+        byte[] prefix = descriptionPrefix(task.getUserId(), task.getCreatedAt().toLocalDate(), task.getDescription());
+        return ByteBuffer.allocate(prefix.length + Long.BYTES * 2)
+                .put(prefix)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /** Prefix of the description keys of the user's tasks of {@code date} whose description hashes alike. */
+    static byte[] descriptionPrefix(UserId userId, LocalDate date, String description) {
+        byte[] user = userKey(DESCRIPTION, userId);
+        return ByteBuffer.allocate(user.length + Long.BYTES * 3)
+                .put(user)
+                .putLong(date.toEpochDay())
+                .put(DescriptionHash.of(description).toBytes())
+                .array();
+    }
+
+    /** Smallest key greater than every key starting with {@code prefix}. */
+    static byte[] prefixEnd(byte[] prefix) {
+        byte[] end = Arrays.copyOf(prefix, prefix.length);
+        for (int i = end.length - 1; i >= 0; i--) {
+            if (++end[i] != 0) {
+                return Arrays.copyOf(end, i + 1);
+            }
+        }
+        throw new IllegalArgumentException("Prefix has no upper bound");
+    }
+
+    static byte[] encode(Task task) {
+        UUID uuid = UUID.fromString(task.getId().value());
+        byte[] userId = task.getUserId().value().getBytes(StandardCharsets.UTF_8);
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(FIXED_FIELDS + Integer.BYTES * 2 + userId.length + description.length)
+                .put((byte) task.getPriority().ordinal())
+                .put((byte) task.getStatus().ordinal())
+                .putLong(epochNanos(task.getCreatedAt()))
+                .putLong(epochNanos(task.getUpdatedAt()))
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .putInt(userId.length).put(userId)
+                .putInt(description.length).put(description)
+                .array();
+    }
+
+    static Task decode(byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        Priority priority = PRIORITIES[buffer.get()];
+        Status status = STATUSES[buffer.get()];
+        LocalDateTime createdAt = toLocalDateTime(buffer.getLong());
+        LocalDateTime updatedAt = toLocalDateTime(buffer.getLong());
+        TaskId id = TaskId.of(new UUID(buffer.getLong(), buffer.getLong()).toString());
+        UserId userId = UserId.of(readString(buffer));
+        String description = readString(buffer);
+        return Task.reconstitute(id, userId, description, priority, status, createdAt, updatedAt);
+    }
+
+    static Priority priorityOf(byte[] value) {
+        return PRIORITIES[value[0]];
+    }
+
+    static Status statusOf(byte[] value) {
+        return STATUSES[value[1]];
+    }
+
+    static String descriptionOf(byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value, FIXED_FIELDS, value.length - FIXED_FIELDS);
+        buffer.position(buffer.position() + Integer.BYTES + buffer.getInt(buffer.position()));
+        return readString(buffer);
+    }
+
+    static byte[] encodeCount(long count) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(count).array();
+    }
+
+    static long decodeCount(byte[] value) {
+        return value == null ? 0 : ByteBuffer.wrap(value).getLong();
+    }
+
+    // Trailing zero bytes turn an exact key into the lowest key past it
+    private static byte[] userTaskKey(UserId userId, LocalDateTime createdAt, TaskId id, int padding) {
+        UUID uuid = UUID.fromString(id.value());
+        byte[] prefix = userPrefix(userId);
+        return ByteBuffer.allocate(prefix.length + Long.BYTES * 3 + padding)
+                .put(prefix)
+                .putLong(descending(epochNanos(createdAt)))
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private static byte[] userTasksCreatedAtOrBefore(UserId userId, long epochNanos) {
+        byte[] prefix = userPrefix(userId);
+        return ByteBuffer.allocate(prefix.length + Long.BYTES)
+                .put(prefix)
+                .putLong(descending(epochNanos))
+                .array();
+    }
+
+    private static byte[] userKey(byte type, UserId userId) {
+        byte[] value = userId.value().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + Short.BYTES + value.length)
+                .put(type)
+                .putShort((short) value.length)
+                .put(value)
+                .array();
+    }
+
+    // Unsigned order of the result is the reverse of the signed order of the input
+    private static long descending(long value) {
+        return ~(value ^ Long.MIN_VALUE);
+    }
+
+    private static long epochNanos(LocalDateTime dateTime) {
+        return Math.addExact(
+                Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                dateTime.getNano());
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(epochNanos, NANOS_PER_SECOND),
+                ZoneOffset.UTC);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the write batches applied to one memtable. Each batch is
+ * a single {@code [length][crc32c][entries]} record, so a batch is either
+ * replayed completely or not at all. Replay stops at the first torn record.
+ */
+final class WriteAheadLog implements AutoCloseable {
+
+    private static final int RECORD_HEADER = Integer.BYTES * 2;
+
+    private final FileChannel channel;
+    private final boolean sync;
+
+    private WriteAheadLog(FileChannel channel, boolean sync) {
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    static WriteAheadLog create(Path file, boolean sync) throws IOException {
+        return new WriteAheadLog(FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), sync);
+    }
+
+    void append(List<Entry> batch) throws IOException {
+        int payload = 0;
+        for (Entry entry : batch) {
+            payload += Integer.BYTES * 2 + entry.key().length + (entry.isTombstone() ? 0 : entry.value().length);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload);
+        record.position(RECORD_HEADER);
+        for (Entry entry : batch) {
+            record.putInt(entry.key().length).put(entry.key());
+            if (entry.isTombstone()) {
+                record.putInt(-1);
+            } else {
+                record.putInt(entry.value().length).put(entry.value());
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_HEADER, payload);
+        record.putInt(0, payload).putInt(Integer.BYTES, (int) crc.getValue());
+        record.rewind();
+
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static void replay(Path file, Consumer<Entry> target) throws IOException {
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (log.remaining() >= RECORD_HEADER) {
+            int length = log.getInt();
+            int checksum = log.getInt();
+            if (length < 0 || length > log.remaining()) {
+                return;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(log.array(), log.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            int end = log.position() + length;
+            while (log.position() < end) {
+                byte[] key = new byte[log.getInt()];
+                log.get(key);
+                int valueLength = log.getInt();
+                if (valueLength < 0) {
+                    target.accept(Entry.tombstone(key));
+                } else {
+                    byte[] value = new byte[valueLength];
+                    log.get(value);
+                    target.accept(new Entry(key, value));
+                }
+            }
+        }
+    }
+}
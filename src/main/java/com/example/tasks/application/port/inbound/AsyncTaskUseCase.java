@@ -0,0 +1,17 @@
+package com.example.tasks.application.port.inbound;
+
+import com.example.tasks.domain.*;
+import java.util.concurrent.CompletableFuture;
+
+// The task use cases without a thread held per request: each completes when the store has answered
+public interface AsyncTaskUseCase {
+    CompletableFuture<Task> createTaskAsync(UserId userId, String description, Priority priority);
+
+    CompletableFuture<Task> updateTaskAsync(TaskId id, UserId userId, String description, Priority priority, Status status);
+
+    CompletableFuture<Task> getTaskAsync(TaskId id, UserId userId);
+
+    CompletableFuture<TaskPage> listTasksAfterAsync(UserId userId, TaskQuery query, TaskCursor cursor, int size);
+
+    CompletableFuture<Void> deleteTaskAsync(TaskId id, UserId userId);
+}
@@ -5,4 +5,10 @@ import java.util.List;
 
 public interface ListTasksUseCase {
     List<Task> listTasks(UserId userId, int page, int size);
+
+    // Pages read with the same readVersion come from one consistent snapshot
+    TaskPage listTasks(UserId userId, int page, int size, Long readVersion);
+
+    // Keyset paging over the tasks matching the query: the page after the cursor, or the first page when it is null
+    TaskPage listTasksAfter(UserId userId, TaskQuery query, TaskCursor cursor, int size);
 }
@@ -0,0 +1,86 @@
+package com.example.tasks.application.port.outbound;
+
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking sibling of {@link TaskRepositoryPort}: the same operations and
+ * guarantees, but each returns as soon as the request is sent and completes
+ * its future when the store answers, so no thread waits on a round trip.
+ * A failure completes the future exceptionally with the exception the
+ * blocking port would throw, domain exceptions included.
+ */
+public interface AsyncTaskRepositoryPort {
+    // Core persistence operations
+    CompletableFuture<Task> save(Task task);
+    CompletableFuture<Optional<Task>> findById(TaskId id);
+    CompletableFuture<Void> deleteById(TaskId id);
+
+    /** See {@link TaskRepositoryPort#updateOwnedTask}. */
+    default CompletableFuture<Task> updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        return findById(id).thenCompose(found -> {
+            Task task = found.orElseThrow(() -> new TaskNotFoundException(id));
+            task.ensureOwnership(userId);
+            TaskPatch patch = task.patch(update, updatedTime);
+            return patch.isEmpty() ? CompletableFuture.completedFuture(task) : save(patch);
+        });
+    }
+
+    /** See {@link TaskRepositoryPort#save(TaskPatch)}. */
+    default CompletableFuture<Task> save(TaskPatch patch) {
+        return save(patch.task());
+    }
+
+    /** See {@link TaskRepositoryPort#deleteOwnedTask}. */
+    default CompletableFuture<Void> deleteOwnedTask(TaskId id, UserId userId) {
+        return findById(id).thenCompose(found -> {
+            found.orElseThrow(() -> new TaskNotFoundException(id)).ensureOwnership(userId);
+            return deleteById(id);
+        });
+    }
+
+    /** See {@link TaskRepositoryPort#findByUserIdAfter}. */
+    CompletableFuture<TaskPage> findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size);
+
+    /** See {@link TaskRepositoryPort#enforcesCreationQuotas}. */
+    default boolean enforcesCreationQuotas() {
+        return false;
+    }
+
+    /** See {@link TaskRepositoryPort#enforcesUniqueDescriptions}. */
+    default boolean enforcesUniqueDescriptions() {
+        return false;
+    }
+
+    // Business rule queries (needed for domain validation)
+    CompletableFuture<Boolean> existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description);
+    CompletableFuture<Long> countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date);
+    CompletableFuture<Long> countOpenTasksForUser(UserId userId);
+
+    /**
+     * See {@link TaskRepositoryPort#creationContext}. The default sends the
+     * three queries at once; a taken description completes the context
+     * without waiting for the counts.
+     */
+    default CompletableFuture<CreationContext> creationContext(UserId userId, LocalDate date, String description) {
+        CompletableFuture<Boolean> exists = existsByUserAndDateAndDescription(userId, date, description);
+        CompletableFuture<Long> highPriority = countHighPriorityTasksForUserOnDate(userId, date);
+        CompletableFuture<Long> open = countOpenTasksForUser(userId);
+        return exists.thenCompose(taken -> taken
+            ? CompletableFuture.completedFuture(new CreationContext(true, 0, 0))
+            : highPriority.thenCombine(open, (high, openTasks) -> new CreationContext(false, high, openTasks)));
+    }
+}
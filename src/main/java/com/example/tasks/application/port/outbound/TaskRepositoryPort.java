@@ -1,10 +1,18 @@
 package com.example.tasks.application.port.outbound;
 
+import com.example.tasks.domain.CreationContext;
 import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
 import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
 import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskNotFoundException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,8 +23,86 @@ public interface TaskRepositoryPort {
     List<Task> findByUserId(UserId userId, int page, int size);
     void deleteById(TaskId id);
 
+    /**
+     * Applies {@code update} to the task if it belongs to {@code userId} and
+     * returns the result, raising TaskNotFoundException or the domain's
+     * TaskBusinessRuleException otherwise. Stores with conditional writes
+     * make the ownership and status checks part of the write, so no other
+     * change can land between check and write; the default reads, checks
+     * and saves.
+     */
+    default Task updateOwnedTask(TaskId id, UserId userId, TaskUpdate update, LocalDateTime updatedTime) {
+        Task task = findById(id).orElseThrow(() -> new TaskNotFoundException(id));
+        task.ensureOwnership(userId);
+        TaskPatch patch = task.patch(update, updatedTime);
+        return patch.isEmpty() ? task : save(patch);
+    }
+
+    /**
+     * Writes the fields the patch changed, and updatedAt, leaving the rest of
+     * the stored task alone. The default rewrites the whole task.
+     */
+    default Task save(TaskPatch patch) {
+        return save(patch.task());
+    }
+
+    /** Deletes the task if it belongs to {@code userId}, with the checks of {@link #updateOwnedTask}. */
+    default void deleteOwnedTask(TaskId id, UserId userId) {
+        Task task = findById(id).orElseThrow(() -> new TaskNotFoundException(id));
+        task.ensureOwnership(userId);
+        deleteById(id);
+    }
+
+    /**
+     * Reads a page from the snapshot identified by {@code readVersion}, or
+     * pins a new snapshot when it is null. Stores without versioned reads
+     * serve the latest state and return no version.
+     */
+    default TaskPage findByUserId(UserId userId, int page, int size, Long readVersion) {
+        return TaskPage.of(findByUserId(userId, page, size), size);
+    }
+
+    /**
+     * Keyset query: up to {@code size} of the user's tasks matching
+     * {@code query}, in its order, starting right after {@code after} (or at
+     * the first match when null). Implementations seek to the cursor and
+     * evaluate the filters in the store instead of skipping or dropping rows.
+     */
+    TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size);
+
+    /**
+     * Whether saving a new task enforces MAX_OPEN_TASKS_PER_USER and
+     * MAX_HIGH_PRIORITY_TASKS_PER_DAY in the write itself, throwing
+     * TaskBusinessRuleException when a limit is reached. The service then
+     * leaves the two counts out of its checks.
+     */
+    default boolean enforcesCreationQuotas() {
+        return false;
+    }
+
+    /**
+     * Whether saving a task rejects a description the user already has on
+     * the task's creation day, throwing TaskBusinessRuleException, so that
+     * the service need not ask first.
+     */
+    default boolean enforcesUniqueDescriptions() {
+        return false;
+    }
+
     // Business rule queries (needed for domain validation)
     boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description);
     long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date);
     long countOpenTasksForUser(UserId userId);
+
+    /**
+     * The answers to all three rule queries from one read of the store where
+     * it has one: an index lookup, a batch get, a single query. The default
+     * runs the queries one after another.
+     */
+    default CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        if (existsByUserAndDateAndDescription(userId, date, description)) {
+            return new CreationContext(true, 0, 0);
+        }
+        return new CreationContext(false, countHighPriorityTasksForUserOnDate(userId, date), countOpenTasksForUser(userId));
+    }
 }
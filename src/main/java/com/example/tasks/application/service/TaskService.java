@@ -1,36 +1,67 @@
 package com.example.tasks.application.service;
 
+import com.example.tasks.application.port.inbound.AsyncTaskUseCase;
 import com.example.tasks.application.port.inbound.CreateTaskUseCase;
 import com.example.tasks.application.port.inbound.DeleteTaskUseCase;
 import com.example.tasks.application.port.inbound.GetTaskUseCase;
 import com.example.tasks.application.port.inbound.ListTasksUseCase;
 import com.example.tasks.application.port.inbound.UpdateTaskUseCase;
+import com.example.tasks.application.port.outbound.AsyncTaskRepositoryPort;
 import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
 import com.example.tasks.domain.Priority;
 import com.example.tasks.domain.Status;
 import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
 import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
 import com.example.tasks.domain.TaskValidationService;
 import com.example.tasks.domain.UserId;
 import com.example.tasks.domain.exception.TaskNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The task use cases, each twice: blocking on {@link TaskRepositoryPort}, and
+ * composed from the futures of {@link AsyncTaskRepositoryPort}, where each
+ * stage runs when the store's answer arrives, so a request in flight holds no
+ * thread. Both apply the same rules in the same order.
+ */
 @Service
-public class TaskService implements CreateTaskUseCase, UpdateTaskUseCase, GetTaskUseCase, ListTasksUseCase, DeleteTaskUseCase {
+public class TaskService implements CreateTaskUseCase, UpdateTaskUseCase, GetTaskUseCase, ListTasksUseCase, DeleteTaskUseCase,
+        AsyncTaskUseCase {
 
     private final TaskRepositoryPort repository;
+    private final AsyncTaskRepositoryPort asyncRepository;
     private final TaskValidationService validationService;
     private final Clock clock;
-
-    public TaskService(TaskRepositoryPort repository, TaskValidationService validationService, Clock clock) {
+    private final UserLockService userLocks;
+    // Where a create spends its time: waiting for the user's lock, for the rule read, for the write
+    private final Timer lockLatency;
+    private final Timer rulesLatency;
+    private final Timer writeLatency;
+
+    public TaskService(TaskRepositoryPort repository, AsyncTaskRepositoryPort asyncRepository,
+                       TaskValidationService validationService, Clock clock, UserLockService userLocks,
+                       MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.asyncRepository = asyncRepository;
         this.validationService = validationService;
         this.clock = clock;
+        this.userLocks = userLocks;
+        this.lockLatency = createLatency(meterRegistry, "lock");
+        this.rulesLatency = createLatency(meterRegistry, "rules");
+        this.writeLatency = createLatency(meterRegistry, "write");
     }
 
     @Override
@@ -38,43 +69,30 @@ public class TaskService implements CreateTaskUseCase, UpdateTaskUseCase, GetTas
         LocalDateTime now = LocalDateTime.now(clock);
         LocalDate today = now.toLocalDate();
 
-        // Business rules validated using domain service interface
-        Task.validateCreationRules(userId, description, priority, today, validationService);
+        // Check and insert under the user's lock, so that concurrent creates
+        // cannot all pass the quota checks before any of them is saved
+        long requested = System.nanoTime();
+        return userLocks.withLock(userId, () -> {
+            lockLatency.record(System.nanoTime() - requested, TimeUnit.NANOSECONDS);
 
-        // Create and save task
-        TaskId taskId = TaskId.generate();
-        Task task = new Task(taskId, userId, description, priority, now);
+            // Business rules validated using domain service interface; the ones a
+            // store enforces atomically with the insert are left to it
+            rulesLatency.record(() -> validateCreationRules(userId, description, priority, today));
 
-        return repository.save(task);
+            // Create and save task
+            TaskId taskId = TaskId.generate();
+            Task task = new Task(taskId, userId, description, priority, now);
+
+            return writeLatency.record(() -> repository.save(task));
+        });
     }
 
     @Override
     public Task updateTask(TaskId id, UserId userId, String description, Priority priority, Status status) {
-        Task existingTask = repository.findById(id)
-            .orElseThrow(() -> new TaskNotFoundException(id));
-
-        // Ensure user can only update their own tasks
-        existingTask.ensureOwnership(userId);
-
-        LocalDateTime now = LocalDateTime.now(clock);
-        Task updatedTask = existingTask;
-
-        // Apply updates using Task entity methods
-        if (description != null && !description.equals(existingTask.getDescription())) {
-            updatedTask = updatedTask.updateDescription(description, now);
-        }
-
-        if (priority != null && priority != existingTask.getPriority()) {
-            updatedTask = updatedTask.changePriority(priority, now);
-        }
-
-        if (status != null && status != existingTask.getStatus()) {
-            if (status == Status.COMPLETED) {
-                updatedTask = updatedTask.complete(now);
-            }
-        }
-
-        return repository.save(updatedTask);
+        // Ownership and the task's status are checked by the repository as part
+        // of the write, so no concurrent change can slip in between
+        return repository.updateOwnedTask(id, userId, new TaskUpdate(description, priority, status),
+            LocalDateTime.now(clock));
     }
 
     @Override
@@ -93,14 +111,100 @@ public class TaskService implements CreateTaskUseCase, UpdateTaskUseCase, GetTas
         return repository.findByUserId(userId, page, size);
     }
 
+    @Override
+    public TaskPage listTasks(UserId userId, int page, int size, Long readVersion) {
+        return repository.findByUserId(userId, page, size, readVersion);
+    }
+
+    @Override
+    public TaskPage listTasksAfter(UserId userId, TaskQuery query, TaskCursor cursor, int size) {
+        return repository.findByUserIdAfter(userId, query, cursor, size);
+    }
+
     @Override
     public void deleteTask(TaskId id, UserId userId) {
-        Task task = repository.findById(id)
-            .orElseThrow(() -> new TaskNotFoundException(id));
+        repository.deleteOwnedTask(id, userId);
+    }
 
-        // Ensure user can only delete their own tasks
-        task.ensureOwnership(userId);
+    @Override
+    public CompletableFuture<Task> createTaskAsync(UserId userId, String description, Priority priority) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+
+        // The user's creates take turns, so that concurrent ones cannot all pass
+        // the quota checks before any of them is saved
+        return userLocks.inTurn(userId, () -> creationContextAsync(userId, description, today)
+            .thenCompose(context -> {
+                Task.validateCreationRules(userId, description, priority, today, context);
+                return asyncRepository.save(new Task(TaskId.generate(), userId, description, priority, now));
+            }));
+    }
+
+    @Override
+    public CompletableFuture<Task> updateTaskAsync(TaskId id, UserId userId, String description, Priority priority,
+                                                   Status status) {
+        return asyncRepository.updateOwnedTask(id, userId, new TaskUpdate(description, priority, status),
+            LocalDateTime.now(clock));
+    }
+
+    @Override
+    public CompletableFuture<Task> getTaskAsync(TaskId id, UserId userId) {
+        return asyncRepository.findById(id).thenApply(found -> {
+            Task task = found.orElseThrow(() -> new TaskNotFoundException(id));
+            task.ensureOwnership(userId);
+            return task;
+        });
+    }
+
+    @Override
+    public CompletableFuture<TaskPage> listTasksAfterAsync(UserId userId, TaskQuery query, TaskCursor cursor, int size) {
+        return asyncRepository.findByUserIdAfter(userId, query, cursor, size);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTaskAsync(TaskId id, UserId userId) {
+        return asyncRepository.deleteOwnedTask(id, userId);
+    }
+
+    /**
+     * Reads what the rules need in one call, so that a store with a batched
+     * read pays one round trip for them, then applies the rules the store
+     * does not enforce itself, in the domain's order.
+     */
+    private void validateCreationRules(UserId userId, String description, Priority priority, LocalDate today) {
+        boolean checkDescription = !repository.enforcesUniqueDescriptions();
+        boolean checkQuotas = !repository.enforcesCreationQuotas();
+        if (!checkDescription && !checkQuotas) {
+            return;
+        }
+        CreationContext context = checkQuotas
+            ? validationService.creationContext(userId, today, description)
+            : new CreationContext(validationService.existsByUserAndDateAndDescription(userId, today, description), 0, 0);
+        if (checkDescription) {
+            Task.validateUniqueDescription(userId, description, today, context);
+        }
+        if (checkQuotas) {
+            Task.validateCreationQuotas(userId, priority, today, context);
+        }
+    }
+
+    // One read for the rules the store does not enforce itself; none when it enforces them all
+    private CompletableFuture<CreationContext> creationContextAsync(UserId userId, String description, LocalDate today) {
+        boolean checkDescription = !asyncRepository.enforcesUniqueDescriptions();
+        boolean checkQuotas = !asyncRepository.enforcesCreationQuotas();
+        if (checkQuotas) {
+            return asyncRepository.creationContext(userId, today, description);
+        }
+        return checkDescription
+            ? asyncRepository.existsByUserAndDateAndDescription(userId, today, description)
+                .thenApply(taken -> new CreationContext(taken, 0, 0))
+            : CompletableFuture.completedFuture(new CreationContext(false, 0, 0));
+    }
 
-        repository.deleteById(id);
+    private static Timer createLatency(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("tasks.create")
+            .description("Time a task create spends in each phase")
+            .tag("phase", phase)
+            .register(meterRegistry);
     }
 }
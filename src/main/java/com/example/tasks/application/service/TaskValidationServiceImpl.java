@@ -1,6 +1,7 @@
 package com.example.tasks.application.service;
 
 import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
 import com.example.tasks.domain.TaskValidationService;
 import com.example.tasks.domain.UserId;
 import org.springframework.stereotype.Service;
@@ -30,4 +31,9 @@ public class TaskValidationServiceImpl implements TaskValidationService {
     public long countOpenTasksForUser(UserId userId) {
         return repository.countOpenTasksForUser(userId);
     }
+
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        return repository.creationContext(userId, date, description);
+    }
 }
@@ -0,0 +1,73 @@
+package com.example.tasks.application.service;
+
+import com.example.tasks.domain.UserId;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs actions under a lock that belongs to a single user, so that
+ * check-then-write sequences for one user are atomic while different users
+ * never wait on each other.
+ *
+ * Locks exist only while a thread holds or waits for them. The last holder
+ * removes its lock from the map before releasing it; a thread that acquires a
+ * lock which is no longer mapped retries with the current one.
+ *
+ * Asynchronous actions cannot hold a thread's lock across their stages;
+ * {@link #inTurn} queues them per user instead, each starting when the
+ * previous one has completed.
+ *
+ * The locks cover one application instance; across instances the repository
+ * has to enforce the limits itself.
+ */
+@Service
+public class UserLockService {
+
+    private final Map<UserId, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final Map<UserId, CompletableFuture<Void>> turns = new ConcurrentHashMap<>();
+
+    public <T> T withLock(UserId userId, Supplier<T> action) {
+        ReentrantLock lock = acquire(userId);
+        try {
+            return action.get();
+        } finally {
+            if (!lock.hasQueuedThreads()) {
+                locks.remove(userId, lock);
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts {@code action} once the user's previously queued actions have
+     * completed, without blocking the caller. The last action in the queue
+     * removes its turn when done, so idle users leave nothing behind.
+     */
+    public <T> CompletableFuture<T> inTurn(UserId userId, Supplier<CompletableFuture<T>> action) {
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        CompletableFuture<Void> previous = turns.put(userId, turn);
+        CompletableFuture<T> result = (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+            .thenCompose(ignored -> action.get());
+        result.whenComplete((value, failure) -> {
+            turns.remove(userId, turn);
+            turn.complete(null);
+        });
+        return result;
+    }
+
+    private ReentrantLock acquire(UserId userId) {
+        while (true) {
+            ReentrantLock lock = locks.computeIfAbsent(userId, id -> new ReentrantLock());
+            lock.lock();
+            if (locks.get(userId) == lock) {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tasks.domain;
+
+import java.time.LocalDate;
+
+/**
+ * What the creation rules need to know about one user on one day, read up
+ * front: whether the description is taken, and the two counts the quotas
+ * compare against. It answers the rule checks for that user and day only,
+ * so the domain's validation runs unchanged on values fetched without
+ * blocking.
+ */
+public record CreationContext(boolean descriptionExists, long highPriorityTasksToday, long openTasks)
+        implements TaskValidationService {
+
+    @Override
+    public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        return descriptionExists;
+    }
+
+    @Override
+    public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        return highPriorityTasksToday;
+    }
+
+    @Override
+    public long countOpenTasksForUser(UserId userId) {
+        return openTasks;
+    }
+
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        return this;
+    }
+}
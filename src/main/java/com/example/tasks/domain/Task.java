@@ -3,7 +3,9 @@ package com.example.tasks.domain;
 import com.example.tasks.domain.exception.*;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Task aggregate root with embedded business rules.
@@ -46,17 +48,26 @@ public class Task {
 
     public static void validateCreationRules(UserId userId, String description, Priority priority,
                                            LocalDate date, TaskValidationService validationService) {
+        validateUniqueDescription(userId, description, date, validationService);
+        validateCreationQuotas(userId, priority, date, validationService);
+    }
+
+    public static void validateUniqueDescription(UserId userId, String description, LocalDate date,
+                                                 TaskValidationService validationService) {
         if (validationService.existsByUserAndDateAndDescription(userId, date, description)) {
-            throw new TaskBusinessRuleException("Description must be unique per user per day");
+            throw TaskBusinessRuleException.duplicateDescription();
         }
+    }
 
+    public static void validateCreationQuotas(UserId userId, Priority priority, LocalDate date,
+                                              TaskValidationService validationService) {
         if (priority.isHighPriority() &&
-            validationService.countHighPriorityTasksForUserOnDate(userId, date) >= TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY) {
-            throw new TaskBusinessRuleException("Cannot create more than " + TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY + " high priority tasks per day");
+            validationService.hasAtLeastHighPriorityTasksOnDate(userId, date, TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY)) {
+            throw TaskBusinessRuleException.highPriorityLimitReached();
         }
 
-        if (validationService.countOpenTasksForUser(userId) >= TaskBusinessRules.MAX_OPEN_TASKS_PER_USER) {
-            throw new TaskBusinessRuleException("Cannot have more than " + TaskBusinessRules.MAX_OPEN_TASKS_PER_USER + " open tasks");
+        if (validationService.hasAtLeastOpenTasks(userId, TaskBusinessRules.MAX_OPEN_TASKS_PER_USER)) {
+            throw TaskBusinessRuleException.openTaskLimitReached();
         }
     }
 
@@ -92,6 +103,44 @@ public class Task {
         return new Task(id, userId, description, priority, Status.COMPLETED, createdAt, completedTime);
     }
 
+    public TaskPatch patch(TaskUpdate update, LocalDateTime updatedTime) {
+        Set<TaskPatch.Field> changed = EnumSet.noneOf(TaskPatch.Field.class);
+
+        // Same checks, in the same order, as updateDescription, changePriority and complete
+        String newDescription = description;
+        if (update.description() != null && !update.description().equals(description)) {
+            ensureNotCompleted();
+            newDescription = validateDescription(update.description());
+            if (!newDescription.equals(description)) {
+                changed.add(TaskPatch.Field.DESCRIPTION);
+            }
+        }
+
+        Priority newPriority = priority;
+        if (update.priority() != null && update.priority() != priority) {
+            ensureNotCompleted();
+            newPriority = update.priority();
+            changed.add(TaskPatch.Field.PRIORITY);
+        }
+
+        Status newStatus = status;
+        if (update.status() == Status.COMPLETED && status != Status.COMPLETED) {
+            newStatus = Status.COMPLETED;
+            changed.add(TaskPatch.Field.STATUS);
+        }
+
+        if (changed.isEmpty()) {
+            return new TaskPatch(this, this, changed);
+        }
+        return new TaskPatch(this, new Task(id, userId, newDescription, newPriority, newStatus, createdAt, updatedTime), changed);
+    }
+
+    private void ensureNotCompleted() {
+        if (status == Status.COMPLETED) {
+            throw new TaskBusinessRuleException("Cannot update completed task");
+        }
+    }
+
     public void ensureOwnership(UserId requestingUserId) {
         if (!this.userId.equals(requestingUserId)) {
             throw new TaskBusinessRuleException("User can only access their own tasks");
@@ -0,0 +1,21 @@
+package com.example.tasks.domain;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Position in a user's newest-first task listing: the next page starts right
+ * after the task created at {@code createdAt} with id {@code taskId}. The id
+ * breaks ties between tasks created in the same instant.
+ */
+public record TaskCursor(LocalDateTime createdAt, TaskId taskId) {
+
+    public TaskCursor {
+        Objects.requireNonNull(createdAt, "Cursor creation date cannot be null");
+        Objects.requireNonNull(taskId, "Cursor task ID cannot be null");
+    }
+
+    public static TaskCursor after(Task task) {
+        return new TaskCursor(task.getCreatedAt(), task.getId());
+    }
+}
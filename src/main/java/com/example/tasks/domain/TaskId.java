@@ -9,11 +9,14 @@ public record TaskId(String value) {
             throw new IllegalArgumentException("Task ID cannot be null or empty");
         }
 
+        UUID uuid;
         try {
-            UUID.fromString(value);
+            uuid = UUID.fromString(value);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Task ID must be a valid UUID format", e);
         }
+        // Stores may keep the id as its 128 bits, so every spelling of a UUID becomes the one canonical form
+        value = uuid.toString();
     }
 
     public static TaskId generate() {
@@ -0,0 +1,27 @@
+package com.example.tasks.domain;
+
+import java.util.List;
+
+/**
+ * One page of a user's task listing. {@code readVersion} identifies the
+ * snapshot the page was read from, when the repository supports versioned
+ * reads; passing it back serves later pages from that same snapshot.
+ * {@code nextCursor} continues the listing after this page, or is null once
+ * the listing is exhausted.
+ */
+public record TaskPage(List<Task> tasks, Long readVersion, TaskCursor nextCursor) {
+
+    public TaskPage {
+        tasks = List.copyOf(tasks);
+    }
+
+    public static TaskPage of(List<Task> tasks, int size) {
+        return of(tasks, size, null);
+    }
+
+    // A full page may be followed by more tasks; a short one is the last
+    public static TaskPage of(List<Task> tasks, int size, Long readVersion) {
+        TaskCursor next = !tasks.isEmpty() && tasks.size() >= size ? TaskCursor.after(tasks.get(tasks.size() - 1)) : null;
+        return new TaskPage(tasks, readVersion, next);
+    }
+}
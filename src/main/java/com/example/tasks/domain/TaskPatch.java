@@ -0,0 +1,36 @@
+package com.example.tasks.domain;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The outcome of applying a {@link TaskUpdate}: the updated task, built in
+ * one step, and the fields that actually changed. Stores write only those
+ * fields and updatedAt instead of rewriting the whole task.
+ */
+public record TaskPatch(Task original, Task task, Set<Field> changed) {
+
+    public enum Field { DESCRIPTION, PRIORITY, STATUS }
+
+    public TaskPatch {
+        changed = changed.isEmpty() ? Set.of() : Collections.unmodifiableSet(EnumSet.copyOf(changed));
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty();
+    }
+
+    public boolean changes(Field field) {
+        return changed.contains(field);
+    }
+
+    /** The changed fields as an update, to replay on a newer version of the task. */
+    public TaskUpdate toUpdate() {
+        return new TaskUpdate(
+            changes(Field.DESCRIPTION) ? task.getDescription() : null,
+            changes(Field.PRIORITY) ? task.getPriority() : null,
+            changes(Field.STATUS) ? task.getStatus() : null
+        );
+    }
+}
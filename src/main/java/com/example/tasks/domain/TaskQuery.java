@@ -0,0 +1,27 @@
+package com.example.tasks.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and order of a user's task listing. Every filter is optional;
+ * the creation date range is inclusive on both ends. Repositories evaluate
+ * the query where the data lives instead of filtering fetched pages.
+ */
+public record TaskQuery(Status status, Priority priority, LocalDate createdFrom, LocalDate createdTo,
+                        TaskSortOrder sortOrder) {
+
+    public static final TaskQuery ALL = new TaskQuery(null, null, null, null, TaskSortOrder.NEWEST_FIRST);
+
+    public TaskQuery {
+        if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+            throw new IllegalArgumentException("Created date range cannot end before it starts");
+        }
+        if (sortOrder == null) {
+            sortOrder = TaskSortOrder.NEWEST_FIRST;
+        }
+    }
+
+    public boolean isNewestFirst() {
+        return sortOrder == TaskSortOrder.NEWEST_FIRST;
+    }
+}
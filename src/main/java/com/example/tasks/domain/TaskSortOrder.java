@@ -0,0 +1,5 @@
+package com.example.tasks.domain;
+
+public enum TaskSortOrder {
+    NEWEST_FIRST, OLDEST_FIRST
+}
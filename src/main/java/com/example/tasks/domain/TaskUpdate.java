@@ -0,0 +1,9 @@
+package com.example.tasks.domain;
+
+/**
+ * Changes a user asked for on an existing task. A null field, or one equal
+ * to the task's current value, leaves that field alone; the only status
+ * change a task accepts is completion.
+ */
+public record TaskUpdate(String description, Priority priority, Status status) {
+}
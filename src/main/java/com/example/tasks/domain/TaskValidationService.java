@@ -9,4 +9,33 @@ public interface TaskValidationService {
     long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date);
 
     long countOpenTasksForUser(UserId userId);
+
+    /**
+     * Whether the user has at least {@code threshold} high-priority tasks
+     * created on {@code date}, the question the quota asks. Stores keep the
+     * counts next to the tasks and hand them over in one
+     * {@link #creationContext read}, so this compares a count rather than
+     * reading the tasks.
+     */
+    default boolean hasAtLeastHighPriorityTasksOnDate(UserId userId, LocalDate date, int threshold) {
+        return countHighPriorityTasksForUserOnDate(userId, date) >= threshold;
+    }
+
+    /** Whether the user has at least {@code threshold} open tasks; see above. */
+    default boolean hasAtLeastOpenTasks(UserId userId, int threshold) {
+        return countOpenTasksForUser(userId) >= threshold;
+    }
+
+    /**
+     * Everything the creation rules ask about the user on {@code date}, read
+     * together so that a store can answer in one round trip. The default asks
+     * the three questions in turn and leaves the counts out once the
+     * description turns out to be taken, since the rules stop there.
+     */
+    default CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        if (existsByUserAndDateAndDescription(userId, date, description)) {
+            return new CreationContext(true, 0, 0);
+        }
+        return new CreationContext(false, countHighPriorityTasksForUserOnDate(userId, date), countOpenTasksForUser(userId));
+    }
 }
@@ -1,5 +1,7 @@
 package com.example.tasks.domain.exception;
 
+import com.example.tasks.domain.TaskBusinessRules;
+
 /**
  * Simplified exception hierarchy - single exception for all business rule violations
  */
@@ -12,4 +14,16 @@ public class TaskBusinessRuleException extends RuntimeException {
     public TaskBusinessRuleException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public static TaskBusinessRuleException duplicateDescription() {
+        return new TaskBusinessRuleException("Description must be unique per user per day");
+    }
+
+    public static TaskBusinessRuleException highPriorityLimitReached() {
+        return new TaskBusinessRuleException("Cannot create more than " + TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY + " high priority tasks per day");
+    }
+
+    public static TaskBusinessRuleException openTaskLimitReached() {
+        return new TaskBusinessRuleException("Cannot have more than " + TaskBusinessRules.MAX_OPEN_TASKS_PER_USER + " open tasks");
+    }
 }
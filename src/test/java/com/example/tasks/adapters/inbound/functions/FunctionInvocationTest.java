@@ -203,4 +203,96 @@ class FunctionInvocationTest {
             verify(responseHelper).createResponse(any(ResponseWrapper.class), eq(404));
         }
     }
+
+    @Nested
+    @DisplayName("List Tasks Function")
+    class ListTasksFunctionTests {
+
+        @Test
+        @DisplayName("Should hand out a cursor token and seek with it on the next call")
+        void shouldRoundTripCursorToken() {
+            // Given
+            Task task = Task.reconstitute(taskId, userId, "Listed task", Priority.LOW, Status.OPEN, now, now);
+            TaskPage firstPage = TaskPage.of(List.of(task), 1);
+            String token = TaskDtoMapper.toPagedResponse(firstPage, TaskQuery.ALL).nextCursor();
+            ListTasksRequest request = new ListTasksRequest(userId.value(), 0, 1, null, token, null, null, null, null, null);
+
+            when(validator.validate(any())).thenReturn(Collections.emptySet());
+            when(taskService.listTasksAfter(userId, TaskQuery.ALL, TaskCursor.after(task), 1)).thenReturn(TaskPage.of(List.of(), 1));
+
+            Message<ResponseWrapper<Object>> expectedMessage = mock(Message.class);
+            when(responseHelper.createResponse(any(), eq(200))).thenReturn(expectedMessage);
+
+            // When
+            var result = taskFunctions.listTasksByUser().apply(request);
+
+            // Then
+            assertThat(result).isEqualTo(expectedMessage);
+            verify(taskService).listTasksAfter(userId, TaskQuery.ALL, TaskCursor.after(task), 1);
+            verify(taskService, never()).listTasks(any(), anyInt(), anyInt(), any());
+        }
+
+        @Test
+        @DisplayName("Should pass filters down as a query")
+        void shouldPassFiltersDown() {
+            // Given
+            ListTasksRequest request = new ListTasksRequest(userId.value(), 0, 20, null, null,
+                Status.OPEN, Priority.HIGH, now.toLocalDate(), null, TaskSortOrder.OLDEST_FIRST);
+            TaskQuery expectedQuery = new TaskQuery(Status.OPEN, Priority.HIGH, now.toLocalDate(), null, TaskSortOrder.OLDEST_FIRST);
+
+            when(validator.validate(any())).thenReturn(Collections.emptySet());
+            when(taskService.listTasksAfter(userId, expectedQuery, null, 20)).thenReturn(TaskPage.of(List.of(), 20));
+
+            Message<ResponseWrapper<Object>> expectedMessage = mock(Message.class);
+            when(responseHelper.createResponse(any(), eq(200))).thenReturn(expectedMessage);
+
+            // When
+            var result = taskFunctions.listTasksByUser().apply(request);
+
+            // Then
+            assertThat(result).isEqualTo(expectedMessage);
+            verify(taskService).listTasksAfter(userId, expectedQuery, null, 20);
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor reused with different filters")
+        void shouldRejectCursorOfAnotherQuery() {
+            // Given: a token from an unfiltered listing, sent back with a date range
+            Task task = Task.reconstitute(taskId, userId, "Listed task", Priority.LOW, Status.OPEN, now, now);
+            String token = TaskDtoMapper.toPagedResponse(TaskPage.of(List.of(task), 1), TaskQuery.ALL).nextCursor();
+            ListTasksRequest request = new ListTasksRequest(userId.value(), 0, 1, null, token,
+                null, null, now.toLocalDate().plusDays(1), null, null);
+
+            when(validator.validate(any())).thenReturn(Collections.emptySet());
+
+            Message<ResponseWrapper<Object>> expectedMessage = mock(Message.class);
+            when(responseHelper.createResponse(any(), eq(400))).thenReturn(expectedMessage);
+
+            // When
+            var result = taskFunctions.listTasksByUser().apply(request);
+
+            // Then
+            assertThat(result).isEqualTo(expectedMessage);
+            verifyNoInteractions(taskService);
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor it did not issue")
+        void shouldRejectForeignCursor() {
+            // Given
+            ListTasksRequest request = new ListTasksRequest(userId.value(), 0, 10, null, "not-a-cursor", null, null, null, null, null);
+
+            when(validator.validate(any())).thenReturn(Collections.emptySet());
+
+            Message<ResponseWrapper<Object>> expectedMessage = mock(Message.class);
+            when(responseHelper.createResponse(any(), eq(400))).thenReturn(expectedMessage);
+
+            // When
+            var result = taskFunctions.listTasksByUser().apply(request);
+
+            // Then
+            assertThat(result).isEqualTo(expectedMessage);
+            verifyNoInteractions(taskService);
+        }
+    }
 }
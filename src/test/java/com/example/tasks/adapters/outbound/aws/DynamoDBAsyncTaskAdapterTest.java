@@ -0,0 +1,205 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+import io.awspring.cloud.dynamodb.DynamoDbTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DynamoDB async task adapter")
+class DynamoDBAsyncTaskAdapterTest {
+
+    TestDynamoDbClient client;
+    ExecutorService sdkThread;
+    DynamoDBAsyncTaskAdapter adapter;
+    DynamoDBTaskRepository repository;
+    UserId userId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        client = new TestDynamoDbClient();
+        sdkThread = Executors.newSingleThreadExecutor();
+        userId = UserId.of("user123");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        adapter = adapterOn(new TestDynamoDbAsyncClient(client, sdkThread));
+        // The blocking repository over the same table, to check both see the same items
+        DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(client).build();
+        repository = new DynamoDBTaskRepository(new DynamoDbTemplate(enhancedClient),
+                enhancedClient.table("tasks-test", TableSchema.fromBean(TaskEntity.class)), client, clock());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sdkThread.shutdownNow();
+    }
+
+    private DynamoDBAsyncTaskAdapter adapterOn(TestDynamoDbAsyncClient asyncClient) {
+        DynamoDbEnhancedAsyncClient enhancedClient = DynamoDbEnhancedAsyncClient.builder().dynamoDbClient(asyncClient).build();
+        return new DynamoDBAsyncTaskAdapter(enhancedClient.table("tasks-test", TableSchema.fromBean(TaskEntity.class)),
+                asyncClient, clock());
+    }
+
+    private Clock clock() {
+        return Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private Task task(String description, Priority priority, LocalDateTime createdAt) {
+        return adapter.save(new Task(TaskId.generate(), userId, description, priority, createdAt)).join();
+    }
+
+    @Test
+    @DisplayName("Should return before the store answers and complete when it does")
+    void shouldNotWaitForTheStore() {
+        // Given: responses wait until the test lets them through
+        Queue<Runnable> responses = new ArrayDeque<>();
+        DynamoDBAsyncTaskAdapter queued = adapterOn(new TestDynamoDbAsyncClient(client, responses::add));
+
+        // When
+        CompletableFuture<Task> saved = queued.save(new Task(TaskId.generate(), userId, "Task", Priority.LOW, now));
+
+        // Then
+        assertThat(saved).isNotDone();
+        while (!responses.isEmpty()) {
+            responses.poll().run();
+        }
+        assertThat(saved).isCompleted();
+        assertThat(repository.findById(saved.join().getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should write and read the items the blocking repository writes and reads")
+    void shouldShareTheTableWithTheBlockingRepository() {
+        // Given
+        Task first = task("First task", Priority.HIGH, now);
+        Task second = repository.save(new Task(TaskId.generate(), userId, "Second task", Priority.LOW, now.plusMinutes(1)));
+        task("Yesterday task", Priority.HIGH, now.minusDays(1));
+
+        // When / Then
+        assertThat(adapter.findById(second.getId()).join()).get()
+                .extracting(Task::getDescription, Task::getPriority, Task::getCreatedAt)
+                .containsExactly("Second task", Priority.LOW, now.plusMinutes(1));
+        assertThat(repository.findById(first.getId())).get()
+                .extracting(Task::getDescription, Task::getPriority, Task::getCreatedAt)
+                .containsExactly("First task", Priority.HIGH, now);
+        TaskPage page = adapter.findByUserIdAfter(userId, TaskQuery.ALL, null, 2).join();
+        assertThat(page.tasks()).extracting(Task::getDescription).containsExactly("Second task", "First task");
+        assertThat(adapter.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate()).join()).isEqualTo(1);
+        assertThat(adapter.countOpenTasksForUser(userId).join()).isEqualTo(3);
+        assertThat(adapter.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Second task").join()).isTrue();
+        assertThat(adapter.existsByUserAndDateAndDescription(userId, LocalDate.of(2024, 1, 2), "Second task").join()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fail the future with the rule a create runs into")
+    void shouldFailWithTheRuleHit() {
+        // Given
+        for (int i = 0; i < TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY; i++) {
+            task("High task " + i, Priority.HIGH, now.plusMinutes(i));
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> task("High task 0", Priority.LOW, now.plusHours(1)))
+                .hasCauseInstanceOf(TaskBusinessRuleException.class)
+                .hasRootCauseMessage(TaskBusinessRuleException.duplicateDescription().getMessage());
+        assertThatThrownBy(() -> task("One high task too many", Priority.HIGH, now.plusHours(1)))
+                .hasCauseInstanceOf(TaskBusinessRuleException.class)
+                .hasRootCauseMessage(TaskBusinessRuleException.highPriorityLimitReached().getMessage());
+    }
+
+    @Test
+    @DisplayName("Should seed the counters from the tasks written before them")
+    void shouldSeedCountersForEarlierTasks() {
+        // Given: open tasks from before the counters and the OpenTasksIndex, so without openUserId
+        for (int i = 0; i < TaskBusinessRules.MAX_OPEN_TASKS_PER_USER; i++) {
+            Map<String, AttributeValue> item = new HashMap<>(TableSchema.fromBean(TaskEntity.class).itemToMap(
+                    TaskEntity.fromDomain(new Task(TaskId.generate(), userId, "Earlier task " + i, Priority.LOW,
+                            now.minusDays(1))), true));
+            item.remove("openUserId");
+            client.putItem(PutItemRequest.builder().tableName("tasks-test").item(item).build());
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> task("One too many", Priority.LOW, now))
+                .hasCauseInstanceOf(TaskBusinessRuleException.class)
+                .hasRootCauseMessage(TaskBusinessRuleException.openTaskLimitReached().getMessage());
+        assertThat(client.item(UserTaskCounters.key(userId.value())).get(UserTaskCounters.OPEN).n())
+                .isEqualTo(Integer.toString(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER));
+    }
+
+    @Test
+    @DisplayName("Should update and delete owned tasks with the domain exceptions of the blocking repository")
+    void shouldUpdateAndDeleteOwnedTasks() {
+        // Given
+        Task task = task("Task", Priority.LOW, now);
+        UserId otherUser = UserId.of("otherUser");
+
+        // When
+        Task completed = adapter.updateOwnedTask(task.getId(), userId,
+                new TaskUpdate(null, null, Status.COMPLETED), now.plusMinutes(1)).join();
+
+        // Then
+        assertThat(completed.getStatus()).isEqualTo(Status.COMPLETED);
+        assertThat(repository.countOpenTasksForUser(userId)).isZero();
+        assertThatThrownBy(() -> adapter.updateOwnedTask(task.getId(), userId,
+                new TaskUpdate("New task", null, null), now.plusMinutes(2)).join())
+                .hasCauseInstanceOf(TaskBusinessRuleException.class);
+        assertThatThrownBy(() -> adapter.deleteOwnedTask(task.getId(), otherUser).join())
+                .hasCauseInstanceOf(TaskBusinessRuleException.class)
+                .hasRootCauseMessage("User can only access their own tasks");
+        adapter.deleteOwnedTask(task.getId(), userId).join();
+        assertThat(repository.findById(task.getId())).isEmpty();
+        assertThatThrownBy(() -> adapter.deleteOwnedTask(task.getId(), userId).join())
+                .hasCauseInstanceOf(TaskNotFoundException.class);
+        adapter.deleteById(task.getId()).join();
+    }
+
+    @Test
+    @DisplayName("Should replay a stale patch on the stored task")
+    void shouldReplayStalePatch() {
+        // Given: a patch made before someone else renamed the task
+        Task task = task("Task", Priority.LOW, now);
+        TaskPatch stale = task.patch(new TaskUpdate(null, Priority.HIGH, null), now.plusMinutes(2));
+        repository.updateOwnedTask(task.getId(), userId, new TaskUpdate("Renamed task", null, null), now.plusMinutes(1));
+
+        // When
+        adapter.save(stale).join();
+
+        // Then
+        assertThat(repository.findById(task.getId())).get()
+                .extracting(Task::getDescription, Task::getPriority)
+                .containsExactly("Renamed task", Priority.HIGH);
+    }
+}
@@ -0,0 +1,662 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskSortOrder;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+import io.awspring.cloud.dynamodb.DynamoDbTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DynamoDB Task Repository")
+class DynamoDBTaskRepositoryTest {
+
+    TestDynamoDbClient client;
+    DynamoDBTaskRepository repository;
+    UserId userId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        client = new TestDynamoDbClient();
+        userId = UserId.of("user123");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        repository = repositoryOn(client, now);
+    }
+
+    private static DynamoDBTaskRepository repositoryOn(TestDynamoDbClient client, LocalDateTime time) {
+        DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(client).build();
+        return new DynamoDBTaskRepository(new DynamoDbTemplate(enhancedClient),
+                enhancedClient.table("tasks-test", TableSchema.fromBean(TaskEntity.class)), client,
+                Clock.fixed(time.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    private long counter(UserId owner, String name) {
+        Map<String, AttributeValue> counters = client.item(UserTaskCounters.key(owner.value()));
+        return counters != null && counters.containsKey(name) ? Long.parseLong(counters.get(name).n()) : 0;
+    }
+
+    private Task task(UserId owner, String description, Priority priority, LocalDateTime createdAt) {
+        return repository.save(new Task(TaskId.generate(), owner, description, priority, createdAt));
+    }
+
+    @Nested
+    @DisplayName("Rule queries")
+    class RuleQueryTests {
+
+        @Test
+        @DisplayName("Should count and find the user's tasks of a day only")
+        void shouldAnswerRuleQueriesForUserAndDay() {
+            // Given
+            task(userId, "Midnight task", Priority.HIGH, now.toLocalDate().atStartOfDay());
+            task(userId, "High task", Priority.HIGH, now);
+            task(userId, "Low task", Priority.LOW, now.plusMinutes(1));
+            task(userId, "Yesterday task", Priority.HIGH, now.minusDays(1));
+            task(UserId.of("otherUser"), "Other task", Priority.HIGH, now);
+            Task done = task(userId, "Done task", Priority.LOW, now.plusMinutes(2));
+            repository.save(done.complete(now.plusMinutes(3)));
+
+            // When / Then
+            LocalDate today = now.toLocalDate();
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, today)).isEqualTo(2);
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Low task")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Yesterday task")).isFalse();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Other task")).isFalse();
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should read the same number of items whatever the size of the table")
+        void shouldReadItemsIndependentOfTableSize() {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                task(userId, "Task " + i, i % 2 == 0 ? Priority.HIGH : Priority.LOW, now.plusMinutes(i));
+            }
+            task(userId, "Yesterday task", Priority.HIGH, now.minusDays(1));
+            long[] small = itemsReadPerCall();
+
+            // When: the table grows a hundredfold with other users' tasks
+            for (int i = 0; i < 600; i++) {
+                task(UserId.of("user-" + i % 100), "Task " + i, Priority.LOW, now.plusMinutes(i % 5));
+            }
+            long[] large = itemsReadPerCall();
+
+            // Then: only the user's slice of the index is read, not the table
+            assertThat(large).containsExactly(small);
+            assertThat(small).containsExactly(5, 0, 6, 4);
+        }
+
+        @Test
+        @DisplayName("Should count open tasks without reading completed ones")
+        void shouldCountOpenTasksFromSparseIndex() {
+            // Given: a long history of completed tasks
+            List<Task> completed = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                Task task = task(userId, "Old task " + i, Priority.LOW, now.minusDays(i + 1));
+                completed.add(repository.save(task.complete(now)));
+            }
+            for (int i = 0; i < 3; i++) {
+                task(userId, "Open task " + i, Priority.LOW, now.plusMinutes(i));
+            }
+
+            // When
+            long itemsRead = client.itemsReadBy(() -> assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(3));
+
+            // Then
+            assertThat(itemsRead).isEqualTo(3);
+            assertThat(client.item(Map.of("id", AttributeValue.fromS(completed.get(0).getId().value()))))
+                    .doesNotContainKey("openUserId");
+        }
+
+        @Test
+        @DisplayName("Should answer the creation context in one request from the counters and sentinel")
+        void shouldReadCreationContextInOneRequest() {
+            // Given
+            task(userId, "High task", Priority.HIGH, now);
+            task(userId, "Low task", Priority.LOW, now.plusMinutes(1));
+            task(userId, "Yesterday task", Priority.HIGH, now.minusDays(1));
+            LocalDate today = now.toLocalDate();
+
+            // When
+            CreationContext[] contexts = new CreationContext[2];
+            long requests = client.requestsBy(() -> {
+                contexts[0] = repository.creationContext(userId, today, "Low task");
+                contexts[1] = repository.creationContext(userId, today, "Yesterday task");
+            });
+
+            // Then
+            assertThat(requests).isEqualTo(2);
+            assertThat(contexts[0]).isEqualTo(new CreationContext(true, 1, 3));
+            assertThat(contexts[1]).isEqualTo(new CreationContext(false, 1, 3));
+            assertThat(repository.creationContext(UserId.of("nobody"), today, "Low task"))
+                    .isEqualTo(new CreationContext(false, 0, 0));
+        }
+
+        private long[] itemsReadPerCall() {
+            LocalDate today = now.toLocalDate();
+            return new long[] {
+                    client.itemsReadBy(() -> repository.countHighPriorityTasksForUserOnDate(userId, today)),
+                    client.itemsReadBy(() -> repository.existsByUserAndDateAndDescription(userId, today, "Missing")),
+                    client.itemsReadBy(() -> repository.countOpenTasksForUser(userId)),
+                    client.itemsReadBy(() -> repository.findByUserId(userId, 1, 2))
+            };
+        }
+    }
+
+    @Nested
+    @DisplayName("Listing")
+    class ListingTests {
+
+        @Test
+        @DisplayName("Should page the user's tasks newest first")
+        void shouldPageNewestFirst() {
+            // Given
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                tasks.add(task(userId, "Task " + i, Priority.LOW, now.plusMinutes(i)));
+            }
+            task(UserId.of("otherUser"), "Other task", Priority.LOW, now.plusMinutes(10));
+
+            // When / Then
+            assertThat(repository.findByUserId(userId, 0, 2)).extracting(Task::getId)
+                    .containsExactly(tasks.get(4).getId(), tasks.get(3).getId());
+            assertThat(repository.findByUserId(userId, 2, 2)).extracting(Task::getId)
+                    .containsExactly(tasks.get(0).getId());
+            assertThat(repository.findByUserId(userId, 3, 2)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should follow the cursor through filtered pages")
+        void shouldFollowCursorThroughFilteredPages() {
+            // Given
+            List<Task> high = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                Task task = task(userId, "Task " + i, i % 2 == 0 ? Priority.HIGH : Priority.LOW, now.plusMinutes(i));
+                if (task.isHighPriority()) {
+                    high.add(task);
+                }
+            }
+            TaskQuery query = new TaskQuery(Status.OPEN, Priority.HIGH, null, null, TaskSortOrder.OLDEST_FIRST);
+
+            // When
+            var first = repository.findByUserIdAfter(userId, query, null, 2);
+            var second = repository.findByUserIdAfter(userId, query, first.nextCursor(), 2);
+
+            // Then
+            assertThat(first.tasks()).extracting(Task::getId).containsExactly(high.get(0).getId(), high.get(1).getId());
+            assertThat(second.tasks()).extracting(Task::getId).containsExactly(high.get(2).getId());
+            assertThat(second.nextCursor()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Per-user counters")
+    class CounterTests {
+
+        @Test
+        @DisplayName("Should create a task and check its quotas in one round trip")
+        void shouldCreateInOneRoundTrip() {
+            // Given: the user's first write has seeded their counters
+            task(userId, "First task", Priority.LOW, now);
+            Task task = new Task(TaskId.generate(), userId, "New task", Priority.HIGH, now);
+
+            // When
+            long requests = client.requestsBy(() -> repository.save(task));
+
+            // Then
+            assertThat(requests).isEqualTo(1);
+            assertThat(repository.findById(task.getId())).isPresent();
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isEqualTo(2);
+            assertThat(counter(userId, UserTaskCounters.HIGH_PRIORITY)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should reject the high priority task over the daily limit in the write")
+        void shouldRejectHighPriorityTaskOverDailyLimit() {
+            // Given
+            for (int i = 0; i < TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY; i++) {
+                task(userId, "High task " + i, Priority.HIGH, now.plusMinutes(i));
+            }
+
+            // When / Then
+            assertThatThrownBy(() -> task(userId, "One too many", Priority.HIGH, now.plusHours(1)))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessageContaining("high priority tasks per day");
+            task(userId, "Low task", Priority.LOW, now.plusHours(1));
+            task(userId, "Tomorrow's task", Priority.HIGH, now.plusDays(1));
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate()))
+                    .isEqualTo(TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY);
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isEqualTo(TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY + 2);
+        }
+
+        @Test
+        @DisplayName("Should free quota when tasks are completed or deleted")
+        void shouldFreeQuotaOnCompleteAndDelete() {
+            // Given
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < TaskBusinessRules.MAX_OPEN_TASKS_PER_USER; i++) {
+                tasks.add(task(userId, "Task " + i, i < 5 ? Priority.HIGH : Priority.LOW, now.plusSeconds(i)));
+            }
+            assertThatThrownBy(() -> task(userId, "One too many", Priority.LOW, now))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessageContaining("open tasks");
+
+            // When
+            repository.save(tasks.get(10).complete(now.plusHours(1)));
+            repository.deleteById(tasks.get(0).getId());
+
+            // Then
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isEqualTo(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER - 2);
+            assertThat(counter(userId, UserTaskCounters.HIGH_PRIORITY)).isEqualTo(4);
+            task(userId, "Another high task", Priority.HIGH, now.plusHours(2));
+            task(userId, "Another low task", Priority.LOW, now.plusHours(2));
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+        }
+
+        @Test
+        @DisplayName("Should keep the counters when an update leaves them unchanged")
+        void shouldKeepCountersOnPlainUpdate() {
+            // Given
+            Task task = task(userId, "Task", Priority.LOW, now);
+
+            // When
+            repository.save(task.updateDescription("Renamed task", now.plusMinutes(1)));
+            repository.save(task.updateDescription("Renamed again", now.plusMinutes(2)).changePriority(Priority.HIGH, now.plusMinutes(2)));
+
+            // Then
+            assertThat(repository.findById(task.getId())).get().extracting(Task::getDescription).isEqualTo("Renamed again");
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isEqualTo(1);
+            assertThat(counter(userId, UserTaskCounters.HIGH_PRIORITY)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should hold the open task limit across concurrent instances")
+        void shouldHoldLimitAcrossInstances() throws Exception {
+            // Given: one repository per instance, all on the same table
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            AtomicInteger rejected = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+
+            // When
+            for (int instance = 0; instance < 8; instance++) {
+                DynamoDBTaskRepository tasks = repositoryOn(client, now);
+                int id = instance;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        try {
+                            tasks.save(new Task(TaskId.generate(), userId, "Task " + id + "-" + i, Priority.LOW, now));
+                        } catch (TaskBusinessRuleException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Then
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+            assertThat(rejected).hasValue(80 - TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+        }
+
+        @Test
+        @DisplayName("Should seed the counters from the tasks written before them")
+        void shouldSeedCountersForEarlierTasks() {
+            // Given: tasks and a per-day counters item left by earlier versions, which never counted them;
+            // the tasks predate the OpenTasksIndex too, so they have no openUserId
+            for (int i = 0; i < TaskBusinessRules.MAX_OPEN_TASKS_PER_USER; i++) {
+                Task task = Task.reconstitute(TaskId.generate(), userId, "Earlier task " + i,
+                        i < TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY ? Priority.HIGH : Priority.LOW,
+                        i == 0 ? Status.COMPLETED : Status.OPEN, now.minusHours(1), now.minusHours(1));
+                Map<String, AttributeValue> item = new HashMap<>(
+                        TableSchema.fromBean(TaskEntity.class).itemToMap(TaskEntity.fromDomain(task), true));
+                item.remove("openUserId");
+                client.putItem(PutItemRequest.builder().tableName("tasks-test").item(item).build());
+            }
+            Map<String, AttributeValue> legacy = new HashMap<>(UserTaskCounters.key(userId.value()));
+            legacy.put(UserTaskCounters.OPEN, AttributeValue.fromN("1"));
+            legacy.put("highPriority_2023-12-31", AttributeValue.fromN("3"));
+            client.putItem(PutItemRequest.builder().tableName("tasks-test").item(legacy).build());
+
+            // When
+            assertThatThrownBy(() -> task(userId, "High task", Priority.HIGH, now))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessageContaining("high priority tasks per day");
+            task(userId, "Last task", Priority.LOW, now);
+
+            // Then
+            assertThatThrownBy(() -> task(userId, "One too many", Priority.LOW, now))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessageContaining("open tasks");
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isEqualTo(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+            assertThat(counter(userId, UserTaskCounters.HIGH_PRIORITY))
+                    .isEqualTo(TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY);
+            assertThat(client.item(UserTaskCounters.key(userId.value()))).doesNotContainKey("highPriority_2023-12-31");
+        }
+
+        @Test
+        @DisplayName("Should keep only the current day's high priority count")
+        void shouldRollHighPriorityCountOverToNextDay() {
+            // Given
+            for (int i = 0; i < TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY; i++) {
+                task(userId, "High task " + i, Priority.HIGH, now.plusMinutes(i));
+            }
+            LocalDateTime tomorrow = now.plusDays(1);
+            DynamoDBTaskRepository nextDay = repositoryOn(client, tomorrow);
+
+            // When
+            nextDay.save(new Task(TaskId.generate(), userId, "Next day task", Priority.HIGH, tomorrow));
+            nextDay.deleteById(nextDay.findByUserId(userId, 0, 10).get(1).getId());
+
+            // Then
+            Map<String, AttributeValue> counters = client.item(UserTaskCounters.key(userId.value()));
+            assertThat(counters.get(UserTaskCounters.HIGH_PRIORITY_DAY).s()).isEqualTo(tomorrow.toLocalDate().toString());
+            assertThat(counter(userId, UserTaskCounters.HIGH_PRIORITY)).isEqualTo(1);
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isEqualTo(TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY);
+            assertThat(repository.creationContext(userId, now.toLocalDate(), "Any").highPriorityTasksToday()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Description sentinels")
+    class DescriptionSentinelTests {
+
+        @Test
+        @DisplayName("Should key sentinels by a fixed-size hash of the trimmed description")
+        void shouldKeySentinelsByDescriptionHash() {
+            // Given
+            task(userId, "x".repeat(TaskBusinessRules.MAX_DESCRIPTION_LENGTH), Priority.LOW, now);
+
+            // When
+            String id = DescriptionSentinel.key(userId.value(), now.toLocalDate(), "Any description").get("id").s();
+
+            // Then
+            assertThat(id).hasSize(("description#" + userId.value() + "#" + now.toLocalDate() + "#").length() + 32);
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(),
+                    " " + "x".repeat(TaskBusinessRules.MAX_DESCRIPTION_LENGTH) + " ")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should reject a duplicate description in the write without reading")
+        void shouldRejectDuplicateWithoutReading() {
+            // Given
+            task(userId, "Same description", Priority.LOW, now);
+            Task duplicate = new Task(TaskId.generate(), userId, "Same description", Priority.LOW, now.plusHours(1));
+
+            // When: a rejected save leaves nothing behind, so it can be measured twice
+            long requests = client.requestsBy(() -> assertThatThrownBy(() -> repository.save(duplicate))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessage("Description must be unique per user per day"));
+            long itemsRead = client.itemsReadBy(() -> assertThatThrownBy(() -> repository.save(duplicate))
+                    .isInstanceOf(TaskBusinessRuleException.class));
+
+            // Then
+            assertThat(requests).isEqualTo(1);
+            assertThat(itemsRead).isZero();
+            assertThat(repository.findById(duplicate.getId())).isEmpty();
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should scope descriptions to the user and the day")
+        void shouldScopeDescriptionsToUserAndDay() {
+            // Given
+            task(userId, "Same description", Priority.LOW, now);
+
+            // When
+            task(userId, "Same description", Priority.LOW, now.plusDays(1));
+            task(UserId.of("otherUser"), "Same description", Priority.LOW, now);
+
+            // Then
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Same description")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate().plusDays(2), "Same description")).isFalse();
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should release the description when the task is deleted or renamed")
+        void shouldReleaseDescriptionOnDeleteAndRename() {
+            // Given
+            Task deleted = task(userId, "Deleted task", Priority.LOW, now);
+            Task renamed = task(userId, "Old name", Priority.LOW, now);
+
+            // When
+            repository.deleteById(deleted.getId());
+            repository.save(renamed.updateDescription("New name", now.plusMinutes(1)));
+
+            // Then
+            LocalDate today = now.toLocalDate();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Deleted task")).isFalse();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Old name")).isFalse();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "New name")).isTrue();
+            task(userId, "Deleted task", Priority.LOW, now.plusHours(1));
+            task(userId, "Old name", Priority.LOW, now.plusHours(1));
+            assertThatThrownBy(() -> task(userId, "New name", Priority.LOW, now.plusHours(1)))
+                    .isInstanceOf(TaskBusinessRuleException.class);
+        }
+
+        @Test
+        @DisplayName("Should let updates share a description, like the other adapters")
+        void shouldAllowDuplicateDescriptionOnUpdate() {
+            // Given
+            Task first = task(userId, "Shared", Priority.LOW, now);
+            Task second = task(userId, "Other", Priority.LOW, now);
+
+            // When
+            repository.save(second.updateDescription("Shared", now.plusMinutes(1)));
+            repository.save(first.updateDescription("Renamed", now.plusMinutes(2)));
+
+            // Then: the description stays taken until the last task with it lets go
+            LocalDate today = now.toLocalDate();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Shared")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Other")).isFalse();
+            repository.deleteById(second.getId());
+            assertThat(repository.existsByUserAndDateAndDescription(userId, today, "Shared")).isFalse();
+            task(userId, "Shared", Priority.LOW, now.plusHours(1));
+        }
+
+        @Test
+        @DisplayName("Should let sentinels expire once their day is over")
+        void shouldExpireSentinelsAfterTheirDay() {
+            // Given
+            Task task = task(userId, "Expiring", Priority.LOW, now);
+
+            // When
+            Map<String, AttributeValue> claimed = client.item(
+                    DescriptionSentinel.key(userId.value(), now.toLocalDate(), "Expiring"));
+            repository.deleteById(task.getId());
+            Map<String, AttributeValue> released = client.item(
+                    DescriptionSentinel.key(userId.value(), now.toLocalDate(), "Expiring"));
+
+            // Then: the TTL is set on claim and kept on release, when the count drops to zero
+            long endOfDay = now.toLocalDate().plusDays(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+            assertThat(Long.parseLong(claimed.get(DescriptionSentinel.EXPIRES_AT).n())).isGreaterThan(endOfDay);
+            assertThat(released.get(DescriptionSentinel.TASK_COUNT).n()).isEqualTo("0");
+            assertThat(released.get(DescriptionSentinel.EXPIRES_AT)).isEqualTo(claimed.get(DescriptionSentinel.EXPIRES_AT));
+        }
+
+        @Test
+        @DisplayName("Should backfill the sentinels of today's tasks written before them")
+        void shouldBackfillSentinelsForEarlierTasks() {
+            // Given: one task from before the sentinels, one with the sentinel that only named its task
+            Task unclaimed = new Task(TaskId.generate(), userId, "Unclaimed", Priority.LOW, now.minusHours(2));
+            Task named = new Task(TaskId.generate(), userId, "Named", Priority.LOW, now.minusHours(1));
+            for (Task task : List.of(unclaimed, named)) {
+                client.putItem(PutItemRequest.builder()
+                        .tableName("tasks-test")
+                        .item(TableSchema.fromBean(TaskEntity.class).itemToMap(TaskEntity.fromDomain(task), true))
+                        .build());
+            }
+            Map<String, AttributeValue> sentinel = new HashMap<>(DescriptionSentinel.key(userId.value(), now.toLocalDate(), "Named"));
+            sentinel.put("taskId", AttributeValue.fromS(named.getId().value()));
+            client.putItem(PutItemRequest.builder().tableName("tasks-test").item(sentinel).build());
+
+            // When / Then
+            assertThatThrownBy(() -> task(userId, "Unclaimed", Priority.LOW, now))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessage("Description must be unique per user per day");
+            assertThatThrownBy(() -> task(userId, "Named", Priority.LOW, now))
+                    .isInstanceOf(TaskBusinessRuleException.class);
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Named")).isTrue();
+            assertThat(client.item(DescriptionSentinel.key(userId.value(), now.toLocalDate(), "Unclaimed")))
+                    .containsKey(DescriptionSentinel.EXPIRES_AT);
+            repository.deleteById(named.getId());
+            task(userId, "Named", Priority.LOW, now);
+        }
+    }
+
+    @Nested
+    @DisplayName("Conditional mutations")
+    class ConditionalMutationTests {
+
+        @Test
+        @DisplayName("Should update the owner's task with one read and one conditional write")
+        void shouldUpdateOwnTaskInTwoRequests() {
+            // Given
+            Task task = task(userId, "Task", Priority.HIGH, now);
+            TaskUpdate update = new TaskUpdate("Renamed task", Priority.LOW, Status.COMPLETED);
+
+            // When
+            AtomicReference<Task> updated = new AtomicReference<>();
+            long requests = client.requestsBy(() ->
+                    updated.set(repository.updateOwnedTask(task.getId(), userId, update, now.plusMinutes(1))));
+
+            // Then
+            assertThat(requests).isEqualTo(2);
+            assertThat(updated.get().getDescription()).isEqualTo("Renamed task");
+            assertThat(updated.get().getStatus()).isEqualTo(Status.COMPLETED);
+            assertThat(repository.findById(task.getId())).get().extracting(Task::getPriority).isEqualTo(Priority.LOW);
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isZero();
+            assertThat(counter(userId, UserTaskCounters.HIGH_PRIORITY)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should write only the changed attributes")
+        void shouldWriteOnlyChangedAttributes() {
+            // Given
+            Task task = task(userId, "Task", Priority.LOW, now);
+
+            // When
+            repository.updateOwnedTask(task.getId(), userId, new TaskUpdate("Task", Priority.LOW, Status.COMPLETED), now.plusMinutes(1));
+
+            // Then
+            Update update = client.lastTransaction().transactItems().get(0).update();
+            assertThat(update.updateExpression())
+                    .isEqualTo("SET #status = :newStatus, #updatedAt = :updatedAt REMOVE openUserId");
+            assertThat(update.expressionAttributeValues()).doesNotContainKeys(":newDescription", ":newPriority");
+            assertThat(repository.findById(task.getId())).get()
+                    .extracting(Task::getDescription, Task::getStatus, Task::getUpdatedAt)
+                    .containsExactly("Task", Status.COMPLETED, now.plusMinutes(1));
+        }
+
+        @Test
+        @DisplayName("Should replay a stale patch on the stored task")
+        void shouldReplayStalePatch() {
+            // Given: a patch made before someone else renamed the task
+            Task task = task(userId, "Task", Priority.LOW, now);
+            TaskPatch stale = task.patch(new TaskUpdate(null, Priority.HIGH, null), now.plusMinutes(2));
+            repository.updateOwnedTask(task.getId(), userId, new TaskUpdate("Renamed task", null, null), now.plusMinutes(1));
+
+            // When
+            repository.save(stale);
+
+            // Then
+            assertThat(repository.findById(task.getId())).get()
+                    .extracting(Task::getDescription, Task::getPriority)
+                    .containsExactly("Renamed task", Priority.HIGH);
+            assertThat(counter(userId, UserTaskCounters.HIGH_PRIORITY)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should raise the domain exceptions for missing, foreign and completed tasks")
+        void shouldRaiseDomainExceptions() {
+            // Given
+            Task task = task(userId, "Task", Priority.LOW, now);
+            TaskUpdate rename = new TaskUpdate("Renamed task", null, null);
+
+            // When / Then
+            assertThatThrownBy(() -> repository.updateOwnedTask(TaskId.generate(), userId, rename, now))
+                    .isInstanceOf(TaskNotFoundException.class);
+            assertThatThrownBy(() -> repository.updateOwnedTask(task.getId(), UserId.of("otherUser"), rename, now))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessage("User can only access their own tasks");
+            assertThatThrownBy(() -> repository.deleteOwnedTask(task.getId(), UserId.of("otherUser")))
+                    .isInstanceOf(TaskBusinessRuleException.class);
+            repository.updateOwnedTask(task.getId(), userId, new TaskUpdate(null, null, Status.COMPLETED), now);
+            assertThatThrownBy(() -> repository.updateOwnedTask(task.getId(), userId, rename, now))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessage("Cannot update completed task");
+            assertThat(repository.findById(task.getId())).get().extracting(Task::getDescription).isEqualTo("Task");
+        }
+
+        @Test
+        @DisplayName("Should not write when the update changes nothing")
+        void shouldSkipWriteForNoOpUpdate() {
+            // Given
+            Task task = task(userId, "Task", Priority.LOW, now);
+            repository.updateOwnedTask(task.getId(), userId, new TaskUpdate(null, null, Status.COMPLETED), now);
+
+            // When
+            long requests = client.requestsBy(() -> assertThat(repository.updateOwnedTask(
+                    task.getId(), userId, new TaskUpdate("Task", null, Status.COMPLETED), now.plusMinutes(1)))
+                    .extracting(Task::getUpdatedAt).isEqualTo(now));
+
+            // Then
+            assertThat(requests).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should delete the owner's task with one read and one conditional write")
+        void shouldDeleteOwnTaskInTwoRequests() {
+            // Given
+            Task task = task(userId, "Task", Priority.HIGH, now);
+
+            // When
+            long requests = client.requestsBy(() -> repository.deleteOwnedTask(task.getId(), userId));
+
+            // Then
+            assertThat(requests).isEqualTo(2);
+            assertThat(repository.findById(task.getId())).isEmpty();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Task")).isFalse();
+            assertThat(counter(userId, UserTaskCounters.OPEN)).isZero();
+            assertThatThrownBy(() -> repository.deleteOwnedTask(task.getId(), userId))
+                    .isInstanceOf(TaskNotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Async face of a {@link TestDynamoDbClient}: each request is answered by the
+ * shared table and completed on {@code executor}, the way the SDK completes
+ * its futures on its own threads. Failures arrive wrapped in a
+ * CompletionException, as they do from the SDK.
+ */
+class TestDynamoDbAsyncClient implements DynamoDbAsyncClient {
+
+    private final TestDynamoDbClient table;
+    private final Executor executor;
+
+    TestDynamoDbAsyncClient(TestDynamoDbClient table, Executor executor) {
+        this.table = table;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+        return answer(() -> table.putItem(request));
+    }
+
+    @Override
+    public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+        return answer(() -> table.getItem(request));
+    }
+
+    @Override
+    public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+        return answer(() -> table.updateItem(request));
+    }
+
+    @Override
+    public CompletableFuture<TransactGetItemsResponse> transactGetItems(TransactGetItemsRequest request) {
+        return answer(() -> table.transactGetItems(request));
+    }
+
+    @Override
+    public CompletableFuture<DeleteItemResponse> deleteItem(DeleteItemRequest request) {
+        return answer(() -> table.deleteItem(request));
+    }
+
+    @Override
+    public CompletableFuture<TransactWriteItemsResponse> transactWriteItems(TransactWriteItemsRequest request) {
+        return answer(() -> table.transactWriteItems(request));
+    }
+
+    @Override
+    public CompletableFuture<QueryResponse> query(QueryRequest request) {
+        return answer(() -> table.query(request));
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private <T> CompletableFuture<T> answer(Supplier<T> request) {
+        CompletableFuture<T> response = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                response.complete(request.get());
+            } catch (RuntimeException e) {
+                response.completeExceptionally(new CompletionException(e));
+            }
+        });
+        return response;
+    }
+}
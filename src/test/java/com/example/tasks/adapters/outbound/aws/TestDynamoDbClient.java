@@ -0,0 +1,427 @@
+package com.example.tasks.adapters.outbound.aws;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-table stand-in for DynamoDB that understands the key conditions,
+ * filters, condition and update expressions the AWS adapter sends, and
+ * counts requests and the items each one reads. Unsupported operations,
+ * scans included, fail.
+ */
+class TestDynamoDbClient implements DynamoDbClient {
+
+    private static final Map<String, String> INDEX_PARTITION_KEYS =
+            Map.of("UserIdIndex", "userId", "OpenTasksIndex", "openUserId");
+    private static final Set<String> KEYS_ONLY_INDEXES = Set.of("OpenTasksIndex");
+    private static final Pattern TOKEN = Pattern.compile("\\(|\\)|,|<=|>=|<>|=|<|>|[^\\s(),=<>]+");
+
+    private final Map<String, Map<String, AttributeValue>> items = new HashMap<>();
+    private long itemsRead;
+    private long requests;
+    private TransactWriteItemsRequest lastTransaction;
+
+    synchronized long itemsReadBy(Runnable call) {
+        long before = itemsRead;
+        call.run();
+        return itemsRead - before;
+    }
+
+    synchronized long requestsBy(Runnable call) {
+        long before = requests;
+        call.run();
+        return requests - before;
+    }
+
+    synchronized TransactWriteItemsRequest lastTransaction() {
+        return lastTransaction;
+    }
+
+    synchronized Map<String, AttributeValue> item(Map<String, AttributeValue> key) {
+        return items.get(key.get("id").s());
+    }
+
+    @Override
+    public synchronized PutItemResponse putItem(PutItemRequest request) {
+        requests++;
+        String id = request.item().get("id").s();
+        check(request.conditionExpression(), request.expressionAttributeNames(), request.expressionAttributeValues(),
+                items.get(id));
+        items.put(id, new HashMap<>(request.item()));
+        return PutItemResponse.builder().build();
+    }
+
+    @Override
+    public synchronized UpdateItemResponse updateItem(UpdateItemRequest request) {
+        requests++;
+        String id = request.key().get("id").s();
+        check(request.conditionExpression(), request.expressionAttributeNames(), request.expressionAttributeValues(),
+                items.get(id));
+        update(items.computeIfAbsent(id, ignored -> new HashMap<>(request.key())), request.updateExpression(),
+                request.expressionAttributeNames(), request.expressionAttributeValues());
+        return UpdateItemResponse.builder().build();
+    }
+
+    @Override
+    public synchronized GetItemResponse getItem(GetItemRequest request) {
+        requests++;
+        Map<String, AttributeValue> item = items.get(request.key().get("id").s());
+        itemsRead += item != null ? 1 : 0;
+        return GetItemResponse.builder().item(item).build();
+    }
+
+    // One request, however many items; a missing item comes back as an empty response
+    @Override
+    public synchronized TransactGetItemsResponse transactGetItems(TransactGetItemsRequest request) {
+        requests++;
+        List<ItemResponse> responses = new ArrayList<>();
+        for (TransactGetItem get : request.transactItems()) {
+            Map<String, AttributeValue> item = items.get(get.get().key().get("id").s());
+            itemsRead += item != null ? 1 : 0;
+            responses.add(ItemResponse.builder().item(item).build());
+        }
+        return TransactGetItemsResponse.builder().responses(responses).build();
+    }
+
+    @Override
+    public synchronized DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        requests++;
+        items.remove(request.key().get("id").s());
+        return DeleteItemResponse.builder().build();
+    }
+
+    @Override
+    public synchronized TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+        requests++;
+        lastTransaction = request;
+        // All conditions are checked against the state before any write is applied
+        List<CancellationReason> reasons = new ArrayList<>();
+        boolean cancelled = false;
+        for (TransactWriteItem write : request.transactItems()) {
+            Write action = Write.of(write);
+            Map<String, AttributeValue> current = items.get(action.key().get("id").s());
+            if (action.condition() == null
+                    || condition(action.condition(), action.names(), action.values()).test(current != null ? current : Map.of())) {
+                reasons.add(CancellationReason.builder().code("None").build());
+            } else {
+                cancelled = true;
+                reasons.add(CancellationReason.builder()
+                        .code("ConditionalCheckFailed")
+                        .item(action.returnOld() ? current : null)
+                        .build());
+            }
+        }
+        if (cancelled) {
+            throw TransactionCanceledException.builder().cancellationReasons(reasons).build();
+        }
+        for (TransactWriteItem write : request.transactItems()) {
+            Write action = Write.of(write);
+            String id = action.key().get("id").s();
+            if (write.put() != null) {
+                items.put(id, new HashMap<>(write.put().item()));
+            } else if (write.delete() != null) {
+                items.remove(id);
+            } else if (write.update() != null) {
+                Map<String, AttributeValue> item = items.computeIfAbsent(id, ignored -> new HashMap<>(action.key()));
+                update(item, write.update().updateExpression(), action.names(), action.values());
+            }
+        }
+        return TransactWriteItemsResponse.builder().build();
+    }
+
+    @Override
+    public synchronized QueryResponse query(QueryRequest request) {
+        requests++;
+        // Only the index queries are supported: an index holds the items that have both its keys
+        String partitionKey = INDEX_PARTITION_KEYS.get(request.indexName());
+        Comparator<Map<String, AttributeValue>> order = Comparator
+                .comparing((Map<String, AttributeValue> item) -> item.get("createdAt").s())
+                .thenComparing(item -> item.get("id").s());
+        Predicate<Map<String, AttributeValue>> keyCondition =
+                condition(request.keyConditionExpression(), request.expressionAttributeNames(), request.expressionAttributeValues());
+        Predicate<Map<String, AttributeValue>> filter = request.filterExpression() == null
+                ? item -> true
+                : condition(request.filterExpression(), request.expressionAttributeNames(), request.expressionAttributeValues());
+        List<Map<String, AttributeValue>> slice = items.values().stream()
+                .filter(item -> item.containsKey(partitionKey) && item.containsKey("createdAt"))
+                .filter(keyCondition)
+                .sorted(Boolean.FALSE.equals(request.scanIndexForward()) ? order.reversed() : order)
+                .toList();
+
+        int from = 0;
+        if (request.hasExclusiveStartKey()) {
+            Map<String, AttributeValue> start = request.exclusiveStartKey();
+            while (from < slice.size() && !slice.get(from).get("id").equals(start.get("id"))) {
+                from++;
+            }
+            from++;
+        }
+        int to = request.limit() != null ? Math.min(slice.size(), from + request.limit()) : slice.size();
+
+        List<Map<String, AttributeValue>> matched = new ArrayList<>();
+        for (Map<String, AttributeValue> item : slice.subList(Math.min(from, to), to)) {
+            itemsRead++;
+            if (filter.test(item)) {
+                matched.add(item);
+            }
+        }
+        QueryResponse.Builder response = QueryResponse.builder()
+                .count(matched.size())
+                .scannedCount(Math.max(0, to - from));
+        if (request.select() != Select.COUNT) {
+            response.items(KEYS_ONLY_INDEXES.contains(request.indexName())
+                    ? matched.stream().map(item -> Map.of("id", item.get("id"), partitionKey, item.get(partitionKey),
+                            "createdAt", item.get("createdAt"))).toList()
+                    : matched);
+        }
+        if (to < slice.size()) {
+            Map<String, AttributeValue> last = slice.get(to - 1);
+            response.lastEvaluatedKey(Map.of("id", last.get("id"), partitionKey, last.get(partitionKey),
+                    "createdAt", last.get("createdAt")));
+        }
+        return response.build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private record Write(Map<String, AttributeValue> key, String condition, Map<String, String> names,
+                         Map<String, AttributeValue> values, boolean returnOld) {
+
+        static Write of(TransactWriteItem write) {
+            if (write.put() != null) {
+                var put = write.put();
+                return new Write(Map.of("id", put.item().get("id")), put.conditionExpression(),
+                        put.expressionAttributeNames(), put.expressionAttributeValues(),
+                        put.returnValuesOnConditionCheckFailure() == ReturnValuesOnConditionCheckFailure.ALL_OLD);
+            }
+            if (write.delete() != null) {
+                var delete = write.delete();
+                return new Write(delete.key(), delete.conditionExpression(), delete.expressionAttributeNames(),
+                        delete.expressionAttributeValues(),
+                        delete.returnValuesOnConditionCheckFailure() == ReturnValuesOnConditionCheckFailure.ALL_OLD);
+            }
+            if (write.update() != null) {
+                var update = write.update();
+                return new Write(update.key(), update.conditionExpression(), update.expressionAttributeNames(),
+                        update.expressionAttributeValues(),
+                        update.returnValuesOnConditionCheckFailure() == ReturnValuesOnConditionCheckFailure.ALL_OLD);
+            }
+            var check = write.conditionCheck();
+            return new Write(check.key(), check.conditionExpression(), check.expressionAttributeNames(),
+                    check.expressionAttributeValues(),
+                    check.returnValuesOnConditionCheckFailure() == ReturnValuesOnConditionCheckFailure.ALL_OLD);
+        }
+    }
+
+    private static void check(String condition, Map<String, String> names, Map<String, AttributeValue> values,
+                              Map<String, AttributeValue> current) {
+        if (condition != null && !condition(condition, names, values).test(current != null ? current : Map.of())) {
+            throw ConditionalCheckFailedException.builder().message("The conditional request failed").build();
+        }
+    }
+
+    // SET a = b, ADD a :n and REMOVE a clauses, comma separated
+    private static void update(Map<String, AttributeValue> item, String expression,
+                               Map<String, String> names, Map<String, AttributeValue> values) {
+        List<String> tokens = tokenize(expression);
+        String clause = null;
+        int i = 0;
+        while (i < tokens.size()) {
+            String token = tokens.get(i);
+            if (token.equalsIgnoreCase("SET") || token.equalsIgnoreCase("ADD") || token.equalsIgnoreCase("REMOVE")) {
+                clause = token.toUpperCase();
+                i++;
+                continue;
+            }
+            if (token.equals(",")) {
+                i++;
+                continue;
+            }
+            String name = names.getOrDefault(token, token);
+            switch (clause) {
+                case "SET" -> {
+                    item.put(name, values.get(tokens.get(i + 2)));
+                    i += 3;
+                }
+                case "ADD" -> {
+                    BigDecimal current = item.containsKey(name) ? new BigDecimal(item.get(name).n()) : BigDecimal.ZERO;
+                    item.put(name, AttributeValue.fromN(current.add(new BigDecimal(values.get(tokens.get(i + 1)).n())).toPlainString()));
+                    i += 2;
+                }
+                case "REMOVE" -> {
+                    item.remove(name);
+                    i++;
+                }
+                default -> throw new UnsupportedOperationException("Update expression " + expression);
+            }
+        }
+    }
+
+    private static Predicate<Map<String, AttributeValue>> condition(
+            String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+        return new Parser(tokenize(expression), names, values).parse();
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(expression);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        return tokens;
+    }
+
+    /** OR, AND, NOT, parentheses, comparisons, BETWEEN and attribute_(not_)exists. */
+    private static final class Parser {
+
+        private final List<String> tokens;
+        private final Map<String, String> names;
+        private final Map<String, AttributeValue> values;
+        private int position;
+
+        Parser(List<String> tokens, Map<String, String> names, Map<String, AttributeValue> values) {
+            this.tokens = tokens;
+            this.names = names;
+            this.values = values;
+        }
+
+        Predicate<Map<String, AttributeValue>> parse() {
+            Predicate<Map<String, AttributeValue>> condition = or();
+            if (position != tokens.size()) {
+                throw new UnsupportedOperationException("Unexpected " + tokens.get(position) + " in " + tokens);
+            }
+            return condition;
+        }
+
+        private Predicate<Map<String, AttributeValue>> or() {
+            Predicate<Map<String, AttributeValue>> condition = and();
+            while (accept("OR")) {
+                condition = condition.or(and());
+            }
+            return condition;
+        }
+
+        private Predicate<Map<String, AttributeValue>> and() {
+            Predicate<Map<String, AttributeValue>> condition = unary();
+            while (accept("AND")) {
+                condition = condition.and(unary());
+            }
+            return condition;
+        }
+
+        private Predicate<Map<String, AttributeValue>> unary() {
+            if (accept("NOT")) {
+                return unary().negate();
+            }
+            if (accept("(")) {
+                Predicate<Map<String, AttributeValue>> condition = or();
+                expect(")");
+                return condition;
+            }
+            if (accept("attribute_exists") || accept("attribute_not_exists")) {
+                boolean exists = tokens.get(position - 1).equals("attribute_exists");
+                expect("(");
+                String token = next();
+                String name = names.getOrDefault(token, token);
+                expect(")");
+                return item -> item.containsKey(name) == exists;
+            }
+            String left = next();
+            if (accept("BETWEEN")) {
+                String lower = next();
+                expect("AND");
+                String upper = next();
+                return item -> compare(item, left, lower) >= 0 && compare(item, left, upper) <= 0;
+            }
+            String operator = next();
+            String right = next();
+            return item -> {
+                Integer comparison = compare(item, left, right);
+                return comparison != null && switch (operator) {
+                    case "=" -> comparison == 0;
+                    case "<>" -> comparison != 0;
+                    case "<" -> comparison < 0;
+                    case "<=" -> comparison <= 0;
+                    case ">" -> comparison > 0;
+                    case ">=" -> comparison >= 0;
+                    default -> throw new UnsupportedOperationException("Operator " + operator);
+                };
+            };
+        }
+
+        // Null when either side is missing, which fails every comparison
+        private Integer compare(Map<String, AttributeValue> item, String left, String right) {
+            AttributeValue a = operand(item, left);
+            AttributeValue b = operand(item, right);
+            if (a == null || b == null) {
+                return null;
+            }
+            if (a.n() != null && b.n() != null) {
+                return new BigDecimal(a.n()).compareTo(new BigDecimal(b.n()));
+            }
+            return a.s() != null && b.s() != null ? Integer.valueOf(a.s().compareTo(b.s())) : null;
+        }
+
+        private AttributeValue operand(Map<String, AttributeValue> item, String token) {
+            return token.startsWith(":") ? values.get(token) : item.get(names.getOrDefault(token, token));
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw new UnsupportedOperationException("Expected " + token + " in " + tokens);
+            }
+        }
+
+        private String next() {
+            return tokens.get(position++);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.tasks.adapters.outbound.cache;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.tasks.adapters.outbound.local.InMemoryTaskRepository;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Caching Task Repository")
+class CachingTaskRepositoryTest {
+
+    InMemoryTaskRepository store;
+    AtomicLong ticker;
+    CachingTaskRepository repository;
+    UserId userId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        store = spy(new InMemoryTaskRepository());
+        ticker = new AtomicLong();
+        repository = new CachingTaskRepository(store, 100, Duration.ofSeconds(30), ticker::get);
+        userId = UserId.of("user123");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0);
+    }
+
+    private Task task(String description) {
+        return repository.save(new Task(TaskId.generate(), userId, description, Priority.LOW, now));
+    }
+
+    @Test
+    @DisplayName("Should read a task from the store once, then from the cache")
+    void shouldReadThrough() {
+        // Given
+        Task task = task("Cached task");
+
+        // When
+        repository.findById(task.getId());
+        repository.findById(task.getId());
+
+        // Then
+        assertThat(repository.findById(task.getId())).contains(task);
+        verify(store, times(1)).findById(task.getId());
+    }
+
+    @Test
+    @DisplayName("Should not cache a missing task")
+    void shouldNotCacheMisses() {
+        // Given
+        TaskId missing = TaskId.generate();
+        repository.findById(missing);
+
+        // When
+        Task task = store.save(new Task(missing, userId, "Created elsewhere", Priority.LOW, now));
+
+        // Then
+        assertThat(repository.findById(missing)).contains(task);
+    }
+
+    @Test
+    @DisplayName("Should serve the written version after updates and deletes")
+    void shouldInvalidateOnWrites() {
+        // Given
+        Task task = task("Original");
+        Task other = task("Other");
+        repository.findById(task.getId());
+        repository.findById(other.getId());
+
+        // When
+        repository.updateOwnedTask(task.getId(), userId, new TaskUpdate("Renamed", null, Status.COMPLETED), now.plusMinutes(1));
+        repository.deleteOwnedTask(other.getId(), userId);
+
+        // Then
+        assertThat(repository.findById(task.getId())).get()
+                .extracting(Task::getDescription, Task::getStatus)
+                .containsExactly("Renamed", Status.COMPLETED);
+        assertThat(repository.findById(other.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should read the store again once the TTL passed")
+    void shouldReloadAfterTtl() {
+        // Given
+        Task task = task("Cached task");
+        repository.findById(task.getId());
+
+        // When
+        ticker.addAndGet(Duration.ofSeconds(30).toNanos());
+        repository.findById(task.getId());
+
+        // Then
+        verify(store, times(2)).findById(task.getId());
+    }
+
+    @Test
+    @DisplayName("Should publish hits, misses and size as cache meters")
+    void shouldPublishMetrics() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.bindMetrics(registry);
+        Task task = task("Cached task");
+
+        // When
+        repository.findById(task.getId());
+        repository.findById(task.getId());
+
+        // Then
+        assertThat(registry.get("cache.gets").tag("cache", "tasks").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "tasks").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "tasks").gauge().value()).isEqualTo(1);
+    }
+}
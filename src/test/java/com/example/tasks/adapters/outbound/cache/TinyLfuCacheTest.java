@@ -0,0 +1,111 @@
+package com.example.tasks.adapters.outbound.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("W-TinyLFU Cache")
+class TinyLfuCacheTest {
+
+    static final long TTL = Duration.ofSeconds(30).toNanos();
+
+    AtomicLong ticker;
+
+    @BeforeEach
+    void setup() {
+        ticker = new AtomicLong();
+    }
+
+    private TinyLfuCache<Integer, String> cache(long maximumSize) {
+        return new TinyLfuCache<>(maximumSize, TTL, ticker::get);
+    }
+
+    // A read-through: a miss loads and puts the value
+    private String read(TinyLfuCache<Integer, String> cache, int key) {
+        String value = cache.get(key);
+        if (value == null) {
+            cache.putIfCurrent(key, "value " + key, cache.generation());
+        }
+        return value;
+    }
+
+    @Test
+    @DisplayName("Should keep frequently read entries through a scan of one-off keys")
+    void shouldResistScans() {
+        // Given: half the cache read over and over
+        TinyLfuCache<Integer, String> cache = cache(100);
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                read(cache, key);
+            }
+        }
+
+        // When: ten times the cache's size in keys read once each
+        for (int key = 1000; key < 2000; key++) {
+            read(cache, key);
+        }
+
+        // Then
+        for (int key = 0; key < 50; key++) {
+            assertThat(cache.get(key)).as("hot key %d", key).isEqualTo("value " + key);
+        }
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.evictionCount()).isEqualTo(950);
+    }
+
+    @Test
+    @DisplayName("Should never hold more than its maximum size")
+    void shouldStayWithinMaximumSize() {
+        // Given
+        TinyLfuCache<Integer, String> cache = cache(10);
+
+        // When
+        for (int key = 0; key < 100; key++) {
+            read(cache, key);
+        }
+
+        // Then
+        assertThat(cache.size()).isEqualTo(10);
+        assertThat(cache.evictionCount()).isEqualTo(90);
+        assertThat(cache.missCount()).isEqualTo(100);
+        assertThat(cache.putCount()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should expire entries the TTL after they were put")
+    void shouldExpireEntries() {
+        // Given
+        TinyLfuCache<Integer, String> cache = cache(10);
+        read(cache, 1);
+
+        // When / Then
+        ticker.addAndGet(TTL - 1);
+        assertThat(cache.get(1)).isEqualTo("value 1");
+        ticker.addAndGet(1);
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.evictionCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should refuse a value loaded before an invalidation")
+    void shouldRefuseValuesLoadedBeforeInvalidation() {
+        // Given
+        TinyLfuCache<Integer, String> cache = cache(10);
+        long loadedAt = cache.generation();
+
+        // When: a write invalidates the key while the load is in flight
+        cache.invalidate(1);
+        cache.putIfCurrent(1, "stale", loadedAt);
+
+        // Then
+        assertThat(cache.get(1)).isNull();
+        cache.putIfCurrent(1, "fresh", cache.generation());
+        assertThat(cache.get(1)).isEqualTo("fresh");
+    }
+}
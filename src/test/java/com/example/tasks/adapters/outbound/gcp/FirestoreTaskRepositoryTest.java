@@ -0,0 +1,509 @@
+package com.example.tasks.adapters.outbound.gcp;
+
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskSortOrder;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.AggregateQuery;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The Firestore client is mocked down to the documents and counts the
+ * repository reads and the writes it hands to a transaction, which the tests
+ * inspect.
+ */
+@DisplayName("Firestore Task Repository")
+class FirestoreTaskRepositoryTest {
+
+    Firestore firestore;
+    CollectionReference tasks;
+    Map<String, DocumentReference> documents;
+    Transaction transaction;
+    FirestoreTaskRepository repository;
+    UserId userId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        firestore = mock(Firestore.class);
+        // Query methods hand back the same mock, so a chained query can be verified on it
+        tasks = mock(CollectionReference.class, RETURNS_SELF);
+        documents = new HashMap<>();
+        transaction = mock(Transaction.class);
+        CollectionReference counters = mock(CollectionReference.class);
+        when(firestore.collection(TaskDocuments.COLLECTION)).thenReturn(tasks);
+        when(firestore.collection(TaskCounterShards.COLLECTION)).thenReturn(counters);
+        when(tasks.document(anyString())).thenAnswer(call -> document(call.getArgument(0)));
+        when(counters.document(anyString())).thenAnswer(call -> document(call.getArgument(0)));
+        // Documents and shards nothing has written yet are missing
+        DocumentSnapshot missing = mock(DocumentSnapshot.class);
+        when(transaction.get(any(DocumentReference.class))).thenReturn(ApiFutures.immediateFuture(missing));
+        when(firestore.getAll(any(DocumentReference[].class)))
+            .thenReturn(ApiFutures.immediateFuture(new ArrayList<>(Collections.nCopies(TaskCounterShards.SHARDS, missing))));
+        AggregateQuery none = counted(0);
+        when(tasks.count()).thenReturn(none);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(call -> {
+            try {
+                return ApiFutures.immediateFuture(call.<Transaction.Function<?>>getArgument(0).updateCallback(transaction));
+            } catch (Exception e) {
+                return ApiFutures.immediateFailedFuture(e);
+            }
+        });
+        userId = UserId.of("user123");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        repository = new FirestoreTaskRepository(firestore, Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    private DocumentReference document(String path) {
+        return documents.computeIfAbsent(path, ignored -> mock(DocumentReference.class));
+    }
+
+    private List<DocumentReference> shards() {
+        return Arrays.asList(TaskCounterShards.shardsOf(firestore, userId));
+    }
+
+    // A stored task document as the transaction reads it, with createdAt as given
+    private DocumentSnapshot stored(Task task, Object createdAt) {
+        DocumentSnapshot snapshot = mock(QueryDocumentSnapshot.class);
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getString("id")).thenReturn(task.getId().value());
+        when(snapshot.getString("userId")).thenReturn(task.getUserId().value());
+        when(snapshot.getString("description")).thenReturn(task.getDescription());
+        when(snapshot.getString("priority")).thenReturn(task.getPriority().name());
+        when(snapshot.getString("status")).thenReturn(task.getStatus().name());
+        when(snapshot.get("createdAt")).thenReturn(createdAt);
+        when(snapshot.get("updatedAt")).thenReturn(TaskDocuments.timestamp(task.getUpdatedAt()));
+        when(snapshot.contains("descriptionHash")).thenReturn(true);
+        when(snapshot.getUpdateTime()).thenReturn(TaskDocuments.timestamp(task.getUpdatedAt()));
+        when(transaction.get(document(task.getId().value()))).thenReturn(ApiFutures.immediateFuture(snapshot));
+        return snapshot;
+    }
+
+    private DocumentSnapshot stored(Task task) {
+        return stored(task, TaskDocuments.timestamp(task.getCreatedAt()));
+    }
+
+    // A shard as a transaction and getAll read it, seeded when it holds a day
+    private DocumentSnapshot shard(long open, String day, long highPriority) {
+        DocumentSnapshot shard = mock(DocumentSnapshot.class);
+        when(shard.exists()).thenReturn(true);
+        when(shard.getLong("openCount")).thenReturn(open);
+        when(shard.getString("highPriorityDay")).thenReturn(day);
+        when(shard.getLong("highPriorityCount")).thenReturn(highPriority);
+        return shard;
+    }
+
+    private void shardsHold(DocumentSnapshot... snapshots) {
+        List<DocumentReference> shards = shards();
+        for (int index = 0; index < shards.size(); index++) {
+            when(transaction.get(shards.get(index))).thenReturn(ApiFutures.immediateFuture(snapshots[index]));
+        }
+        when(firestore.getAll(any(DocumentReference[].class))).thenReturn(ApiFutures.immediateFuture(List.of(snapshots)));
+    }
+
+    // Every shard seeded today, the counts on the first
+    private void shardsHold(long open, long highPriority) {
+        DocumentSnapshot[] snapshots = new DocumentSnapshot[TaskCounterShards.SHARDS];
+        snapshots[0] = shard(open, "2024-01-01", highPriority);
+        for (int index = 1; index < snapshots.length; index++) {
+            snapshots[index] = shard(0, "2024-01-01", 0);
+        }
+        shardsHold(snapshots);
+    }
+
+    // An aggregation query answering the count, in a transaction or outside one
+    private AggregateQuery counted(long count) {
+        AggregateQuery query = mock(AggregateQuery.class);
+        AggregateQuerySnapshot snapshot = mock(AggregateQuerySnapshot.class);
+        when(snapshot.getCount()).thenReturn(count);
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(snapshot));
+        when(transaction.get(query)).thenReturn(ApiFutures.immediateFuture(snapshot));
+        return query;
+    }
+
+    // The shards the transaction set, with the values of each
+    @SuppressWarnings("unchecked")
+    private Map<DocumentReference, Map<String, Object>> shardWrites() {
+        ArgumentCaptor<DocumentReference> written = ArgumentCaptor.forClass(DocumentReference.class);
+        ArgumentCaptor<Map<String, Object>> values = ArgumentCaptor.forClass(Map.class);
+        verify(transaction, atLeast(0)).set(written.capture(), values.capture());
+        Map<DocumentReference, Map<String, Object>> writes = new LinkedHashMap<>();
+        for (int index = 0; index < written.getAllValues().size(); index++) {
+            if (shards().contains(written.getAllValues().get(index))) {
+                writes.put(written.getAllValues().get(index), values.getAllValues().get(index));
+            }
+        }
+        return writes;
+    }
+
+    @Nested
+    @DisplayName("Description uniqueness")
+    class UniquenessTests {
+
+        @Test
+        @DisplayName("Should check a description with at most one document, masked to the description")
+        void shouldReadOneMaskedDocument() {
+            // Given
+            Task task = new Task(TaskId.generate(), userId, "Same description", Priority.LOW, now);
+            QuerySnapshot matches = mock(QuerySnapshot.class);
+            List<QueryDocumentSnapshot> found = List.of((QueryDocumentSnapshot) stored(task));
+            when(matches.getDocuments()).thenReturn(found);
+            when(tasks.get()).thenReturn(ApiFutures.immediateFuture(matches));
+
+            // When
+            boolean exists = repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), " Same description ");
+
+            // Then
+            assertThat(exists).isTrue();
+            verify(tasks).select("description");
+            verify(tasks).limit(1);
+        }
+
+        @Test
+        @DisplayName("Should not take a hash match with another description for a duplicate")
+        void shouldCompareDescriptionOnHit() {
+            // Given
+            Task task = new Task(TaskId.generate(), userId, "Other description", Priority.LOW, now);
+            QuerySnapshot matches = mock(QuerySnapshot.class);
+            List<QueryDocumentSnapshot> found = List.of((QueryDocumentSnapshot) stored(task));
+            when(matches.getDocuments()).thenReturn(found);
+            when(tasks.get()).thenReturn(ApiFutures.immediateFuture(matches));
+
+            // When / Then
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Same description")).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Counter shards")
+    class CounterShardTests {
+
+        @Test
+        @DisplayName("Should move the counters on one shard in the transaction that creates the task")
+        void shouldMoveShardInCreateTransaction() {
+            // Given
+            shardsHold(3, 1);
+            Task task = new Task(TaskId.generate(), userId, "New task", Priority.HIGH, now);
+
+            // When
+            repository.save(task);
+
+            // Then
+            verify(transaction).set(eq(document(task.getId().value())), anyMap());
+            Map<DocumentReference, Map<String, Object>> writes = shardWrites();
+            assertThat(writes).hasSize(1);
+            DocumentReference picked = writes.keySet().iterator().next();
+            long open = picked == shards().get(0) ? 4 : 1;
+            long highPriority = picked == shards().get(0) ? 2 : 1;
+            assertThat(writes.get(picked)).isEqualTo(Map.of(
+                    "openCount", open, "highPriorityDay", "2024-01-01", "highPriorityCount", highPriority));
+        }
+
+        @Test
+        @DisplayName("Should start the day over on a shard that holds another day")
+        void shouldStartDayOverOnStaleShard() {
+            // Given
+            DocumentSnapshot[] snapshots = new DocumentSnapshot[TaskCounterShards.SHARDS];
+            Arrays.fill(snapshots, shard(2, "2023-12-31", 5));
+            shardsHold(snapshots);
+            Task task = new Task(TaskId.generate(), userId, "New task", Priority.HIGH, now);
+
+            // When
+            repository.save(task);
+
+            // Then: yesterday's count is gone, the open count carries over
+            assertThat(shardWrites().values()).containsExactly(Map.of(
+                    "openCount", 3L, "highPriorityDay", "2024-01-01", "highPriorityCount", 1L));
+        }
+
+        @Test
+        @DisplayName("Should seed every shard from the counted tasks in the transaction of the first write")
+        void shouldSeedShardsInFirstWrite() {
+            // Given: shards left by the per-day layout, and tasks that predate the counters
+            DocumentSnapshot legacy = mock(DocumentSnapshot.class);
+            when(legacy.exists()).thenReturn(true);
+            when(legacy.getLong("openCount")).thenReturn(1L);
+            DocumentSnapshot[] snapshots = new DocumentSnapshot[TaskCounterShards.SHARDS];
+            Arrays.fill(snapshots, legacy);
+            shardsHold(snapshots);
+            AggregateQuery open = counted(7);
+            AggregateQuery highPriority = counted(2);
+            when(tasks.count()).thenReturn(open, highPriority);
+            Task task = new Task(TaskId.generate(), userId, "New task", Priority.HIGH, now);
+
+            // When
+            repository.save(task);
+
+            // Then: every shard is overwritten and the totals take in the new task
+            verify(transaction).get(open);
+            verify(transaction).get(highPriority);
+            verify(open, never()).get();
+            Map<DocumentReference, Map<String, Object>> writes = shardWrites();
+            assertThat(writes.keySet()).containsExactlyInAnyOrderElementsOf(shards());
+            assertThat(writes.values()).allSatisfy(values -> assertThat(values)
+                    .containsOnlyKeys("openCount", "highPriorityDay", "highPriorityCount")
+                    .containsEntry("highPriorityDay", "2024-01-01"));
+            assertThat(writes.values().stream().mapToLong(values -> (Long) values.get("openCount")).sum()).isEqualTo(8);
+            assertThat(writes.values().stream().mapToLong(values -> (Long) values.get("highPriorityCount")).sum()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should decrement the counters in the transaction that deletes the task")
+        void shouldDecrementShardInDeleteTransaction() {
+            // Given
+            DocumentSnapshot[] snapshots = new DocumentSnapshot[TaskCounterShards.SHARDS];
+            Arrays.fill(snapshots, shard(3, "2024-01-01", 1));
+            shardsHold(snapshots);
+            Task task = new Task(TaskId.generate(), userId, "Task", Priority.HIGH, now);
+            stored(task);
+
+            // When
+            repository.deleteOwnedTask(task.getId(), userId);
+
+            // Then
+            verify(transaction).delete(eq(document(task.getId().value())), any(Precondition.class));
+            assertThat(shardWrites().values()).containsExactly(Map.of(
+                    "openCount", 2L, "highPriorityDay", "2024-01-01", "highPriorityCount", 0L));
+        }
+
+        @Test
+        @DisplayName("Should move only the changed counters in the update transaction")
+        void shouldMoveChangedCountersInUpdateTransaction() {
+            // Given
+            DocumentSnapshot[] snapshots = new DocumentSnapshot[TaskCounterShards.SHARDS];
+            Arrays.fill(snapshots, shard(3, "2024-01-01", 1));
+            shardsHold(snapshots);
+            Task task = new Task(TaskId.generate(), userId, "Task", Priority.HIGH, now);
+            stored(task);
+
+            // When
+            repository.updateOwnedTask(task.getId(), userId, new TaskUpdate(null, Priority.LOW, Status.COMPLETED), now.plusMinutes(1));
+
+            // Then
+            verify(transaction).update(eq(document(task.getId().value())), anyMap(), any(Precondition.class));
+            assertThat(shardWrites().values()).containsExactly(Map.of(
+                    "openCount", 2L, "highPriorityDay", "2024-01-01", "highPriorityCount", 0L));
+        }
+
+        @Test
+        @DisplayName("Should leave the shards alone when an update changes no counter")
+        void shouldSkipShardsOnPlainUpdate() {
+            // Given
+            Task task = new Task(TaskId.generate(), userId, "Task", Priority.HIGH, now);
+            stored(task);
+
+            // When
+            repository.updateOwnedTask(task.getId(), userId, new TaskUpdate("Renamed task", null, null), now.plusMinutes(1));
+
+            // Then
+            verify(transaction).update(eq(document(task.getId().value())), anyMap(), any(Precondition.class));
+            verify(transaction, never()).set(any(DocumentReference.class), anyMap());
+            shards().forEach(shard -> verify(transaction, never()).get(shard));
+        }
+
+        @Test
+        @DisplayName("Should sum today's counters over all shards in one read")
+        void shouldSumCountersAcrossShards() {
+            // Given: a shard holding another day counts none of today's tasks
+            DocumentSnapshot[] snapshots = new DocumentSnapshot[TaskCounterShards.SHARDS];
+            snapshots[0] = shard(3, "2024-01-01", 2);
+            snapshots[1] = shard(4, "2023-12-31", 5);
+            snapshots[2] = shard(-1, "2024-01-01", 1);
+            for (int index = 3; index < snapshots.length; index++) {
+                snapshots[index] = shard(0, "2024-01-01", 0);
+            }
+            shardsHold(snapshots);
+
+            // When
+            long open = repository.countOpenTasksForUser(userId);
+            long highPriority = repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate());
+
+            // Then
+            assertThat(open).isEqualTo(6);
+            assertThat(highPriority).isEqualTo(3);
+            ArgumentCaptor<DocumentReference[]> read = ArgumentCaptor.forClass(DocumentReference[].class);
+            verify(firestore, times(2)).getAll(read.capture());
+            assertThat(read.getValue()).containsExactlyElementsOf(shards());
+            verify(tasks, never()).count();
+        }
+
+        @Test
+        @DisplayName("Should count the tasks for a creation context when the shards were never seeded")
+        void shouldCountTasksBeforeSeeding() {
+            // Given: the shards are missing
+            AggregateQuery open = counted(7);
+            AggregateQuery highPriority = counted(2);
+            when(tasks.count()).thenReturn(open, highPriority);
+            QuerySnapshot matches = mock(QuerySnapshot.class);
+            when(matches.getDocuments()).thenReturn(List.of());
+            when(tasks.get()).thenReturn(ApiFutures.immediateFuture(matches));
+
+            // When
+            CreationContext context = repository.creationContext(userId, now.toLocalDate(), "New task");
+
+            // Then
+            assertThat(context.openTasks()).isEqualTo(7);
+            assertThat(context.highPriorityTasksToday()).isEqualTo(2);
+            verify(tasks).whereEqualTo("status", Status.OPEN.name());
+        }
+
+        @Test
+        @DisplayName("Should count the high-priority tasks of a day the shards do not hold")
+        void shouldCountOtherDays() {
+            // Given
+            shardsHold(3, 1);
+            AggregateQuery open = counted(3);
+            AggregateQuery highPriority = counted(4);
+            when(tasks.count()).thenReturn(open, highPriority);
+
+            // When
+            long yesterday = repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate().minusDays(1));
+
+            // Then
+            assertThat(yesterday).isEqualTo(4);
+        }
+    }
+
+    @Nested
+    @DisplayName("Timestamp fields")
+    class TimestampTests {
+
+        @Test
+        @DisplayName("Should write creation and update times as Timestamps")
+        @SuppressWarnings("unchecked")
+        void shouldWriteTimestamps() {
+            // Given
+            Task task = new Task(TaskId.generate(), userId, "New task", Priority.LOW, now);
+
+            // When
+            repository.save(task);
+
+            // Then
+            ArgumentCaptor<Map<String, Object>> data = ArgumentCaptor.forClass(Map.class);
+            verify(transaction).set(eq(document(task.getId().value())), data.capture());
+            assertThat(data.getValue().get("createdAt")).isEqualTo(Timestamp.ofTimeSecondsAndNanos(1704110400L, 0));
+            assertThat(data.getValue().get("updatedAt")).isInstanceOf(Timestamp.class);
+        }
+
+        @Test
+        @DisplayName("Should read legacy text dates next to Timestamps")
+        void shouldReadLegacyTextDates() {
+            // Given
+            Task legacy = new Task(TaskId.generate(), userId, "Legacy task", Priority.LOW, now.minusDays(1));
+            Task current = new Task(TaskId.generate(), userId, "Current task", Priority.LOW, now);
+            QuerySnapshot page = mock(QuerySnapshot.class);
+            List<QueryDocumentSnapshot> found = List.of(
+                    (QueryDocumentSnapshot) stored(current),
+                    (QueryDocumentSnapshot) stored(legacy, legacy.getCreatedAt().toString()));
+            when(page.getDocuments()).thenReturn(found);
+            when(tasks.get()).thenReturn(ApiFutures.immediateFuture(page));
+
+            // When
+            List<Task> listed = repository.findByUserIdAfter(userId, TaskQuery.ALL, null, 10).tasks();
+
+            // Then
+            assertThat(listed).extracting(Task::getCreatedAt).containsExactly(now, now.minusDays(1));
+        }
+
+        @Test
+        @DisplayName("Should migrate a legacy text date to a Timestamp on update")
+        @SuppressWarnings("unchecked")
+        void shouldMigrateLegacyDateOnUpdate() {
+            // Given
+            Task legacy = new Task(TaskId.generate(), userId, "Legacy task", Priority.LOW, now);
+            stored(legacy, "2024-01-01T12:00");
+
+            // When
+            repository.updateOwnedTask(legacy.getId(), userId, new TaskUpdate("Renamed task", null, null), now.plusMinutes(1));
+
+            // Then
+            ArgumentCaptor<Map<String, Object>> fields = ArgumentCaptor.forClass(Map.class);
+            verify(transaction).update(eq(document(legacy.getId().value())), fields.capture(), any(Precondition.class));
+            assertThat(fields.getValue())
+                    .containsEntry("createdAt", TaskDocuments.timestamp(now))
+                    .containsEntry("description", "Renamed task")
+                    .doesNotContainKeys("priority", "status");
+        }
+    }
+
+    @Nested
+    @DisplayName("Creation date ranges")
+    class DateRangeTests {
+
+        @Test
+        @DisplayName("Should query createdFrom and createdTo as a half-open range of Timestamps")
+        void shouldQueryHalfOpenRange() {
+            // Given
+            LocalDate from = LocalDate.of(2024, 1, 1);
+            LocalDate to = LocalDate.of(2024, 1, 31);
+            TaskQuery query = new TaskQuery(null, null, from, to, TaskSortOrder.NEWEST_FIRST);
+
+            // When
+            TaskDocuments.pageAfter(tasks, userId, query, null, 10);
+
+            // Then: the whole last day is in, the first moment of the next day is not
+            verify(tasks).whereGreaterThanOrEqualTo("createdAt", TaskDocuments.timestamp(from.atStartOfDay()));
+            verify(tasks).whereLessThan("createdAt", TaskDocuments.timestamp(LocalDate.of(2024, 2, 1).atStartOfDay()));
+            verify(tasks, never()).whereLessThanOrEqualTo(anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should leave an open end of the range unbounded")
+        void shouldQueryOpenEndedRange() {
+            // Given
+            TaskQuery query = new TaskQuery(null, null, null, LocalDate.of(2024, 1, 31), TaskSortOrder.NEWEST_FIRST);
+
+            // When
+            TaskDocuments.pageAfter(tasks, userId, query, null, 10);
+
+            // Then
+            verify(tasks, never()).whereGreaterThanOrEqualTo(anyString(), any());
+            verify(tasks).whereLessThan("createdAt", TaskDocuments.timestamp(LocalDate.of(2024, 2, 1).atStartOfDay()));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.tasks.adapters.outbound.gcp;
+
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Firestore Timestamp Backfill")
+class TaskTimestampBackfillTest {
+
+    static final Timestamp READ_AT = Timestamp.ofTimeSecondsAndNanos(1704067200L, 0);
+
+    Firestore firestore;
+    CollectionReference tasks;
+    WriteBatch batch;
+    TaskTimestampBackfill backfill;
+
+    @BeforeEach
+    void setup() {
+        firestore = mock(Firestore.class);
+        tasks = mock(CollectionReference.class, RETURNS_SELF);
+        batch = mock(WriteBatch.class);
+        when(firestore.collection(TaskDocuments.COLLECTION)).thenReturn(tasks);
+        when(firestore.batch()).thenReturn(batch);
+        backfill = new TaskTimestampBackfill(firestore);
+    }
+
+    private QueryDocumentSnapshot legacy(Object createdAt, Object updatedAt) {
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.getReference()).thenReturn(mock(DocumentReference.class));
+        when(document.get("createdAt")).thenReturn(createdAt);
+        when(document.get("updatedAt")).thenReturn(updatedAt);
+        when(document.getUpdateTime()).thenReturn(READ_AT);
+        return document;
+    }
+
+    private QuerySnapshot page(QueryDocumentSnapshot... documents) {
+        QuerySnapshot page = mock(QuerySnapshot.class);
+        when(page.getDocuments()).thenReturn(List.of(documents));
+        return page;
+    }
+
+    private ApiException failure(StatusCode.Code code) {
+        StatusCode status = mock(StatusCode.class);
+        when(status.getCode()).thenReturn(code);
+        return new ApiException(null, status, false);
+    }
+
+    @Test
+    @DisplayName("Should rewrite text times as Timestamps until no legacy document is left")
+    void shouldRewriteTextTimes() {
+        // Given
+        LocalDateTime created = LocalDateTime.of(2023, 12, 31, 9, 30);
+        QueryDocumentSnapshot both = legacy(created.toString(), created.plusHours(1).toString());
+        QueryDocumentSnapshot createdOnly = legacy(created.toString(), TaskDocuments.timestamp(created));
+        QuerySnapshot first = page(both, createdOnly);
+        QuerySnapshot done = page();
+        when(tasks.get()).thenReturn(ApiFutures.immediateFuture(first), ApiFutures.immediateFuture(done));
+        when(batch.commit()).thenReturn(ApiFutures.immediateFuture(List.<WriteResult>of()));
+
+        // When
+        long migrated = backfill.backfill();
+
+        // Then: only text values are rewritten, each guarded by the update time it was read at
+        assertThat(migrated).isEqualTo(2);
+        verify(tasks, times(2)).whereGreaterThanOrEqualTo("createdAt", "");
+        verify(tasks, times(2)).limit(TaskTimestampBackfill.BATCH_SIZE);
+        verify(batch).update(both.getReference(), Map.of(
+                "createdAt", TaskDocuments.timestamp(created),
+                "updatedAt", TaskDocuments.timestamp(created.plusHours(1))), Precondition.updatedAt(READ_AT));
+        verify(batch).update(createdOnly.getReference(), Map.of(
+                "createdAt", TaskDocuments.timestamp(created)), Precondition.updatedAt(READ_AT));
+        verify(batch).commit();
+    }
+
+    @Test
+    @DisplayName("Should query again after a batch that raced a task update")
+    void shouldRetryRacedBatch() {
+        // Given: the racing update migrated the document, so the next query is empty
+        LocalDateTime created = LocalDateTime.of(2023, 12, 31, 9, 30);
+        QuerySnapshot first = page(legacy(created.toString(), created.toString()));
+        QuerySnapshot done = page();
+        ApiException raced = failure(StatusCode.Code.FAILED_PRECONDITION);
+        when(tasks.get()).thenReturn(ApiFutures.immediateFuture(first), ApiFutures.immediateFuture(done));
+        when(batch.commit()).thenReturn(ApiFutures.immediateFailedFuture(raced));
+
+        // When
+        long migrated = backfill.backfill();
+
+        // Then
+        assertThat(migrated).isZero();
+        verify(tasks, times(2)).get();
+    }
+
+    @Test
+    @DisplayName("Should stop on any other failure")
+    void shouldStopOnOtherFailures() {
+        // Given
+        LocalDateTime created = LocalDateTime.of(2023, 12, 31, 9, 30);
+        QuerySnapshot first = page(legacy(created.toString(), created.toString()));
+        ApiException denied = failure(StatusCode.Code.PERMISSION_DENIED);
+        when(tasks.get()).thenReturn(ApiFutures.immediateFuture(first));
+        when(batch.commit()).thenReturn(ApiFutures.immediateFailedFuture(denied));
+
+        // When / Then
+        assertThatThrownBy(() -> backfill.backfill())
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Failed to backfill task timestamps");
+        verify(tasks, times(1)).get();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.tasks.adapters.outbound.local;
+
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("In-Memory Task Repository (compact storage)")
+class CompactInMemoryTaskRepositoryTest extends InMemoryTaskRepositoryTest {
+
+    @Override
+    InMemoryTaskRepository createRepository() {
+        return new InMemoryTaskRepository(new CompactTaskStore());
+    }
+}
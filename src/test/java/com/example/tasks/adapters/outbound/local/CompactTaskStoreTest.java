@@ -0,0 +1,146 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Compact Task Store")
+class CompactTaskStoreTest {
+
+    CompactTaskStore store;
+    UserId userId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        store = new CompactTaskStore();
+        userId = UserId.of("user123");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789);
+    }
+
+    private void put(Task task) {
+        store.compute(task.getId(), current -> task);
+    }
+
+    @Test
+    @DisplayName("Should materialize an identical task")
+    void shouldMaterializeIdenticalTask() {
+        // Given
+        Task task = Task.reconstitute(TaskId.generate(), userId, "Packed task", Priority.HIGH,
+                Status.COMPLETED, now, now.plusNanos(1));
+
+        // When
+        put(task);
+        Task stored = store.get(task.getId());
+
+        // Then
+        assertThat(stored).usingRecursiveComparison().isEqualTo(task);
+    }
+
+    @Test
+    @DisplayName("Should find every task across slab and table growth")
+    void shouldFindEveryTaskAfterGrowth() {
+        // Given
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 70_000; i++) {
+            Task task = new Task(TaskId.generate(), UserId.of("user-" + (i % 7)), "Task " + i, Priority.LOW, now);
+            put(task);
+            tasks.add(task);
+        }
+
+        // When & Then
+        assertThat(store.size()).isEqualTo(tasks.size());
+        for (Task task : tasks) {
+            assertThat(store.get(task.getId()).getDescription()).isEqualTo(task.getDescription());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep remaining tasks reachable after removals")
+    void shouldKeepRemainingTasksReachableAfterRemovals() {
+        // Given
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Task task = new Task(TaskId.generate(), userId, "Task " + i, Priority.LOW, now);
+            put(task);
+            tasks.add(task);
+        }
+
+        // When
+        for (int i = 0; i < tasks.size(); i += 2) {
+            store.compute(tasks.get(i).getId(), current -> null);
+        }
+
+        // Then
+        assertThat(store.size()).isEqualTo(2_500);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task stored = store.get(tasks.get(i).getId());
+            if (i % 2 == 0) {
+                assertThat(stored).isNull();
+            } else {
+                assertThat(stored.getDescription()).isEqualTo("Task " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reuse released slots")
+    void shouldReuseReleasedSlots() {
+        // Given
+        Task removed = new Task(TaskId.generate(), userId, "Removed task", Priority.LOW, now);
+        put(removed);
+        store.compute(removed.getId(), current -> null);
+
+        // When
+        Task added = new Task(TaskId.generate(), userId, "Added task", Priority.MEDIUM, now);
+        put(added);
+
+        // Then
+        assertThat(store.get(removed.getId())).isNull();
+        assertThat(store.get(added.getId()).getDescription()).isEqualTo("Added task");
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should hand the current task to the remapping function")
+    void shouldHandCurrentTaskToRemapping() {
+        // Given
+        Task task = new Task(TaskId.generate(), userId, "Original task", Priority.LOW, now);
+        put(task);
+
+        // When
+        store.compute(task.getId(), current -> current.complete(now.plusMinutes(1)));
+
+        // Then
+        assertThat(store.get(task.getId()).getStatus()).isEqualTo(Status.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("Should forget tasks and users when cleared")
+    void shouldForgetUsersWhenCleared() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            put(new Task(TaskId.generate(), UserId.of("user-" + i), "Task " + i, Priority.LOW, now));
+        }
+
+        // When
+        store.clear();
+        Task task = new Task(TaskId.generate(), userId, "After clear", Priority.LOW, now);
+        put(task);
+
+        // Then
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.userCount()).isEqualTo(1);
+        assertThat(store.get(task.getId()).getUserId()).isEqualTo(userId);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("File Task Journal")
+class FileTaskJournalTest {
+
+    @TempDir
+    Path directory;
+
+    InMemoryTaskRepository repository;
+    UserId userId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        repository = open();
+        userId = UserId.of("user123");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 987_654_321);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    private InMemoryTaskRepository open() {
+        return new InMemoryTaskRepository(new ObjectTaskStore(), new FileTaskJournal(directory,
+                FileTaskJournal.FsyncPolicy.ALWAYS, Duration.ofMillis(100), Duration.ofHours(1)));
+    }
+
+    // Simulates a crash: the journal is dropped without a final snapshot
+    private InMemoryTaskRepository crashAndReopen() {
+        return open();
+    }
+
+    private InMemoryTaskRepository restart() {
+        repository.close();
+        return open();
+    }
+
+    @Test
+    @DisplayName("Should replay saves, updates and deletes after a crash")
+    void shouldReplayLogAfterCrash() {
+        // Given
+        Task kept = repository.save(new Task(TaskId.generate(), userId, "Kept task", Priority.HIGH, now));
+        Task deleted = repository.save(new Task(TaskId.generate(), userId, "Deleted task", Priority.LOW, now));
+        repository.save(kept.complete(now.plusMinutes(1)));
+        repository.deleteById(deleted.getId());
+
+        // When
+        InMemoryTaskRepository recovered = crashAndReopen();
+
+        // Then
+        assertThat(recovered.size()).isEqualTo(1);
+        assertThat(recovered.findById(kept.getId())).get()
+                .usingRecursiveComparison()
+                .isEqualTo(kept.complete(now.plusMinutes(1)));
+        assertThat(recovered.findById(deleted.getId())).isEmpty();
+        assertThat(recovered.countOpenTasksForUser(userId)).isZero();
+        assertThat(recovered.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate())).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should restore from the snapshot written on close")
+    void shouldRestoreFromSnapshot() throws IOException {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            repository.save(new Task(TaskId.generate(), userId, "Task " + i, Priority.LOW, now.plusSeconds(i)));
+        }
+
+        // When
+        repository = restart();
+
+        // Then
+        assertThat(repository.size()).isEqualTo(10);
+        assertThat(repository.findByUserId(userId, 0, 3)).extracting(Task::getDescription)
+                .containsExactly("Task 9", "Task 8", "Task 7");
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(files("wal-")).allSatisfy(wal -> assertThat(Files.size(wal)).isZero());
+    }
+
+    @Test
+    @DisplayName("Should replay the log tail written after a snapshot")
+    void shouldReplayTailAfterSnapshot() {
+        // Given
+        Task task = repository.save(new Task(TaskId.generate(), userId, "Snapshotted task", Priority.LOW, now));
+        repository = restart();
+
+        // When
+        repository.save(repository.findById(task.getId()).orElseThrow().updateDescription("Updated task", now));
+        Task added = repository.save(new Task(TaskId.generate(), userId, "Logged task", Priority.MEDIUM, now));
+        InMemoryTaskRepository recovered = crashAndReopen();
+
+        // Then
+        assertThat(recovered.findById(task.getId())).get().extracting(Task::getDescription).isEqualTo("Updated task");
+        assertThat(recovered.findById(added.getId())).isPresent();
+        assertThat(recovered.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Snapshotted task")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should ignore a torn record at the end of the log")
+    void shouldIgnoreTornRecord() throws IOException {
+        // Given
+        Task task = repository.save(new Task(TaskId.generate(), userId, "Durable task", Priority.LOW, now));
+        Path wal = files("wal-").get(0);
+        Files.write(wal, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // When
+        InMemoryTaskRepository recovered = crashAndReopen();
+
+        // Then
+        assertThat(recovered.size()).isEqualTo(1);
+        assertThat(recovered.findById(task.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should recover into compact storage")
+    void shouldRecoverIntoCompactStorage() {
+        // Given
+        Task task = repository.save(Task.reconstitute(TaskId.generate(), userId, "Compact task", Priority.MEDIUM,
+                Status.COMPLETED, now, now.plusHours(1)));
+        repository.close();
+
+        // When
+        repository = new InMemoryTaskRepository(new CompactTaskStore(), new FileTaskJournal(directory,
+                FileTaskJournal.FsyncPolicy.NEVER, Duration.ofMillis(100), Duration.ofHours(1)));
+
+        // Then
+        assertThat(repository.findById(task.getId())).get().usingRecursiveComparison().isEqualTo(task);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+}
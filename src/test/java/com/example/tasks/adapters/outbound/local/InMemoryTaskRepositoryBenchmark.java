@@ -0,0 +1,81 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Scaling benchmark for per-user listing. Not part of the regular test run;
+ * execute explicitly with a heap large enough for the biggest data set:
+ * <pre>
+ * mvn test -Dtest=InMemoryTaskRepositoryBenchmark -DargLine=-Xmx3g
+ * </pre>
+ */
+@DisplayName("In-Memory Task Repository listing benchmark")
+class InMemoryTaskRepositoryBenchmark {
+
+    private static final int TASKS_PER_USER = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final int LOOKUPS = 2_000;
+
+    @ParameterizedTest(name = "{0} tasks")
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void listPageScaling(int totalTasks) {
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+        List<Task> allTasks = new ArrayList<>(totalTasks);
+        int users = totalTasks / TASKS_PER_USER;
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        for (int i = 0; i < totalTasks; i++) {
+            Task task = new Task(TaskId.generate(), UserId.of("user-" + (i % users)), "Task " + i,
+                    Priority.MEDIUM, start.plusSeconds(i));
+            repository.save(task);
+            allTasks.add(task);
+        }
+
+        Random random = new Random(42);
+        long indexedNanos = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            UserId userId = UserId.of("user-" + random.nextInt(users));
+            long begin = System.nanoTime();
+            List<Task> page = repository.findByUserId(userId, 1, PAGE_SIZE);
+            indexedNanos += System.nanoTime() - begin;
+            assertThat(page).hasSize(PAGE_SIZE);
+        }
+
+        // Reference: the former implementation, a sorted scan over every stored task
+        int scanLookups = Math.max(5, LOOKUPS * 10_000 / totalTasks);
+        long scanNanos = 0;
+        for (int i = 0; i < scanLookups; i++) {
+            UserId userId = UserId.of("user-" + random.nextInt(users));
+            long begin = System.nanoTime();
+            List<Task> page = fullScanPage(allTasks, userId, 1, PAGE_SIZE);
+            scanNanos += System.nanoTime() - begin;
+            assertThat(page).hasSize(PAGE_SIZE);
+        }
+
+        System.out.printf("tasks=%,d users=%,d indexed page=%,d ns full-scan page=%,d ns%n",
+                totalTasks, users, indexedNanos / LOOKUPS, scanNanos / scanLookups);
+    }
+
+    private static List<Task> fullScanPage(Collection<Task> tasks, UserId userId, int page, int size) {
+        return tasks.stream()
+                .filter(task -> task.belongsTo(userId))
+                .sorted((t1, t2) -> t2.getCreatedAt().compareTo(t1.getCreatedAt()))
+                .skip((long) page * size)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,484 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskSortOrder;
+import com.example.tasks.domain.UserId;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("In-Memory Task Repository")
+class InMemoryTaskRepositoryTest {
+
+    InMemoryTaskRepository repository;
+    UserId userId;
+    UserId otherUserId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        repository = createRepository();
+        userId = UserId.of("user123");
+        otherUserId = UserId.of("otherUser");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0);
+    }
+
+    InMemoryTaskRepository createRepository() {
+        return new InMemoryTaskRepository();
+    }
+
+    private Task task(UserId owner, String description, Priority priority, LocalDateTime createdAt) {
+        return new Task(TaskId.generate(), owner, description, priority, createdAt);
+    }
+
+    @Nested
+    @DisplayName("Per-user listing")
+    class ListingTests {
+
+        @Test
+        @DisplayName("Should list only the user's tasks, newest first")
+        void shouldListOnlyUserTasksNewestFirst() {
+            // Given
+            Task oldest = repository.save(task(userId, "Oldest task", Priority.LOW, now.minusHours(2)));
+            Task newest = repository.save(task(userId, "Newest task", Priority.LOW, now));
+            Task middle = repository.save(task(userId, "Middle task", Priority.LOW, now.minusHours(1)));
+            repository.save(task(otherUserId, "Other user task", Priority.LOW, now));
+
+            // When
+            List<Task> result = repository.findByUserId(userId, 0, 10);
+
+            // Then
+            assertThat(result).extracting(Task::getId).containsExactly(newest.getId(), middle.getId(), oldest.getId());
+        }
+
+        @Test
+        @DisplayName("Should page through the user's tasks")
+        void shouldPageThroughUserTasks() {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                repository.save(task(userId, "Task " + i, Priority.LOW, now.plusMinutes(i)));
+            }
+
+            // When
+            List<Task> firstPage = repository.findByUserId(userId, 0, 2);
+            List<Task> lastPage = repository.findByUserId(userId, 2, 2);
+
+            // Then
+            assertThat(firstPage).extracting(Task::getDescription).containsExactly("Task 4", "Task 3");
+            assertThat(lastPage).extracting(Task::getDescription).containsExactly("Task 0");
+            assertThat(repository.findByUserId(userId, 3, 2)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should continue after the cursor even when newer tasks arrive")
+        void shouldContinueAfterCursor() {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                repository.save(task(userId, "Task " + i, Priority.LOW, now.plusMinutes(i)));
+            }
+            repository.save(task(userId, "Same instant", Priority.LOW, now.plusMinutes(3)));
+            TaskPage first = repository.findByUserIdAfter(userId, TaskQuery.ALL, null, 3);
+
+            // When
+            repository.save(task(userId, "Newest", Priority.LOW, now.plusHours(1)));
+            TaskPage second = repository.findByUserIdAfter(userId, TaskQuery.ALL, first.nextCursor(), 3);
+            TaskPage last = repository.findByUserIdAfter(userId, TaskQuery.ALL, second.nextCursor(), 3);
+
+            // Then
+            List<String> listed = new ArrayList<>();
+            first.tasks().forEach(task -> listed.add(task.getDescription()));
+            second.tasks().forEach(task -> listed.add(task.getDescription()));
+            assertThat(listed).hasSize(6).doesNotHaveDuplicates().doesNotContain("Newest");
+            assertThat(listed.subList(0, 1)).containsExactly("Task 4");
+            assertThat(listed.subList(3, 6)).containsExactly("Task 2", "Task 1", "Task 0");
+            assertThat(last.tasks()).isEmpty();
+            assertThat(last.nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should list only tasks matching status, priority and creation dates")
+        void shouldListOnlyMatchingTasks() {
+            // Given
+            LocalDateTime dayOne = now.minusDays(1);
+            Task match = repository.save(task(userId, "Match", Priority.HIGH, dayOne));
+            repository.save(task(userId, "Low priority", Priority.LOW, dayOne.plusMinutes(1)));
+            repository.save(task(userId, "Too old", Priority.HIGH, now.minusDays(3)));
+            repository.save(task(userId, "Too new", Priority.HIGH, now.plusDays(1)));
+            Task done = repository.save(task(userId, "Completed", Priority.HIGH, now));
+            repository.save(Task.reconstitute(done.getId(), userId, done.getDescription(), done.getPriority(),
+                    Status.COMPLETED, done.getCreatedAt(), now.plusMinutes(1)));
+            Task edge = repository.save(task(userId, "Last instant", Priority.HIGH, now.toLocalDate().atTime(23, 59, 59)));
+            TaskQuery query = new TaskQuery(Status.OPEN, Priority.HIGH, now.toLocalDate().minusDays(1), now.toLocalDate(), null);
+
+            // When
+            TaskPage page = repository.findByUserIdAfter(userId, query, null, 10);
+
+            // Then
+            assertThat(page.tasks()).extracting(Task::getId).containsExactly(edge.getId(), match.getId());
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should page oldest first when asked to")
+        void shouldPageOldestFirst() {
+            // Given
+            List<Task> saved = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                saved.add(repository.save(task(userId, "Task " + i, i % 2 == 0 ? Priority.HIGH : Priority.LOW, now.plusMinutes(i))));
+            }
+            TaskQuery query = new TaskQuery(null, Priority.HIGH, null, null, TaskSortOrder.OLDEST_FIRST);
+
+            // When
+            TaskPage first = repository.findByUserIdAfter(userId, query, null, 2);
+            TaskPage second = repository.findByUserIdAfter(userId, query, first.nextCursor(), 2);
+
+            // Then
+            assertThat(first.tasks()).extracting(Task::getDescription).containsExactly("Task 0", "Task 2");
+            assertThat(second.tasks()).extracting(Task::getDescription).containsExactly("Task 4", "Task 6");
+            assertThat(repository.findByUserIdAfter(userId, query, second.nextCursor(), 2).tasks()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should keep tasks created in the same instant apart")
+        void shouldKeepTasksCreatedInSameInstantApart() {
+            // Given
+            repository.save(task(userId, "First task", Priority.LOW, now));
+            repository.save(task(userId, "Second task", Priority.LOW, now));
+
+            // When & Then
+            assertThat(repository.findByUserId(userId, 0, 10)).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("Should return empty list for unknown user")
+        void shouldReturnEmptyListForUnknownUser() {
+            assertThat(repository.findByUserId(UserId.of("nobody"), 0, 10)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Index maintenance")
+    class IndexMaintenanceTests {
+
+        @Test
+        @DisplayName("Should reflect updates of an existing task in the listing")
+        void shouldReflectUpdates() {
+            // Given
+            Task original = repository.save(task(userId, "Original description", Priority.LOW, now));
+
+            // When
+            Task updated = repository.save(original.updateDescription("Updated description", now.plusMinutes(5)));
+
+            // Then
+            assertThat(repository.findByUserId(userId, 0, 10)).extracting(Task::getDescription).containsExactly(updated.getDescription());
+            assertThat(repository.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should drop deleted tasks from the listing")
+        void shouldDropDeletedTasks() {
+            // Given
+            Task kept = repository.save(task(userId, "Kept task", Priority.LOW, now));
+            Task deleted = repository.save(task(userId, "Deleted task", Priority.LOW, now.plusMinutes(1)));
+
+            // When
+            repository.deleteById(deleted.getId());
+
+            // Then
+            assertThat(repository.findByUserId(userId, 0, 10)).extracting(Task::getId).containsExactly(kept.getId());
+            assertThat(repository.findById(deleted.getId())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should ignore deletion of unknown task")
+        void shouldIgnoreDeletionOfUnknownTask() {
+            // Given
+            repository.save(task(userId, "Kept task", Priority.LOW, now));
+
+            // When
+            repository.deleteById(TaskId.generate());
+
+            // Then
+            assertThat(repository.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should empty the index on clear")
+        void shouldEmptyIndexOnClear() {
+            // Given
+            repository.save(task(userId, "Some task", Priority.LOW, now));
+
+            // When
+            repository.clear();
+
+            // Then
+            assertThat(repository.findByUserId(userId, 0, 10)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Business rule queries")
+    class BusinessRuleQueryTests {
+
+        @Test
+        @DisplayName("Should count open tasks and stop counting completed ones")
+        void shouldCountOpenTasks() {
+            // Given
+            Task first = repository.save(task(userId, "First task", Priority.LOW, now));
+            repository.save(task(userId, "Second task", Priority.LOW, now));
+            repository.save(task(otherUserId, "Other user task", Priority.LOW, now));
+
+            // When
+            repository.save(first.complete(now.plusMinutes(1)));
+
+            // Then
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(1);
+            assertThat(repository.countOpenTasksForUser(otherUserId)).isEqualTo(1);
+            assertThat(repository.countOpenTasksForUser(UserId.of("nobody"))).isZero();
+        }
+
+        @Test
+        @DisplayName("Should count high priority tasks per creation day")
+        void shouldCountHighPriorityTasksPerDay() {
+            // Given
+            repository.save(task(userId, "Today high", Priority.HIGH, now));
+            repository.save(task(userId, "Today low", Priority.LOW, now));
+            repository.save(task(userId, "Yesterday high", Priority.HIGH, now.minusDays(1)));
+
+            // When & Then
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate())).isEqualTo(1);
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate().minusDays(1))).isEqualTo(1);
+            assertThat(repository.countHighPriorityTasksForUserOnDate(otherUserId, now.toLocalDate())).isZero();
+        }
+
+        @Test
+        @DisplayName("Should answer the creation context from one index lookup")
+        void shouldAnswerCreationContext() {
+            // Given
+            repository.save(task(userId, "Today high", Priority.HIGH, now));
+            Task done = repository.save(task(userId, "Today low", Priority.LOW, now));
+            repository.save(task(userId, "Yesterday high", Priority.HIGH, now.minusDays(1)));
+            repository.save(done.complete(now.plusMinutes(1)));
+
+            // When & Then
+            assertThat(repository.creationContext(userId, now.toLocalDate(), "Today low"))
+                    .isEqualTo(new CreationContext(true, 1, 2));
+            assertThat(repository.creationContext(userId, now.toLocalDate(), "Yesterday high"))
+                    .isEqualTo(new CreationContext(false, 1, 2));
+            assertThat(repository.creationContext(otherUserId, now.toLocalDate(), "Today low"))
+                    .isEqualTo(new CreationContext(false, 0, 0));
+        }
+
+        @Test
+        @DisplayName("Should follow priority changes")
+        void shouldFollowPriorityChanges() {
+            // Given
+            Task task = repository.save(task(userId, "Changing task", Priority.HIGH, now));
+
+            // When
+            repository.save(task.changePriority(Priority.LOW, now.plusMinutes(1)));
+
+            // Then
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate())).isZero();
+        }
+
+        @Test
+        @DisplayName("Should find descriptions only on their creation day")
+        void shouldFindDescriptionsOnCreationDay() {
+            // Given
+            Task task = repository.save(task(userId, "Daily standup", Priority.LOW, now));
+
+            // When & Then
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Daily standup")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate().plusDays(1), "Daily standup")).isFalse();
+            assertThat(repository.existsByUserAndDateAndDescription(otherUserId, now.toLocalDate(), "Daily standup")).isFalse();
+
+            repository.save(task.updateDescription("Weekly sync", now.plusMinutes(1)));
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Daily standup")).isFalse();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Weekly sync")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should match a description as sent, before the task trimmed it")
+        void shouldMatchUntrimmedDescription() {
+            // Given
+            repository.save(task(userId, "  Daily standup ", Priority.LOW, now));
+
+            // When & Then
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), " Daily standup")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Daily standup!")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should keep a description while any same-day task still uses it")
+        void shouldKeepDescriptionWhileStillUsed() {
+            // Given
+            Task first = repository.save(task(userId, "Shared text", Priority.LOW, now));
+            Task second = repository.save(task(userId, "Other text", Priority.LOW, now));
+            repository.save(second.updateDescription("Shared text", now.plusMinutes(1)));
+
+            // When
+            repository.deleteById(first.getId());
+
+            // Then
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Shared text")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should release all aggregates when tasks are deleted")
+        void shouldReleaseAggregatesOnDelete() {
+            // Given
+            Task task = repository.save(task(userId, "Deleted task", Priority.HIGH, now));
+
+            // When
+            repository.deleteById(task.getId());
+
+            // Then
+            assertThat(repository.countOpenTasksForUser(userId)).isZero();
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate())).isZero();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Deleted task")).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshot reads")
+    class SnapshotReadTests {
+
+        @Test
+        @DisplayName("Should serve later pages from the pinned snapshot")
+        void shouldServeLaterPagesFromSnapshot() {
+            // Given
+            List<Task> saved = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                saved.add(repository.save(task(userId, "Task " + i, Priority.LOW, now.plusMinutes(i))));
+            }
+            TaskPage first = repository.findByUserId(userId, 0, 3, null);
+
+            // When: a newer task shifts every offset and a task of page two goes away
+            repository.save(task(userId, "Newest", Priority.LOW, now.plusHours(1)));
+            repository.deleteById(saved.get(1).getId());
+            TaskPage second = repository.findByUserId(userId, 1, 3, first.readVersion());
+
+            // Then
+            assertThat(second.readVersion()).isEqualTo(first.readVersion());
+            assertThat(first.tasks()).extracting(Task::getDescription).containsExactly("Task 5", "Task 4", "Task 3");
+            assertThat(second.tasks()).extracting(Task::getDescription).containsExactly("Task 2", "Task 1", "Task 0");
+            assertThat(repository.findByUserId(userId, 1, 3)).extracting(Task::getDescription)
+                    .containsExactly("Task 3", "Task 2", "Task 0");
+        }
+
+        @Test
+        @DisplayName("Should show tasks as they were at the snapshot")
+        void shouldShowTasksAsOfSnapshot() {
+            // Given
+            Task task = repository.save(task(userId, "Before", Priority.LOW, now));
+            TaskPage snapshot = repository.findByUserId(userId, 0, 10, null);
+
+            // When
+            repository.save(Task.reconstitute(task.getId(), userId, "After", Priority.HIGH,
+                    Status.COMPLETED, task.getCreatedAt(), now.plusMinutes(5)));
+
+            // Then
+            assertThat(repository.findByUserId(userId, 0, 10, snapshot.readVersion()).tasks())
+                    .extracting(Task::getDescription).containsExactly("Before");
+            assertThat(repository.findByUserId(userId, 0, 10, null).tasks())
+                    .extracting(Task::getDescription).containsExactly("After");
+        }
+
+        @Test
+        @DisplayName("Should keep no history while no snapshot is pinned")
+        void shouldKeepNoHistoryWithoutPins() {
+            // Given
+            Task task = repository.save(task(userId, "Task", Priority.LOW, now));
+
+            // When
+            repository.save(Task.reconstitute(task.getId(), userId, "Renamed", Priority.LOW,
+                    task.getStatus(), task.getCreatedAt(), now.plusMinutes(1)));
+            repository.deleteById(repository.save(task(userId, "Gone", Priority.LOW, now)).getId());
+
+            // Then
+            assertThat(repository.retainedVersions()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reclaim old versions and start a new snapshot once the lease ends")
+        void shouldReclaimVersionsWhenLeaseEnds() {
+            // Given
+            AtomicLong clock = new AtomicLong();
+            InMemoryTaskRepository leased = new InMemoryTaskRepository(
+                    new ObjectTaskStore(), TaskJournal.NONE, Duration.ofSeconds(30), clock::get);
+            Task task = leased.save(task(userId, "Task", Priority.LOW, now));
+            TaskPage snapshot = leased.findByUserId(userId, 0, 10, null);
+            leased.deleteById(task.getId());
+            assertThat(leased.retainedVersions()).isEqualTo(1);
+
+            // When
+            clock.addAndGet(Duration.ofSeconds(31).toNanos());
+            leased.save(task(userId, "Later", Priority.LOW, now.plusMinutes(1)));
+            TaskPage expired = leased.findByUserId(userId, 0, 10, snapshot.readVersion());
+
+            // Then
+            assertThat(leased.retainedVersions()).isZero();
+            assertThat(expired.readVersion()).isGreaterThan(snapshot.readVersion());
+            assertThat(expired.tasks()).extracting(Task::getDescription).containsExactly("Later");
+        }
+
+        @Test
+        @DisplayName("Should page through a stable snapshot while writers keep going")
+        void shouldPageThroughSnapshotUnderConcurrentWrites() throws Exception {
+            // Given
+            for (int i = 0; i < 200; i++) {
+                repository.save(task(userId, "Task " + i, Priority.LOW, now.plusSeconds(i)));
+            }
+            TaskPage first = repository.findByUserId(userId, 0, 20, null);
+            List<TaskId> expected = repository.findByUserId(userId, 0, 200, first.readVersion()).tasks().stream()
+                    .map(Task::getId).toList();
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread writer = new Thread(() -> {
+                int i = 0;
+                while (running.get()) {
+                    Task created = repository.save(task(userId, "Concurrent " + i, Priority.LOW, now.plusSeconds(i % 400)));
+                    if (i++ % 2 == 0) {
+                        repository.deleteById(created.getId());
+                    }
+                    List<Task> current = repository.findByUserId(userId, 0, 1);
+                    if (!current.isEmpty()) {
+                        repository.deleteById(current.get(0).getId());
+                    }
+                }
+            });
+            writer.start();
+
+            // When
+            List<TaskId> paged = new ArrayList<>(first.tasks().stream().map(Task::getId).toList());
+            try {
+                for (int page = 1; page < 10; page++) {
+                    paged.addAll(repository.findByUserId(userId, page, 20, first.readVersion()).tasks().stream()
+                            .map(Task::getId).toList());
+                    Thread.sleep(2);
+                }
+            } finally {
+                running.set(false);
+                writer.join();
+            }
+
+            // Then
+            assertThat(paged).containsExactlyElementsOf(expected);
+        }
+    }
+}
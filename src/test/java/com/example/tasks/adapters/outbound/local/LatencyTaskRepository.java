@@ -0,0 +1,101 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskCursor;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.UserId;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The in-memory store with every call paying a fixed latency, like a round
+ * trip to a remote store would, and counting the round trips made.
+ */
+class LatencyTaskRepository extends InMemoryTaskRepository {
+
+    private final long latencyNanos;
+    private final AtomicInteger roundTrips = new AtomicInteger();
+
+    LatencyTaskRepository(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    int roundTrips() {
+        return roundTrips.get();
+    }
+
+    List<Task> tasksOf(UserId userId) {
+        return super.findByUserIdAfter(userId, TaskQuery.ALL, null, Integer.MAX_VALUE).tasks();
+    }
+
+    private void roundTrip() {
+        roundTrips.incrementAndGet();
+        LockSupport.parkNanos(latencyNanos);
+    }
+
+    @Override
+    public Task save(Task task) {
+        roundTrip();
+        return super.save(task);
+    }
+
+    @Override
+    public Optional<Task> findById(TaskId id) {
+        roundTrip();
+        return super.findById(id);
+    }
+
+    @Override
+    public List<Task> findByUserId(UserId userId, int page, int size) {
+        roundTrip();
+        return super.findByUserId(userId, page, size);
+    }
+
+    @Override
+    public TaskPage findByUserId(UserId userId, int page, int size, Long readVersion) {
+        roundTrip();
+        return super.findByUserId(userId, page, size, readVersion);
+    }
+
+    @Override
+    public TaskPage findByUserIdAfter(UserId userId, TaskQuery query, TaskCursor after, int size) {
+        roundTrip();
+        return super.findByUserIdAfter(userId, query, after, size);
+    }
+
+    @Override
+    public boolean existsByUserAndDateAndDescription(UserId userId, LocalDate date, String description) {
+        roundTrip();
+        return super.existsByUserAndDateAndDescription(userId, date, description);
+    }
+
+    @Override
+    public long countHighPriorityTasksForUserOnDate(UserId userId, LocalDate date) {
+        roundTrip();
+        return super.countHighPriorityTasksForUserOnDate(userId, date);
+    }
+
+    @Override
+    public long countOpenTasksForUser(UserId userId) {
+        roundTrip();
+        return super.countOpenTasksForUser(userId);
+    }
+
+    @Override
+    public CreationContext creationContext(UserId userId, LocalDate date, String description) {
+        roundTrip();
+        return super.creationContext(userId, date, description);
+    }
+
+    @Override
+    public void deleteById(TaskId id) {
+        roundTrip();
+        super.deleteById(id);
+    }
+}
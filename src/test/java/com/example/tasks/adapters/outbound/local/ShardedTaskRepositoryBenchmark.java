@@ -0,0 +1,87 @@
+package com.example.tasks.adapters.outbound.local;
+
+import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Throughput of the shared and the sharded local engine for a create-like
+ * mix (three rule queries, a save and a page read) at 1 to 32 threads. Not
+ * part of the regular test run:
+ * <pre>
+ * mvn test -Dtest=ShardedTaskRepositoryBenchmark -DargLine=-Xmx2g
+ * </pre>
+ */
+@DisplayName("Sharded Task Repository benchmark")
+class ShardedTaskRepositoryBenchmark {
+
+    // Enough users that none reaches the open-task quota the sharded engine enforces
+    private static final int USERS = 50_000;
+    private static final int OPERATIONS = 200_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @ParameterizedTest(name = "{0} threads")
+    @ValueSource(ints = {1, 2, 4, 8, 16, 32})
+    void throughput(int threads) throws Exception {
+        InMemoryTaskRepository shared = new InMemoryTaskRepository();
+        double sharedRate = run(shared, threads);
+
+        ShardedTaskRepository sharded = new ShardedTaskRepository(
+                Runtime.getRuntime().availableProcessors(), ObjectTaskStore::new);
+        double shardedRate = run(sharded, threads);
+        sharded.close();
+
+        System.out.printf("threads=%-3d shared=%,10.0f ops/s sharded(%d)=%,10.0f ops/s%n",
+                threads, sharedRate, Runtime.getRuntime().availableProcessors(), shardedRate);
+    }
+
+    private static double run(TaskRepositoryPort repository, int threads) throws Exception {
+        // Warm-up round, then the measured one
+        runOnce(repository, threads, OPERATIONS / 4);
+        long nanos = runOnce(repository, threads, OPERATIONS);
+        return OPERATIONS * 1e9 / nanos;
+    }
+
+    private static long runOnce(TaskRepositoryPort repository, int threads, int operations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operations / threads; i++) {
+                    UserId userId = UserId.of("user-" + random.nextInt(USERS));
+                    repository.existsByUserAndDateAndDescription(userId, START.toLocalDate(), "Task " + i);
+                    repository.countHighPriorityTasksForUserOnDate(userId, START.toLocalDate());
+                    repository.countOpenTasksForUser(userId);
+                    // Unique descriptions: the sharded engine rejects duplicates on insert
+                    repository.save(new Task(TaskId.generate(), userId, "Task " + random.nextLong(), Priority.LOW,
+                            START.plusSeconds(random.nextInt(86_400))));
+                    repository.findByUserId(userId, 0, 20);
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        return System.nanoTime() - begin;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskUpdate;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import com.example.tasks.domain.exception.TaskNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Sharded Task Repository")
+class ShardedTaskRepositoryTest {
+
+    ShardedTaskRepository repository;
+    UserId userId;
+    UserId otherUserId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        repository = new ShardedTaskRepository(4, ObjectTaskStore::new);
+        userId = UserId.of("user123");
+        otherUserId = UserId.of("otherUser");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    private Task task(UserId owner, String description, Priority priority, LocalDateTime createdAt) {
+        return new Task(TaskId.generate(), owner, description, priority, createdAt);
+    }
+
+    @Test
+    @DisplayName("Should serve tasks and rule queries from the user's shard")
+    void shouldServeTasksFromUserShard() {
+        // Given
+        Task high = repository.save(task(userId, "High task", Priority.HIGH, now));
+        Task low = repository.save(task(userId, "Low task", Priority.LOW, now.plusMinutes(1)));
+        repository.save(task(otherUserId, "Other task", Priority.HIGH, now));
+
+        // When / Then
+        assertThat(repository.findById(high.getId())).get().extracting(Task::getDescription).isEqualTo("High task");
+        assertThat(repository.findByUserId(userId, 0, 10)).extracting(Task::getId).containsExactly(low.getId(), high.getId());
+        assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Low task")).isTrue();
+        assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate())).isEqualTo(1);
+        assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(2);
+        assertThat(repository.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should forget deleted tasks")
+    void shouldForgetDeletedTasks() {
+        // Given
+        Task task = repository.save(task(userId, "Task", Priority.LOW, now));
+
+        // When
+        repository.deleteById(task.getId());
+        repository.deleteById(task.getId());
+
+        // Then
+        assertThat(repository.findById(task.getId())).isEmpty();
+        assertThat(repository.countOpenTasksForUser(userId)).isZero();
+        assertThat(repository.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should check ownership and write on the owning shard")
+    void shouldUpdateAndDeleteOwnedTasks() {
+        // Given
+        Task task = repository.save(task(userId, "Task", Priority.LOW, now));
+
+        // When
+        Task updated = repository.updateOwnedTask(task.getId(), userId, new TaskUpdate(null, null, Status.COMPLETED), now);
+
+        // Then
+        assertThat(updated.getStatus()).isEqualTo(Status.COMPLETED);
+        assertThat(repository.countOpenTasksForUser(userId)).isZero();
+        assertThatThrownBy(() -> repository.deleteOwnedTask(task.getId(), otherUserId))
+                .isInstanceOf(TaskBusinessRuleException.class);
+        repository.deleteOwnedTask(task.getId(), userId);
+        assertThat(repository.size()).isZero();
+        assertThatThrownBy(() -> repository.updateOwnedTask(task.getId(), userId, new TaskUpdate("Task", null, null), now))
+                .isInstanceOf(TaskNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should move a task to the new owner's shard")
+    void shouldMoveTaskBetweenShards() {
+        // Given: enough users that at least one lives on another shard
+        Task task = repository.save(task(userId, "Moving task", Priority.LOW, now));
+        List<UserId> owners = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            owners.add(UserId.of("owner-" + i));
+        }
+
+        // When
+        for (UserId owner : owners) {
+            repository.save(Task.reconstitute(task.getId(), owner, task.getDescription(), task.getPriority(),
+                    task.getStatus(), task.getCreatedAt(), task.getUpdatedAt()));
+        }
+
+        // Then
+        UserId lastOwner = owners.get(owners.size() - 1);
+        assertThat(repository.size()).isEqualTo(1);
+        assertThat(repository.findById(task.getId())).get().extracting(Task::getUserId).isEqualTo(lastOwner);
+        assertThat(repository.countOpenTasksForUser(userId)).isZero();
+        assertThat(repository.countOpenTasksForUser(lastOwner)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply writes from many threads without losing any")
+    void shouldApplyConcurrentWrites() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int thread = 0; thread < 16; thread++) {
+            int id = thread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 240; i++) {
+                    repository.save(task(UserId.of("user-" + (i % 80)), "Task " + id + "-" + i, Priority.LOW, now));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(repository.size()).isEqualTo(3_840);
+        for (int user = 0; user < 80; user++) {
+            assertThat(repository.countOpenTasksForUser(UserId.of("user-" + user))).isEqualTo(48);
+        }
+    }
+
+    @Test
+    @DisplayName("Should check the creation rules and insert in one shard command")
+    void shouldEnforceCreationRulesOnInsert() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When: more creates than the quota, and the same description twice each
+        for (int i = 0; i < 2 * TaskBusinessRules.MAX_OPEN_TASKS_PER_USER; i++) {
+            int id = i;
+            futures.add(executor.submit(() -> repository.save(task(userId, "Task " + id / 2, Priority.LOW, now))));
+        }
+        int rejected = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(TaskBusinessRuleException.class);
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(repository.enforcesCreationQuotas()).isTrue();
+        assertThat(repository.enforcesUniqueDescriptions()).isTrue();
+        assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+        assertThat(rejected).isEqualTo(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+        assertThat(repository.findByUserId(userId, 0, 100)).extracting(Task::getDescription).doesNotHaveDuplicates();
+    }
+}
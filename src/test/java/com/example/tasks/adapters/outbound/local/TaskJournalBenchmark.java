@@ -0,0 +1,102 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Write throughput per fsync policy and recovery time of the durable local
+ * profile. Not part of the regular test run:
+ * <pre>
+ * mvn test -Dtest=TaskJournalBenchmark -DargLine=-Xmx2g
+ * </pre>
+ */
+@DisplayName("Task journal benchmark")
+class TaskJournalBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "{0} with {1} writers")
+    @CsvSource({
+        "NEVER, 1", "NEVER, 16",
+        "INTERVAL, 1", "INTERVAL, 16",
+        "ALWAYS, 1", "ALWAYS, 16", "ALWAYS, 64"
+    })
+    void writeThroughput(FileTaskJournal.FsyncPolicy policy, int writers) throws Exception {
+        int writesPerWriter = policy == FileTaskJournal.FsyncPolicy.ALWAYS ? 20_000 / writers : 200_000 / writers;
+        InMemoryTaskRepository repository = open(policy);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            long begin = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                UserId userId = UserId.of("writer-" + w);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < writesPerWriter; i++) {
+                        repository.save(new Task(TaskId.generate(), userId, "Task " + i, Priority.LOW, START.plusSeconds(i)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+            long writes = (long) writesPerWriter * writers;
+            System.out.printf("fsync=%-8s writers=%-3d %,10.0f writes/s%n", policy, writers, writes * 1e9 / elapsed);
+        } finally {
+            executor.shutdown();
+            repository.close();
+        }
+    }
+
+    @Test
+    void recoveryTime() {
+        int snapshotted = 500_000;
+        int tail = 100_000;
+        InMemoryTaskRepository repository = open(FileTaskJournal.FsyncPolicy.NEVER);
+        for (int i = 0; i < snapshotted; i++) {
+            repository.save(newTask(i));
+        }
+        repository.close();
+        repository = open(FileTaskJournal.FsyncPolicy.NEVER);
+        for (int i = snapshotted; i < snapshotted + tail; i++) {
+            repository.save(newTask(i));
+        }
+
+        long begin = System.nanoTime();
+        InMemoryTaskRepository recovered = open(FileTaskJournal.FsyncPolicy.NEVER);
+        long elapsed = System.nanoTime() - begin;
+
+        assertThat(recovered.size()).isEqualTo(snapshotted + tail);
+        System.out.printf("recovered %,d snapshotted + %,d logged tasks in %,d ms%n",
+                snapshotted, tail, elapsed / 1_000_000);
+    }
+
+    private InMemoryTaskRepository open(FileTaskJournal.FsyncPolicy policy) {
+        return new InMemoryTaskRepository(new ObjectTaskStore(),
+                new FileTaskJournal(directory, policy, Duration.ofMillis(50), Duration.ofHours(1)));
+    }
+
+    private static Task newTask(int i) {
+        return new Task(TaskId.generate(), UserId.of("user-" + (i % 5_000)), "Task " + i, Priority.LOW, START.plusSeconds(i));
+    }
+}
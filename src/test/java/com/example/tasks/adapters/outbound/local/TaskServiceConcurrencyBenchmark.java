@@ -0,0 +1,96 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static com.example.tasks.adapters.outbound.local.TaskServiceConcurrencyTest.*;
+
+import com.example.tasks.application.port.inbound.CreateTaskUseCase;
+import com.example.tasks.application.service.TaskService;
+import com.example.tasks.application.service.TaskValidationServiceImpl;
+import com.example.tasks.application.service.UserLockService;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskValidationService;
+import com.example.tasks.domain.UserId;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Create throughput under concurrent writers, and the time a create spends on
+ * its rule query against a slow store. Not part of the regular test run;
+ * execute explicitly:
+ * <pre>
+ * mvn test -Dtest=TaskServiceConcurrencyBenchmark
+ * </pre>
+ */
+@DisplayName("Task Service concurrency benchmark")
+class TaskServiceConcurrencyBenchmark {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void throughputAgainstUnsynchronizedPath() throws Exception {
+        LatencyTaskRepository repository = new LatencyTaskRepository(LATENCY_NANOS);
+        TaskValidationService validationService = new TaskValidationServiceImpl(repository);
+        LocalDate today = LocalDate.now(clock);
+
+        // Reference: the former create path, with nothing between check and save
+        CreateTaskUseCase unsynchronized = (userId, description, priority) -> {
+            Task.validateCreationRules(userId, description, priority, today, validationService);
+            return repository.save(new Task(TaskId.generate(), userId, description, priority, LocalDateTime.now(clock)));
+        };
+        long unsynchronizedNanos = runWriters(unsynchronized);
+        int exceeded = exceededLimits(repository);
+        repository.clear();
+        long lockedNanos = runWriters(service(repository)::createTask);
+
+        report("unsynchronized", unsynchronizedNanos);
+        report("per-user lock", lockedNanos);
+        System.out.printf("unsynchronized path exceeded the limits by %d tasks%n", exceeded);
+    }
+
+    @Test
+    void ruleQueryAgainstRemoteStore() {
+        long roundTrip = TimeUnit.MILLISECONDS.toNanos(20);
+        LatencyTaskRepository remote = new LatencyTaskRepository(roundTrip);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TaskService service = new TaskService(remote, new ImmediateAsyncTaskAdapter(remote),
+                new TaskValidationServiceImpl(remote), clock, new UserLockService(), meterRegistry);
+
+        // High priority creates, which check all three rules
+        for (int i = 0; i < 10; i++) {
+            service.createTask(UserId.of("user-" + i), "Task " + i, Priority.HIGH);
+        }
+
+        double rules = meterRegistry.get("tasks.create").tag("phase", "rules").timer().mean(TimeUnit.NANOSECONDS);
+        double write = meterRegistry.get("tasks.create").tag("phase", "write").timer().mean(TimeUnit.NANOSECONDS);
+        System.out.printf("create with a %d ms round trip: rules %.1f ms, write %.1f ms%n",
+                TimeUnit.NANOSECONDS.toMillis(roundTrip), rules / 1e6, write / 1e6);
+    }
+
+    private static int exceededLimits(LatencyTaskRepository repository) {
+        int exceeded = 0;
+        for (int user = 0; user < USERS; user++) {
+            List<Task> tasks = repository.tasksOf(UserId.of("user-" + user));
+            long high = tasks.stream().filter(Task::isHighPriority).count();
+            exceeded += Math.max(0, tasks.size() - TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+            exceeded += (int) Math.max(0, high - TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY);
+        }
+        return exceeded;
+    }
+
+    private static void report(String path, long nanos) {
+        int attempts = WRITERS * ATTEMPTS_PER_WRITER;
+        System.out.printf("%-15s %d writers: %,d create attempts in %,d ms (%,.0f/s)%n",
+                path, WRITERS, attempts, nanos / 1_000_000, attempts * 1e9 / nanos);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.application.port.inbound.CreateTaskUseCase;
+import com.example.tasks.application.service.TaskService;
+import com.example.tasks.application.service.TaskValidationServiceImpl;
+import com.example.tasks.application.service.UserLockService;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.UserId;
+import com.example.tasks.domain.exception.TaskBusinessRuleException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Task Service concurrency")
+class TaskServiceConcurrencyTest {
+
+    static final int WRITERS = 64;
+    static final int USERS = 8;
+    static final int ATTEMPTS_PER_WRITER = 40;
+    static final long LATENCY_NANOS = 50_000;
+
+    LatencyTaskRepository repository;
+    TaskService service;
+
+    @BeforeEach
+    void setup() {
+        repository = new LatencyTaskRepository(LATENCY_NANOS);
+        service = service(repository);
+    }
+
+    static TaskService service(InMemoryTaskRepository repository) {
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC);
+        return new TaskService(repository, new ImmediateAsyncTaskAdapter(repository),
+                new TaskValidationServiceImpl(repository), clock, new UserLockService(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should hold the per-user limits with 64 concurrent writers")
+    void shouldHoldLimitsUnderConcurrentCreates() throws Exception {
+        // When
+        runWriters(service::createTask);
+
+        // Then
+        for (int user = 0; user < USERS; user++) {
+            List<Task> tasks = repository.tasksOf(UserId.of("user-" + user));
+            assertThat(tasks).hasSize(TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
+            assertThat(tasks).filteredOn(Task::isHighPriority).hasSize(TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY);
+        }
+    }
+
+    @Test
+    @DisplayName("Should accept a description only once when all writers race for it")
+    void shouldAcceptDuplicateDescriptionOnce() throws Exception {
+        // Given
+        UserId userId = UserId.of("user-0");
+        AtomicInteger accepted = new AtomicInteger();
+
+        // When
+        runWriters((ignored, description, priority) -> {
+            Task task = service.createTask(userId, "Same description", Priority.LOW);
+            accepted.incrementAndGet();
+            return task;
+        });
+
+        // Then
+        assertThat(accepted).hasValue(1);
+        assertThat(repository.tasksOf(userId)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should make one rule query round trip per create, not one per rule")
+    void shouldMakeOneRuleQueryRoundTrip() {
+        // When: a high priority create, which checks all three rules
+        service.createTask(UserId.of("user-0"), "Task", Priority.HIGH);
+
+        // Then: the rule query and the write
+        assertThat(repository.roundTrips()).isEqualTo(2);
+    }
+
+    // Each writer spreads its attempts over all users, alternating priorities
+    static long runWriters(CreateTaskUseCase create) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int id = writer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < ATTEMPTS_PER_WRITER; attempt++) {
+                        UserId userId = UserId.of("user-" + (id + attempt) % USERS);
+                        Priority priority = attempt % 2 == 0 ? Priority.HIGH : Priority.LOW;
+                        try {
+                            create.createTask(userId, "Task " + id + "-" + attempt, priority);
+                        } catch (TaskBusinessRuleException e) {
+                            // Rejected by a quota, as expected once the limits are reached
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.tasks.adapters.outbound.local;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Retained heap per task for each storage mode at 1M tasks, for the bare store
+ * and for the whole repository including its per-user indexes. Not part of the
+ * regular test run:
+ * <pre>
+ * mvn test -Dtest=TaskStoreMemoryBenchmark -DargLine=-Xmx3g
+ * </pre>
+ */
+@DisplayName("Task store memory benchmark")
+class TaskStoreMemoryBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int USERS = 10_000;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void bytesPerTask() {
+        report("objects store", () -> fillStore(new ObjectTaskStore()));
+        report("compact store", () -> fillStore(new CompactTaskStore()));
+        report("objects repository", () -> fillRepository(new InMemoryTaskRepository(new ObjectTaskStore())));
+        report("compact repository", () -> fillRepository(new InMemoryTaskRepository(new CompactTaskStore())));
+    }
+
+    private void report(String label, Supplier<Object> fill) {
+        long before = usedHeap();
+        Object retained = fill.get();
+        long after = usedHeap();
+        assertThat(retained).isNotNull();
+        System.out.printf("%-20s %,d tasks: %,d bytes/task%n", label, TASKS, (after - before) / TASKS);
+    }
+
+    private static Object fillStore(TaskStore store) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < TASKS; i++) {
+            Task task = newTask(i, start);
+            store.compute(task.getId(), current -> task);
+        }
+        assertThat(store.size()).isEqualTo(TASKS);
+        return store;
+    }
+
+    private static Object fillRepository(InMemoryTaskRepository repository) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < TASKS; i++) {
+            repository.save(newTask(i, start));
+        }
+        assertThat(repository.size()).isEqualTo(TASKS);
+        return repository;
+    }
+
+    // Each task gets its own UserId instance, as it would when decoded from a request
+    private static Task newTask(int i, LocalDateTime start) {
+        return new Task(TaskId.generate(), UserId.of(new String("user-" + (i % USERS))),
+                "Task number " + i, Priority.values()[i % 3], start.plusNanos(i * 1_000_001L));
+    }
+
+    private long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
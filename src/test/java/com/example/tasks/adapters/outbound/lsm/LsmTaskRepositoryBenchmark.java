@@ -0,0 +1,89 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.UserId;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Disk-backed baseline: write throughput, then page, point and rule query
+ * latency once the data has been flushed and compacted. Not part of the
+ * regular test run:
+ * <pre>
+ * mvn test -Dtest=LsmTaskRepositoryBenchmark
+ * </pre>
+ */
+@DisplayName("LSM Task Repository benchmark")
+class LsmTaskRepositoryBenchmark {
+
+    private static final int TASKS_PER_USER = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final int LOOKUPS = 5_000;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "{0} tasks")
+    @ValueSource(ints = {100_000, 1_000_000})
+    void baseline(int totalTasks) {
+        int users = totalTasks / TASKS_PER_USER;
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<TaskId> ids = new ArrayList<>(totalTasks);
+
+        LsmTaskRepository repository = open();
+        long begin = System.nanoTime();
+        for (int i = 0; i < totalTasks; i++) {
+            Task task = new Task(TaskId.generate(), UserId.of("user-" + (i % users)), "Task " + i,
+                    i % 10 == 0 ? Priority.HIGH : Priority.MEDIUM, start.plusMinutes(i / users));
+            repository.save(task);
+            ids.add(task.getId());
+        }
+        long writeNanos = System.nanoTime() - begin;
+        repository.close();
+
+        repository = open();
+        Random random = new Random(42);
+        long pageNanos = 0;
+        long pointNanos = 0;
+        long ruleNanos = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            UserId userId = UserId.of("user-" + random.nextInt(users));
+
+            begin = System.nanoTime();
+            List<Task> page = repository.findByUserId(userId, 1, PAGE_SIZE);
+            pageNanos += System.nanoTime() - begin;
+            assertThat(page).hasSize(PAGE_SIZE);
+
+            begin = System.nanoTime();
+            boolean found = repository.findById(ids.get(random.nextInt(totalTasks))).isPresent();
+            pointNanos += System.nanoTime() - begin;
+            assertThat(found).isTrue();
+
+            begin = System.nanoTime();
+            repository.existsByUserAndDateAndDescription(userId, start.toLocalDate(), "missing");
+            repository.countHighPriorityTasksForUserOnDate(userId, start.toLocalDate());
+            repository.countOpenTasksForUser(userId);
+            ruleNanos += System.nanoTime() - begin;
+        }
+        repository.close();
+
+        System.out.printf("tasks=%,d writes=%,.0f/s page=%,d ns findById=%,d ns rule queries=%,d ns%n",
+                totalTasks, totalTasks * 1e9 / writeNanos,
+                pageNanos / LOOKUPS, pointNanos / LOOKUPS, ruleNanos / LOOKUPS);
+    }
+
+    private LsmTaskRepository open() {
+        return new LsmTaskRepository(new LsmTree(directory, 16 << 20, 64 << 20, 4, false));
+    }
+}
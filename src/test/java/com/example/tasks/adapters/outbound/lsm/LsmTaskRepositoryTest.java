@@ -0,0 +1,386 @@
+package com.example.tasks.adapters.outbound.lsm;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.example.tasks.domain.CreationContext;
+import com.example.tasks.domain.Priority;
+import com.example.tasks.domain.Status;
+import com.example.tasks.domain.Task;
+import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskQuery;
+import com.example.tasks.domain.TaskSortOrder;
+import com.example.tasks.domain.UserId;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("LSM Task Repository")
+class LsmTaskRepositoryTest {
+
+    // Small enough that a few hundred tasks go through flushes and compactions
+    private static final long MEMTABLE_BYTES = 8 * 1024;
+    private static final long SEGMENT_BYTES = 16 * 1024;
+    private static final int COMPACTION_TRIGGER = 2;
+
+    @TempDir
+    Path directory;
+
+    LsmTree tree;
+    LsmTaskRepository repository;
+    UserId userId;
+    UserId otherUserId;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        open();
+        userId = UserId.of("user123");
+        otherUserId = UserId.of("otherUser");
+        now = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    private void open() {
+        tree = new LsmTree(directory, MEMTABLE_BYTES, SEGMENT_BYTES, COMPACTION_TRIGGER, false);
+        repository = new LsmTaskRepository(tree);
+    }
+
+    private void reopen() {
+        repository.close();
+        open();
+    }
+
+    private Task task(UserId owner, String description, Priority priority, LocalDateTime createdAt) {
+        return new Task(TaskId.generate(), owner, description, priority, createdAt);
+    }
+
+    @Nested
+    @DisplayName("Per-user listing")
+    class ListingTests {
+
+        @Test
+        @DisplayName("Should list only the user's tasks, newest first")
+        void shouldListOnlyUserTasksNewestFirst() {
+            // Given
+            Task oldest = repository.save(task(userId, "Oldest task", Priority.LOW, now.minusHours(2)));
+            Task newest = repository.save(task(userId, "Newest task", Priority.LOW, now));
+            Task middle = repository.save(task(userId, "Middle task", Priority.LOW, now.minusHours(1)));
+            repository.save(task(otherUserId, "Other user task", Priority.LOW, now));
+            repository.save(task(UserId.of("user1234"), "Prefixed user task", Priority.LOW, now));
+
+            // When
+            List<Task> result = repository.findByUserId(userId, 0, 10);
+
+            // Then
+            assertThat(result).extracting(Task::getId).containsExactly(newest.getId(), middle.getId(), oldest.getId());
+        }
+
+        @Test
+        @DisplayName("Should page through the user's tasks")
+        void shouldPageThroughUserTasks() {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                repository.save(task(userId, "Task " + i, Priority.LOW, now.plusMinutes(i)));
+            }
+
+            // When
+            List<Task> firstPage = repository.findByUserId(userId, 0, 2);
+            List<Task> lastPage = repository.findByUserId(userId, 2, 2);
+
+            // Then
+            assertThat(firstPage).extracting(Task::getDescription).containsExactly("Task 4", "Task 3");
+            assertThat(lastPage).extracting(Task::getDescription).containsExactly("Task 0");
+            assertThat(repository.findByUserId(userId, 3, 2)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should continue after the cursor even when newer tasks arrive")
+        void shouldContinueAfterCursor() {
+            // Given
+            for (int i = 0; i < 5; i++) {
+                repository.save(task(userId, "Task " + i, Priority.LOW, now.plusMinutes(i)));
+            }
+            repository.save(task(userId, "Same instant", Priority.LOW, now.plusMinutes(3)));
+            TaskPage first = repository.findByUserIdAfter(userId, TaskQuery.ALL, null, 3);
+
+            // When
+            repository.save(task(userId, "Newest", Priority.LOW, now.plusHours(1)));
+            TaskPage second = repository.findByUserIdAfter(userId, TaskQuery.ALL, first.nextCursor(), 3);
+            TaskPage last = repository.findByUserIdAfter(userId, TaskQuery.ALL, second.nextCursor(), 3);
+
+            // Then
+            List<String> listed = new ArrayList<>();
+            first.tasks().forEach(task -> listed.add(task.getDescription()));
+            second.tasks().forEach(task -> listed.add(task.getDescription()));
+            assertThat(listed).hasSize(6).doesNotHaveDuplicates().doesNotContain("Newest");
+            assertThat(listed.subList(0, 1)).containsExactly("Task 4");
+            assertThat(listed.subList(3, 6)).containsExactly("Task 2", "Task 1", "Task 0");
+            assertThat(last.tasks()).isEmpty();
+            assertThat(last.nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should list only tasks matching status, priority and creation dates")
+        void shouldListOnlyMatchingTasks() {
+            // Given
+            LocalDateTime dayOne = now.minusDays(1);
+            Task match = repository.save(task(userId, "Match", Priority.HIGH, dayOne));
+            repository.save(task(userId, "Low priority", Priority.LOW, dayOne.plusMinutes(1)));
+            repository.save(task(userId, "Too old", Priority.HIGH, now.minusDays(3)));
+            repository.save(task(userId, "Too new", Priority.HIGH, now.plusDays(1)));
+            Task done = repository.save(task(userId, "Completed", Priority.HIGH, now));
+            repository.save(Task.reconstitute(done.getId(), userId, done.getDescription(), done.getPriority(),
+                    Status.COMPLETED, done.getCreatedAt(), now.plusMinutes(1)));
+            Task edge = repository.save(task(userId, "Last instant", Priority.HIGH, now.toLocalDate().atTime(23, 59, 59)));
+            TaskQuery query = new TaskQuery(Status.OPEN, Priority.HIGH, now.toLocalDate().minusDays(1), now.toLocalDate(), null);
+
+            // When
+            TaskPage page = repository.findByUserIdAfter(userId, query, null, 10);
+
+            // Then
+            assertThat(page.tasks()).extracting(Task::getId).containsExactly(edge.getId(), match.getId());
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should page oldest first when asked to")
+        void shouldPageOldestFirst() {
+            // Given
+            List<Task> saved = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                saved.add(repository.save(task(userId, "Task " + i, i % 2 == 0 ? Priority.HIGH : Priority.LOW, now.plusMinutes(i))));
+            }
+            TaskQuery query = new TaskQuery(null, Priority.HIGH, null, null, TaskSortOrder.OLDEST_FIRST);
+
+            // When
+            TaskPage first = repository.findByUserIdAfter(userId, query, null, 2);
+            TaskPage second = repository.findByUserIdAfter(userId, query, first.nextCursor(), 2);
+
+            // Then
+            assertThat(first.tasks()).extracting(Task::getDescription).containsExactly("Task 0", "Task 2");
+            assertThat(second.tasks()).extracting(Task::getDescription).containsExactly("Task 4", "Task 6");
+            assertThat(repository.findByUserIdAfter(userId, query, second.nextCursor(), 2).tasks()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should move a task when it is saved with a different owner")
+        void shouldMoveTaskBetweenUsers() {
+            // Given
+            Task task = repository.save(task(userId, "Moving task", Priority.LOW, now));
+
+            // When
+            repository.save(Task.reconstitute(task.getId(), otherUserId, task.getDescription(), task.getPriority(),
+                    task.getStatus(), task.getCreatedAt(), task.getUpdatedAt()));
+
+            // Then
+            assertThat(repository.findByUserId(userId, 0, 10)).isEmpty();
+            assertThat(repository.findByUserId(otherUserId, 0, 10)).extracting(Task::getId).containsExactly(task.getId());
+            assertThat(repository.countOpenTasksForUser(userId)).isZero();
+            assertThat(repository.countOpenTasksForUser(otherUserId)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Business rule queries")
+    class BusinessRuleQueryTests {
+
+        @Test
+        @DisplayName("Should find descriptions only within the same day")
+        void shouldFindDescriptionsOnlyWithinSameDay() {
+            // Given
+            repository.save(task(userId, "Daily standup", Priority.LOW, now.toLocalDate().atStartOfDay()));
+            repository.save(task(userId, "Late task", Priority.LOW, now.toLocalDate().atTime(23, 59, 59, 999_999_999)));
+            repository.save(task(userId, "Yesterday task", Priority.LOW, now.minusDays(1)));
+
+            // When / Then
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Daily standup")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Late task")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Yesterday task")).isFalse();
+            assertThat(repository.existsByUserAndDateAndDescription(otherUserId, now.toLocalDate(), "Daily standup")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should move a description's key with renames and drop it on delete")
+        void shouldFollowDescriptionChanges() {
+            // Given
+            Task task = repository.save(task(userId, "Daily standup", Priority.LOW, now));
+            Task other = repository.save(task(userId, "Weekly sync", Priority.LOW, now));
+
+            // When
+            repository.save(task.updateDescription("Planning", now.plusMinutes(1)));
+            repository.deleteById(other.getId());
+
+            // Then
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Daily standup")).isFalse();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Planning")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), " Planning ")).isTrue();
+            assertThat(repository.existsByUserAndDateAndDescription(userId, now.toLocalDate(), "Weekly sync")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should count high priority tasks per day")
+        void shouldCountHighPriorityTasksPerDay() {
+            // Given
+            repository.save(task(userId, "High 1", Priority.HIGH, now));
+            repository.save(task(userId, "High 2", Priority.HIGH, now.plusHours(1)));
+            repository.save(task(userId, "Low", Priority.LOW, now));
+            repository.save(task(userId, "High tomorrow", Priority.HIGH, now.plusDays(1)));
+
+            // When
+            long count = repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate());
+
+            // Then
+            assertThat(count).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should answer the creation context from one scan of the day")
+        void shouldAnswerCreationContext() {
+            // Given
+            repository.save(task(userId, "High", Priority.HIGH, now));
+            Task done = repository.save(task(userId, "Low", Priority.LOW, now.plusHours(1)));
+            repository.save(task(userId, "High tomorrow", Priority.HIGH, now.plusDays(1)));
+            repository.save(done.complete(now.plusHours(2)));
+
+            // When & Then
+            assertThat(repository.creationContext(userId, now.toLocalDate(), "Low"))
+                    .isEqualTo(new CreationContext(true, 1, 2));
+            assertThat(repository.creationContext(userId, now.toLocalDate(), "High tomorrow"))
+                    .isEqualTo(new CreationContext(false, 1, 2));
+            assertThat(repository.creationContext(otherUserId, now.toLocalDate(), "Low"))
+                    .isEqualTo(new CreationContext(false, 0, 0));
+        }
+
+        @Test
+        @DisplayName("Should stop scanning the day at the high priority quota")
+        void shouldStopAtHighPriorityQuota() {
+            // Given: more high priority tasks than the quota
+            for (int i = 0; i < TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY + 2; i++) {
+                repository.save(task(userId, "High " + i, Priority.HIGH, now.plusMinutes(i)));
+            }
+
+            // When / Then
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate()))
+                    .isEqualTo(TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY + 2);
+            assertThat(repository.creationContext(userId, now.toLocalDate(), "New").highPriorityTasksToday())
+                    .isEqualTo(TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY);
+        }
+
+        @Test
+        @DisplayName("Should keep the open task count in step with updates and deletes")
+        void shouldTrackOpenTaskCount() {
+            // Given
+            Task completed = repository.save(task(userId, "Completed", Priority.LOW, now));
+            Task deleted = repository.save(task(userId, "Deleted", Priority.LOW, now));
+            repository.save(task(userId, "Open", Priority.LOW, now));
+
+            // When
+            repository.save(completed.complete(now.plusMinutes(1)));
+            repository.save(completed.complete(now.plusMinutes(1)));
+            repository.deleteById(deleted.getId());
+            repository.deleteById(deleted.getId());
+
+            // Then
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(1);
+            assertThat(repository.countOpenTasksForUser(otherUserId)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Storage")
+    class StorageTests {
+
+        @Test
+        @DisplayName("Should restore all tasks after a restart")
+        void shouldRestoreTasksAfterRestart() {
+            // Given
+            Task task = repository.save(task(userId, "Persistent task", Priority.HIGH, now));
+
+            // When
+            reopen();
+
+            // Then
+            assertThat(repository.findById(task.getId())).get().usingRecursiveComparison().isEqualTo(task);
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(1);
+            assertThat(repository.countHighPriorityTasksForUserOnDate(userId, now.toLocalDate())).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should list in both orders across memtables and segments")
+        void shouldListBothOrdersAcrossSegments() {
+            // Given: enough tasks to flush into segments, then more in the memtable
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                tasks.add(repository.save(task(userId, "Task " + i, Priority.LOW, now.plusSeconds(i))));
+                repository.save(task(otherUserId, "Other " + i, Priority.LOW, now.plusSeconds(i)));
+            }
+            reopen();
+            for (int i = 0; i < 300; i += 7) {
+                repository.deleteById(tasks.get(i).getId());
+            }
+            tasks.removeIf(task -> Integer.parseInt(task.getDescription().substring(5)) % 7 == 0);
+
+            // When
+            List<Task> oldestFirst = listAll(new TaskQuery(null, null, null, null, TaskSortOrder.OLDEST_FIRST));
+            List<Task> newestFirst = listAll(TaskQuery.ALL);
+
+            // Then
+            assertThat(oldestFirst).extracting(Task::getId).containsExactlyElementsOf(tasks.stream().map(Task::getId).toList());
+            assertThat(newestFirst).extracting(Task::getId)
+                    .containsExactlyElementsOf(tasks.reversed().stream().map(Task::getId).toList());
+        }
+
+        private List<Task> listAll(TaskQuery query) {
+            List<Task> all = new ArrayList<>();
+            TaskPage page = repository.findByUserIdAfter(userId, query, null, 16);
+            all.addAll(page.tasks());
+            while (page.nextCursor() != null) {
+                page = repository.findByUserIdAfter(userId, query, page.nextCursor(), 16);
+                all.addAll(page.tasks());
+            }
+            return all;
+        }
+
+        @Test
+        @DisplayName("Should keep updates and deletes through flushes, compactions and restarts")
+        void shouldKeepChangesThroughCompactions() {
+            // Given
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < 600; i++) {
+                tasks.add(repository.save(task(userId, "Task " + i, Priority.LOW, now.plusSeconds(i))));
+            }
+            for (int i = 0; i < 600; i += 3) {
+                repository.deleteById(tasks.get(i).getId());
+            }
+            for (int i = 1; i < 600; i += 3) {
+                repository.save(tasks.get(i).updateDescription("Updated " + i, now.plusHours(1)));
+            }
+
+            // When
+            reopen();
+
+            // Then
+            assertThat(tree.runCount()).isLessThan(COMPACTION_TRIGGER * 4);
+            assertThat(repository.findById(tasks.get(0).getId())).isEmpty();
+            assertThat(repository.findById(tasks.get(1).getId())).get()
+                    .extracting(Task::getDescription).isEqualTo("Updated 1");
+            assertThat(repository.findByUserId(userId, 0, 1000)).hasSize(400);
+            assertThat(repository.findByUserId(userId, 0, 2)).extracting(Task::getDescription)
+                    .containsExactly("Task 599", "Updated 598");
+            assertThat(repository.countOpenTasksForUser(userId)).isEqualTo(400);
+        }
+    }
+}
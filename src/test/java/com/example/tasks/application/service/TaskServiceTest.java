@@ -1,40 +1,61 @@
 package com.example.tasks.application.service;
 
+import com.example.tasks.application.port.outbound.AsyncTaskRepositoryPort;
 import com.example.tasks.application.port.outbound.TaskRepositoryPort;
+import com.example.tasks.domain.CreationContext;
 import com.example.tasks.domain.Priority;
 import com.example.tasks.domain.Status;
 import com.example.tasks.domain.Task;
 import com.example.tasks.domain.TaskBusinessRules;
+import com.example.tasks.domain.TaskCursor;
 import com.example.tasks.domain.TaskId;
+import com.example.tasks.domain.TaskPage;
+import com.example.tasks.domain.TaskPatch;
+import com.example.tasks.domain.TaskQuery;
 import com.example.tasks.domain.TaskValidationService;
 import com.example.tasks.domain.UserId;
 import com.example.tasks.domain.exception.TaskBusinessRuleException;
 import com.example.tasks.domain.exception.TaskNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class TaskServiceTest {
 
     TaskRepositoryPort repository;
+    AsyncTaskRepositoryPort asyncRepository;
     TaskValidationService validationService;
     Clock clock;
+    MeterRegistry meterRegistry;
     TaskService service;
 
     UserId userId;
@@ -46,9 +67,18 @@ class TaskServiceTest {
     @BeforeEach
     void setup() {
         repository = mock(TaskRepositoryPort.class);
+        // The port's read-check-write defaults run against the stubbed findById and save
+        when(repository.updateOwnedTask(any(), any(), any(), any())).thenCallRealMethod();
+        when(repository.save(any(TaskPatch.class))).thenCallRealMethod();
+        doCallRealMethod().when(repository).deleteOwnedTask(any(), any());
         validationService = mock(TaskValidationService.class);
+        // The default creation context asks the stubbed rule queries
+        when(validationService.creationContext(any(), any(), any())).thenCallRealMethod();
         clock = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
-        service = new TaskService(repository, validationService, clock);
+        meterRegistry = new SimpleMeterRegistry();
+        asyncRepository = mock(AsyncTaskRepositoryPort.class);
+        service = new TaskService(repository, asyncRepository, validationService, clock, new UserLockService(),
+                meterRegistry);
 
         userId = UserId.of("user123");
         otherUserId = UserId.of("otherUser");
@@ -139,6 +169,108 @@ class TaskServiceTest {
                 .isInstanceOf(TaskBusinessRuleException.class)
                 .hasMessageContaining("Cannot have more than " + TaskBusinessRules.MAX_OPEN_TASKS_PER_USER);
         }
+
+        @Test
+        @DisplayName("Should leave the quotas to a repository that enforces them on save")
+        void shouldLeaveQuotasToEnforcingRepository() {
+            // Given
+            String description = "New task";
+            when(repository.enforcesCreationQuotas()).thenReturn(true);
+            when(validationService.existsByUserAndDateAndDescription(userId, today, description)).thenReturn(false);
+            when(repository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            Task result = service.createTask(userId, description, Priority.HIGH);
+
+            // Then
+            assertThat(result.getDescription()).isEqualTo(description);
+            verify(validationService).existsByUserAndDateAndDescription(userId, today, description);
+            verify(validationService, never()).countHighPriorityTasksForUserOnDate(any(), any());
+            verify(validationService, never()).countOpenTasksForUser(any());
+        }
+
+        @Test
+        @DisplayName("Should leave description uniqueness to a repository that enforces it on save")
+        void shouldLeaveUniquenessToEnforcingRepository() {
+            // Given
+            when(repository.enforcesUniqueDescriptions()).thenReturn(true);
+            when(repository.enforcesCreationQuotas()).thenReturn(true);
+            when(repository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            service.createTask(userId, "New task", Priority.LOW);
+
+            // Then
+            verify(repository).save(any(Task.class));
+            verify(validationService, never()).existsByUserAndDateAndDescription(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should take the rules' inputs from one creation context read")
+        void shouldReadCreationContextOnce() {
+            // Given
+            doReturn(new CreationContext(false, 0, TaskBusinessRules.MAX_OPEN_TASKS_PER_USER))
+                .when(validationService).creationContext(userId, today, "New task");
+
+            // When & Then
+            assertThatThrownBy(() -> service.createTask(userId, "New task", Priority.LOW))
+                .isInstanceOf(TaskBusinessRuleException.class)
+                .hasMessage(TaskBusinessRuleException.openTaskLimitReached().getMessage());
+            verify(validationService).creationContext(userId, today, "New task");
+            verify(validationService, never()).existsByUserAndDateAndDescription(any(), any(), any());
+            verify(validationService, never()).countOpenTasksForUser(any());
+            verify(repository, never()).save(any(Task.class));
+        }
+
+        @Test
+        @DisplayName("Should fail on a taken description without waiting for the counts")
+        void shouldFailFastOnTakenDescription() {
+            // Given: the open count never answers while the create is running
+            CountDownLatch release = new CountDownLatch(1);
+            when(validationService.existsByUserAndDateAndDescription(userId, today, "Duplicate task")).thenReturn(true);
+            when(validationService.countOpenTasksForUser(userId)).thenAnswer(invocation -> {
+                release.await(10, TimeUnit.SECONDS);
+                return 0L;
+            });
+
+            try {
+                // When & Then
+                assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThatThrownBy(() -> service.createTask(userId, "Duplicate task", Priority.MEDIUM))
+                        .isInstanceOf(TaskBusinessRuleException.class)
+                        .hasMessageContaining("Description must be unique per user per day"));
+                verify(repository, never()).save(any(Task.class));
+            } finally {
+                release.countDown();
+            }
+        }
+
+        @Test
+        @DisplayName("Should report the query failure itself")
+        void shouldRethrowQueryFailure() {
+            // Given
+            when(validationService.countOpenTasksForUser(userId)).thenThrow(new IllegalStateException("Store unavailable"));
+
+            // When & Then
+            assertThatThrownBy(() -> service.createTask(userId, "New task", Priority.MEDIUM))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Store unavailable");
+        }
+
+        @Test
+        @DisplayName("Should record the time spent in each phase of a create")
+        void shouldRecordCreateLatencyBreakdown() {
+            // Given
+            when(repository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            service.createTask(userId, "New task", Priority.HIGH);
+
+            // Then
+            for (String phase : List.of("lock", "rules", "write")) {
+                assertThat(meterRegistry.get("tasks.create").tag("phase", phase).timer().count()).isEqualTo(1);
+            }
+        }
     }
 
     @Nested
@@ -260,6 +392,37 @@ class TaskServiceTest {
             assertThat(result.get(0).getDescription()).isEqualTo("Task 1");
             assertThat(result.get(1).getDescription()).isEqualTo("Task 2");
         }
+
+        @Test
+        @DisplayName("Should list user tasks from the requested snapshot")
+        void shouldListUserTasksFromSnapshot() {
+            // Given
+            Task task = new Task(TaskId.generate(), userId, "Task 1", Priority.LOW, now);
+            when(repository.findByUserId(userId, 1, 10, 42L)).thenReturn(new TaskPage(List.of(task), 42L, null));
+
+            // When
+            TaskPage result = service.listTasks(userId, 1, 10, 42L);
+
+            // Then
+            assertThat(result.tasks()).containsExactly(task);
+            assertThat(result.readVersion()).isEqualTo(42L);
+        }
+
+        @Test
+        @DisplayName("Should list the page after a cursor")
+        void shouldListPageAfterCursor() {
+            // Given
+            Task task = new Task(TaskId.generate(), userId, "Task 1", Priority.LOW, now);
+            TaskCursor cursor = new TaskCursor(now.plusHours(1), TaskId.generate());
+            when(repository.findByUserIdAfter(userId, TaskQuery.ALL, cursor, 1)).thenReturn(TaskPage.of(List.of(task), 1));
+
+            // When
+            TaskPage result = service.listTasksAfter(userId, TaskQuery.ALL, cursor, 1);
+
+            // Then
+            assertThat(result.tasks()).containsExactly(task);
+            assertThat(result.nextCursor()).isEqualTo(TaskCursor.after(task));
+        }
     }
 
     @Nested
@@ -293,4 +456,138 @@ class TaskServiceTest {
                 .hasMessageContaining("User can only access their own tasks");
         }
     }
+
+    @Nested
+    @DisplayName("Async use cases")
+    class AsyncUseCaseTests {
+
+        @BeforeEach
+        void stubQueries() {
+            // The port's default answers the creation context from the stubbed queries
+            when(asyncRepository.creationContext(any(), any(), anyString())).thenCallRealMethod();
+            when(asyncRepository.existsByUserAndDateAndDescription(any(), any(), anyString())).thenReturn(completedFuture(false));
+            when(asyncRepository.countHighPriorityTasksForUserOnDate(any(), any())).thenReturn(completedFuture(0L));
+            when(asyncRepository.countOpenTasksForUser(any())).thenReturn(completedFuture(0L));
+            when(asyncRepository.save(any(Task.class))).thenAnswer(invocation -> completedFuture(invocation.getArgument(0)));
+        }
+
+        @Nested
+        @DisplayName("Create Task Business Rules")
+        class AsyncCreateTaskTests {
+
+            @Test
+            @DisplayName("Should create task once the rule queries have answered")
+            void shouldCreateTaskSuccessfully() {
+                // When
+                Task result = service.createTaskAsync(userId, "Test task", Priority.HIGH).join();
+
+                // Then
+                assertThat(result.getUserId()).isEqualTo(userId);
+                assertThat(result.getDescription()).isEqualTo("Test task");
+                assertThat(result.getStatus()).isEqualTo(Status.OPEN);
+                assertThat(result.getCreatedAt()).isEqualTo(now);
+                verify(asyncRepository).existsByUserAndDateAndDescription(userId, today, "Test task");
+                verify(asyncRepository).countHighPriorityTasksForUserOnDate(userId, today);
+                verify(asyncRepository).countOpenTasksForUser(userId);
+            }
+
+            @Test
+            @DisplayName("Should fail the future with the rule a create breaks, without saving")
+            void shouldFailWithBrokenRule() {
+                // Given
+                when(asyncRepository.existsByUserAndDateAndDescription(userId, today, "Duplicate task")).thenReturn(completedFuture(true));
+                when(asyncRepository.countOpenTasksForUser(userId))
+                    .thenReturn(completedFuture((long) TaskBusinessRules.MAX_OPEN_TASKS_PER_USER));
+
+                // When & Then
+                assertThatThrownBy(() -> service.createTaskAsync(userId, "Duplicate task", Priority.MEDIUM).join())
+                    .hasCauseInstanceOf(TaskBusinessRuleException.class)
+                    .hasRootCauseMessage("Description must be unique per user per day");
+                assertThatThrownBy(() -> service.createTaskAsync(userId, "New task", Priority.MEDIUM).join())
+                    .hasCauseInstanceOf(TaskBusinessRuleException.class)
+                    .hasRootCauseMessage(TaskBusinessRuleException.openTaskLimitReached().getMessage());
+                verify(asyncRepository, never()).save(any(Task.class));
+            }
+
+            @Test
+            @DisplayName("Should leave the rules a store enforces to its write")
+            void shouldSkipQueriesTheStoreEnforces() {
+                // Given
+                when(asyncRepository.enforcesUniqueDescriptions()).thenReturn(true);
+                when(asyncRepository.enforcesCreationQuotas()).thenReturn(true);
+
+                // When
+                service.createTaskAsync(userId, "Test task", Priority.HIGH).join();
+
+                // Then
+                verify(asyncRepository, never()).existsByUserAndDateAndDescription(any(), any(), anyString());
+                verify(asyncRepository, never()).countHighPriorityTasksForUserOnDate(any(), any());
+                verify(asyncRepository, never()).countOpenTasksForUser(any());
+                verify(asyncRepository, never()).creationContext(any(), any(), anyString());
+                verify(asyncRepository).save(any(Task.class));
+            }
+
+            @Test
+            @DisplayName("Should take the rules' inputs from the store's creation context")
+            void shouldUseCreationContext() {
+                // Given
+                doReturn(completedFuture(new CreationContext(false, TaskBusinessRules.MAX_HIGH_PRIORITY_TASKS_PER_DAY, 0)))
+                    .when(asyncRepository).creationContext(userId, today, "Test task");
+
+                // When & Then
+                assertThatThrownBy(() -> service.createTaskAsync(userId, "Test task", Priority.HIGH).join())
+                    .hasCauseInstanceOf(TaskBusinessRuleException.class)
+                    .hasRootCauseMessage(TaskBusinessRuleException.highPriorityLimitReached().getMessage());
+                verify(asyncRepository, never()).existsByUserAndDateAndDescription(any(), any(), anyString());
+                verify(asyncRepository, never()).countHighPriorityTasksForUserOnDate(any(), any());
+                verify(asyncRepository, never()).countOpenTasksForUser(any());
+            }
+
+            @Test
+            @DisplayName("Should start a user's next create only when the previous one has completed")
+            void shouldRunCreatesOfOneUserInTurn() {
+                // Given: the first save is still in flight
+                CompletableFuture<Task> firstSave = new CompletableFuture<>();
+                when(asyncRepository.save(any(Task.class))).thenReturn(firstSave)
+                    .thenAnswer(invocation -> completedFuture(invocation.getArgument(0)));
+
+                // When
+                CompletableFuture<Task> first = service.createTaskAsync(userId, "First task", Priority.LOW);
+                CompletableFuture<Task> second = service.createTaskAsync(userId, "Second task", Priority.LOW);
+                CompletableFuture<Task> other = service.createTaskAsync(otherUserId, "Other task", Priority.LOW);
+
+                // Then: the second create has not even checked the quotas yet, other users are not held up
+                verify(asyncRepository, times(1)).countOpenTasksForUser(userId);
+                assertThat(second).isNotDone();
+                assertThat(other).isCompleted();
+
+                firstSave.complete(new Task(TaskId.generate(), userId, "First task", Priority.LOW, now));
+                assertThat(first).isCompleted();
+                assertThat(second.join().getDescription()).isEqualTo("Second task");
+                verify(asyncRepository, times(2)).countOpenTasksForUser(userId);
+            }
+        }
+
+        @Nested
+        @DisplayName("Task Access")
+        class AsyncTaskAccessTests {
+
+            @Test
+            @DisplayName("Should fail the future when the task is missing or someone else's")
+            void shouldCheckOwnership() {
+                // Given
+                Task task = new Task(taskId, userId, "Test task", Priority.LOW, now);
+                TaskId missing = TaskId.generate();
+                when(asyncRepository.findById(taskId)).thenReturn(completedFuture(Optional.of(task)));
+                when(asyncRepository.findById(missing)).thenReturn(completedFuture(Optional.empty()));
+
+                // When & Then
+                assertThat(service.getTaskAsync(taskId, userId).join()).isSameAs(task);
+                assertThatThrownBy(() -> service.getTaskAsync(taskId, otherUserId).join())
+                    .hasCauseInstanceOf(TaskBusinessRuleException.class);
+                assertThatThrownBy(() -> service.getTaskAsync(missing, userId).join())
+                    .hasCauseInstanceOf(TaskNotFoundException.class);
+            }
+        }
+    }
 }
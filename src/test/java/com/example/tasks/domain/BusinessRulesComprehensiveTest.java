@@ -11,6 +11,8 @@ import java.time.LocalDateTime;
 
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +34,8 @@ class BusinessRulesComprehensiveTest {
     @BeforeEach
     void setup() {
         validationService = mock(TaskValidationService.class);
+        when(validationService.hasAtLeastHighPriorityTasksOnDate(any(), any(), anyInt())).thenCallRealMethod();
+        when(validationService.hasAtLeastOpenTasks(any(), anyInt())).thenCallRealMethod();
 
         userId = UserId.of("user123");
         otherUserId = UserId.of("otherUser");
@@ -221,4 +221,52 @@ class TaskTest {
             assertThat(task.wasCreatedOn(now.toLocalDate().plusDays(1))).isFalse();
         }
     }
+
+    @Nested
+    @DisplayName("Task Patches")
+    class TaskPatchTests {
+
+        @Test
+        @DisplayName("Should apply all changes at once and record them")
+        void shouldApplyAllChangesAtOnce() {
+            // When
+            TaskPatch patch = task.patch(new TaskUpdate("  New task  ", Priority.HIGH, Status.COMPLETED), now.plusHours(1));
+
+            // Then
+            assertThat(patch.original()).isSameAs(task);
+            assertThat(patch.task().getDescription()).isEqualTo("New task");
+            assertThat(patch.task().getPriority()).isEqualTo(Priority.HIGH);
+            assertThat(patch.task().getStatus()).isEqualTo(Status.COMPLETED);
+            assertThat(patch.task().getUpdatedAt()).isEqualTo(now.plusHours(1));
+            assertThat(patch.changed()).containsExactlyInAnyOrder(
+                    TaskPatch.Field.DESCRIPTION, TaskPatch.Field.PRIORITY, TaskPatch.Field.STATUS);
+        }
+
+        @Test
+        @DisplayName("Should record only the fields that differ")
+        void shouldRecordOnlyChangedFields() {
+            // When
+            TaskPatch patch = task.patch(new TaskUpdate("Test task", Priority.LOW, null), now.plusHours(1));
+            TaskPatch unchanged = task.patch(new TaskUpdate(" Test task ", Priority.MEDIUM, Status.OPEN), now.plusHours(1));
+
+            // Then
+            assertThat(patch.changed()).containsExactly(TaskPatch.Field.PRIORITY);
+            assertThat(patch.toUpdate()).isEqualTo(new TaskUpdate(null, Priority.LOW, null));
+            assertThat(unchanged.isEmpty()).isTrue();
+            assertThat(unchanged.task()).isSameAs(task);
+        }
+
+        @Test
+        @DisplayName("Should reject changes to a completed task like the single-field methods")
+        void shouldRejectChangesToCompletedTask() {
+            // Given
+            Task completed = task.complete(now);
+
+            // When / Then
+            assertThatThrownBy(() -> completed.patch(new TaskUpdate("New task", null, null), now))
+                    .isInstanceOf(TaskBusinessRuleException.class)
+                    .hasMessage("Cannot update completed task");
+            assertThat(completed.patch(new TaskUpdate(null, null, Status.COMPLETED), now).isEmpty()).isTrue();
+        }
+    }
 }
@@ -54,6 +54,19 @@ class ValueObjectsTest {
                 .hasMessageContaining("Task ID cannot be null or empty");
         }
 
+        @Test
+        @DisplayName("Should hold any spelling of a UUID in canonical form")
+        void shouldCanonicalizeTaskId() {
+            // When
+            TaskId uppercase = TaskId.of("123E4567-E89B-12D3-A456-426614174000");
+            TaskId shortGroups = TaskId.of("1-1-1-1-1");
+
+            // Then: the same task, however the id was written
+            assertThat(uppercase).isEqualTo(TaskId.of("123e4567-e89b-12d3-a456-426614174000"));
+            assertThat(uppercase.value()).isEqualTo("123e4567-e89b-12d3-a456-426614174000");
+            assertThat(shortGroups.value()).isEqualTo("00000001-0001-0001-0001-000000000001");
+        }
+
         @Test
         @DisplayName("Should fail when TaskId is not valid UUID format")
         void shouldFailWhenTaskIdIsNotValidUuid() {
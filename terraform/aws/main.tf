@@ -122,6 +122,11 @@ resource "aws_dynamodb_table" "tasks" {
     type = "S"
   }
 
+  attribute {
+    name = "openUserId"
+    type = "S"
+  }
+
   global_secondary_index {
     name     = "UserIdIndex"
     hash_key = "userId"
@@ -131,6 +136,22 @@ resource "aws_dynamodb_table" "tasks" {
     write_capacity = 5
   }
 
+  # Sparse: openUserId is only set while a task is open
+  global_secondary_index {
+    name     = "OpenTasksIndex"
+    hash_key = "openUserId"
+    range_key = "createdAt"
+    projection_type = "KEYS_ONLY"
+    read_capacity = 5
+    write_capacity = 5
+  }
+
+  # Description sentinels expire once their day is over; tasks never set it
+  ttl {
+    attribute_name = "expiresAt"
+    enabled        = true
+  }
+
   tags = {
     Name        = "Tasks Table"
     Environment = var.environment
@@ -65,6 +65,44 @@ resource "google_firestore_index" "task_user_created_date_desc_index" {
   depends_on = [google_firestore_database.tasks_db]
 }
 
+# Uniqueness checks look descriptions up by their fixed-size hash
+resource "google_firestore_index" "task_user_description_hash_date_index" {
+  project    = var.project_id
+  database   = google_firestore_database.tasks_db.name
+  collection = "tasks"
+
+  fields {
+    field_path = "userId"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "descriptionHash"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "createdAt"
+    order      = "ASCENDING"
+  }
+
+  depends_on = [google_firestore_database.tasks_db]
+}
+
+# Descriptions are never filtered or ordered on by themselves; skip their
+# automatic single-field index entries
+resource "google_firestore_field" "task_description" {
+  project    = var.project_id
+  database   = google_firestore_database.tasks_db.name
+  collection = "tasks"
+  field      = "description"
+
+  index_config {}
+
+  depends_on = [google_firestore_database.tasks_db]
+}
+
+# Matches documents written before descriptionHash; drop once they are migrated
 resource "google_firestore_index" "task_user_description_date_index" {
   project    = var.project_id
   database   = google_firestore_database.tasks_db.name
@@ -129,6 +167,95 @@ resource "google_firestore_index" "task_user_status_index" {
   depends_on = [google_firestore_database.tasks_db]
 }
 
+# Filtered listings: equality on status and/or priority, range and order on
+# createdAt. Queries filtering on both merge the status and priority indexes.
+resource "google_firestore_index" "task_user_created_date_asc_index" {
+  project    = var.project_id
+  database   = google_firestore_database.tasks_db.name
+  collection = "tasks"
+
+  fields {
+    field_path = "userId"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "createdAt"
+    order      = "ASCENDING"
+  }
+
+  depends_on = [google_firestore_database.tasks_db]
+}
+
+resource "google_firestore_index" "task_user_status_date_desc_index" {
+  project    = var.project_id
+  database   = google_firestore_database.tasks_db.name
+  collection = "tasks"
+
+  fields {
+    field_path = "userId"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "status"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "createdAt"
+    order      = "DESCENDING"
+  }
+
+  depends_on = [google_firestore_database.tasks_db]
+}
+
+resource "google_firestore_index" "task_user_status_date_asc_index" {
+  project    = var.project_id
+  database   = google_firestore_database.tasks_db.name
+  collection = "tasks"
+
+  fields {
+    field_path = "userId"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "status"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "createdAt"
+    order      = "ASCENDING"
+  }
+
+  depends_on = [google_firestore_database.tasks_db]
+}
+
+resource "google_firestore_index" "task_user_priority_date_desc_index" {
+  project    = var.project_id
+  database   = google_firestore_database.tasks_db.name
+  collection = "tasks"
+
+  fields {
+    field_path = "userId"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "priority"
+    order      = "ASCENDING"
+  }
+
+  fields {
+    field_path = "createdAt"
+    order      = "DESCENDING"
+  }
+
+  depends_on = [google_firestore_database.tasks_db]
+}
+
 # Create a storage bucket for function source code
 resource "google_storage_bucket" "function_bucket" {
   name     = "${var.project_id}-task-functions-${var.environment}"